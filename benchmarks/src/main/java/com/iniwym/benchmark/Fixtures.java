@@ -0,0 +1,103 @@
+package com.iniwym.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.iniwym.output.Sentence;
+import com.iniwym.utils.JsonToTxtUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Description: 基准测试使用的参考输入。
+ * fixtures/offline_result.json 是一段约16分钟、中英文混合的讲座录音的离线识别结果，
+ * 结构与服务端返回的一致（stamp_sents含text_seg、punc、start、end、ts_list，键按字母顺序排列）。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+final class Fixtures {
+
+    // 离线识别结果的参考输入
+    static final String OFFLINE_RESULT = "/fixtures/offline_result.json";
+
+    private Fixtures() {
+    }
+
+    /**
+     * 读取参考输入的原始文本
+     *
+     * @param resource 类路径下的资源
+     * @return 文本
+     */
+    static String load(String resource) throws IOException {
+        try (InputStream in = Fixtures.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Fixture not found: " + resource);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 参考输入中全部句子的text_seg
+     */
+    static String[] textSegs(String message) {
+        JSONArray sents = JSON.parseObject(message).getJSONArray("stamp_sents");
+        String[] segs = new String[sents.size()];
+        for (int i = 0; i < segs.length; i++) {
+            segs[i] = sents.getJSONObject(i).getString("text_seg");
+        }
+        return segs;
+    }
+
+    /**
+     * 按输出时的方式把参考输入转换为句子
+     */
+    static List<Sentence> sentences(String message) {
+        JSONArray sents = JSON.parseObject(message).getJSONArray("stamp_sents");
+        List<Sentence> sentences = new ArrayList<>(sents.size());
+        for (int i = 0; i < sents.size(); i++) {
+            JSONObject item = sents.getJSONObject(i);
+            sentences.add(new Sentence(i, JsonToTxtUtil.adjustTextSeg(item.getString("text_seg")),
+                    item.getString("punc"), item.getLongValue("start"), item.getLongValue("end")));
+        }
+        return sentences;
+    }
+
+    /**
+     * 丢弃所有内容的输出，只统计写入的字符数，测量时不包含磁盘写入
+     */
+    static final class NullWriter extends Writer {
+        long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(String str) {
+            count += str.length();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.iniwym.benchmark;
+
+import com.iniwym.audio.MappedAudioSource;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.enums.Role;
+import org.java_websocket.framing.Framedata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description: 发送循环的基准测试：从映射的wav文件中按块读取，并按客户端的方式组装为带掩码的WebSocket二进制帧。
+ * 帧交给Blackhole而不写入网络，相当于一个什么都不做的socket，测得的是客户端自身每个文件的发送开销。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SendLoopBenchmark {
+
+    // wav文件头长度
+    private static final int WAV_HEADER_SIZE = 44;
+
+    // 每次发送的数据块字节数：60ms的流式块，以及离线模式合并后的块
+    @Param({"1920", "19200", "96000"})
+    private int chunkSize;
+
+    // 测试音频的时长，单位秒
+    @Param({"60"})
+    private int seconds;
+
+    private Path wavFile;
+    private Draft_6455 draft;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        wavFile = Files.createTempFile("funasr-bench", ".wav");
+        int samples = seconds * 16000;
+        ByteBuffer data = ByteBuffer.allocate(WAV_HEADER_SIZE + samples * 2).order(ByteOrder.LITTLE_ENDIAN);
+        data.position(WAV_HEADER_SIZE);
+        Random random = new Random(42);
+        for (int i = 0; i < samples; i++) {
+            // 440Hz正弦波叠加少量噪声
+            data.putShort((short) (8000 * Math.sin(2 * Math.PI * 440 * i / 16000.0) + random.nextGaussian() * 300));
+        }
+        Files.write(wavFile, data.array());
+        draft = new Draft_6455();
+        draft.setParseMode(Role.CLIENT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(wavFile);
+    }
+
+    @Benchmark
+    public void readAndFrame(Blackhole bh) throws IOException {
+        try (MappedAudioSource source = new MappedAudioSource(wavFile, WAV_HEADER_SIZE)) {
+            ByteBuffer chunk;
+            while ((chunk = source.nextChunk(chunkSize)) != null) {
+                for (Framedata frame : draft.createFrames(chunk, true)) {
+                    bh.consume(draft.createBinaryFrame(frame));
+                }
+            }
+        }
+    }
+}
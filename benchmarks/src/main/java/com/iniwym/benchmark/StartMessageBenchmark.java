@@ -0,0 +1,35 @@
+package com.iniwym.benchmark;
+
+import com.iniwym.client.FunasrWsClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description: 每个文件开始时发送的请求参数JSON的构造开销，参数取自类路径中的paramMapping.properties
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartMessageBenchmark {
+
+    private final String wavPath = "/data/audio/2026/lecture_week07.mp3";
+
+    @Benchmark
+    public String buildStartJson() {
+        return FunasrWsClient.buildStartJson(wavPath, true);
+    }
+}
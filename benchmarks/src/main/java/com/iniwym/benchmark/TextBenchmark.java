@@ -0,0 +1,79 @@
+package com.iniwym.benchmark;
+
+import com.iniwym.output.TxtSink;
+import com.iniwym.text.TextSegNormalizer;
+import com.iniwym.utils.JsonToTxtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description: 文本处理的基准测试：text_seg的空格调整、中文字符判断和时间格式化。
+ * 每次调用处理参考输入中的全部句子；normalizeTranscript按输出时的方式在整份结果中复用一个{@link TextSegNormalizer}。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TextBenchmark {
+
+    private String[] textSegs;
+    private char[] chars;
+    private long[] startSeconds;
+
+    @Setup
+    public void setup() throws IOException {
+        String message = Fixtures.load(Fixtures.OFFLINE_RESULT);
+        textSegs = Fixtures.textSegs(message);
+        chars = String.join("", textSegs).toCharArray();
+        startSeconds = Fixtures.sentences(message).stream().mapToLong(s -> s.getStart() / 1000).toArray();
+    }
+
+    @Benchmark
+    public void adjustTextSeg(Blackhole bh) {
+        for (String textSeg : textSegs) {
+            bh.consume(JsonToTxtUtil.adjustTextSeg(textSeg));
+        }
+    }
+
+    @Benchmark
+    public void normalizeTranscript(Blackhole bh) {
+        TextSegNormalizer normalizer = new TextSegNormalizer();
+        for (String textSeg : textSegs) {
+            bh.consume(normalizer.normalize(textSeg));
+        }
+    }
+
+    @Benchmark
+    public int isChinese() {
+        int count = 0;
+        for (char c : chars) {
+            if (JsonToTxtUtil.isChinese(c)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public void formatTime(Blackhole bh) {
+        for (long seconds : startSeconds) {
+            bh.consume(TxtSink.formatTime(seconds));
+        }
+    }
+}
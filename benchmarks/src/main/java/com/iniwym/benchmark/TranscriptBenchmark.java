@@ -0,0 +1,82 @@
+package com.iniwym.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.iniwym.output.Sentence;
+import com.iniwym.output.StampSentsParser;
+import com.iniwym.output.TxtSink;
+import com.iniwym.utils.JsonToTxtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description: 识别结果输出的基准测试：句子合并为txt行的循环，以及从服务端消息到txt的完整路径
+ * （先解析为JSON对象再遍历，或用{@link StampSentsParser}边解析边写出）。输出写入丢弃内容的Writer。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TranscriptBenchmark {
+
+    private String message;
+    private List<Sentence> sentences;
+
+    @Setup
+    public void setup() throws IOException {
+        message = Fixtures.load(Fixtures.OFFLINE_RESULT);
+        sentences = Fixtures.sentences(message);
+    }
+
+    @Benchmark
+    public long mergeSentences() throws IOException {
+        Fixtures.NullWriter writer = new Fixtures.NullWriter();
+        try (TxtSink sink = new TxtSink(writer, "lecture")) {
+            for (Sentence sentence : sentences) {
+                sink.write(sentence);
+            }
+        }
+        return writer.count;
+    }
+
+    @Benchmark
+    public long parseTreeToTxt() throws IOException {
+        Fixtures.NullWriter writer = new Fixtures.NullWriter();
+        JSONObject result = JSON.parseObject(message);
+        try (TxtSink sink = new TxtSink(writer, result.getString("wav_name"))) {
+            JSONArray stampSents = result.getJSONArray("stamp_sents");
+            for (int i = 0; i < stampSents.size(); i++) {
+                JSONObject item = stampSents.getJSONObject(i);
+                sink.write(new Sentence(i, JsonToTxtUtil.adjustTextSeg(item.getString("text_seg")),
+                        item.getString("punc"), item.getLongValue("start"), item.getLongValue("end")));
+            }
+        }
+        return writer.count;
+    }
+
+    @Benchmark
+    public long parseStreamingToTxt() throws IOException {
+        Fixtures.NullWriter writer = new Fixtures.NullWriter();
+        try (TxtSink sink = new TxtSink(writer, "lecture")) {
+            StampSentsParser.parse(message, sink);
+        }
+        return writer.count;
+    }
+}
@@ -0,0 +1,178 @@
+package com.iniwym.benchmark.load;
+
+import com.iniwym.client.EndpointRouter;
+import com.iniwym.client.FunasrSessionPool;
+import com.iniwym.metrics.ClientMetrics;
+import com.iniwym.notify.Notifier;
+import com.iniwym.utils.Mp3FileFinderUtil;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @Description: 端到端压测：启动进程内的{@link StubAsrServer}，用客户端的会话池按不同并发数处理同一批音频，
+ * 输出每个并发数下的文件吞吐量、音频实时率和会话耗时的分位数。
+ * 未指定音频目录时生成一批带噪声的正弦波wav文件，结果可以在任何机器上重复。
+ * 客户端的其他参数（模式、分块、重试等）仍取自paramMapping.properties。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class LoadGenerator {
+
+    // 16kHz、16bit单声道音频每秒的字节数
+    private static final int BYTES_PER_SECOND = 32000;
+    // wav文件头长度
+    private static final int WAV_HEADER_SIZE = 44;
+
+    public static void main(String[] args) throws Exception {
+        ArgumentParser parser = ArgumentParsers.newFor("funasr-load").build()
+                .description("使用替身服务端对客户端进行端到端压测");
+        parser.addArgument("--audio-dir").help("使用该目录中的mp3/wav文件，未指定时生成wav文件");
+        parser.addArgument("--files").type(Integer.class).setDefault(32).help("生成的wav文件数量");
+        parser.addArgument("--seconds").type(Integer.class).setDefault(60).help("生成的每个wav文件的时长（秒）");
+        parser.addArgument("--concurrency").setDefault("1,2,4,8").help("依次测试的并发会话数，逗号分隔");
+        parser.addArgument("--latency-ms").type(Long.class).setDefault(200L).help("服务端每个文件固定的解码延迟（毫秒）");
+        parser.addArgument("--decode-rtf").type(Double.class).setDefault(0.02).help("服务端解码实时率，每秒音频增加的解码时间（秒）");
+        parser.addArgument("--error-rate").type(Double.class).setDefault(0.0).help("服务端返回识别错误的比例");
+        parser.addArgument("--drop-rate").type(Double.class).setDefault(0.0).help("服务端发送中途断开连接的比例");
+        parser.addArgument("--seed").type(Long.class).setDefault(1L).help("随机数种子");
+        Namespace ns;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+            return;
+        }
+
+        String[] files;
+        Path generatedDir = null;
+        if (ns.getString("audio_dir") != null) {
+            files = Mp3FileFinderUtil.findAudioFilesInDirectory(ns.getString("audio_dir"), ".mp3", ".wav");
+        } else {
+            generatedDir = Files.createTempDirectory("funasr-load");
+            files = generateWavFiles(generatedDir, ns.getInt("files"), ns.getInt("seconds"), ns.getLong("seed"));
+        }
+        if (files.length == 0) {
+            System.err.println("没有可用的音频文件");
+            System.exit(1);
+        }
+
+        StubAsrServer server = new StubAsrServer(0, ns.getLong("latency_ms"), ns.getDouble("decode_rtf"),
+                ns.getDouble("error_rate"), ns.getDouble("drop_rate"), ns.getLong("seed"));
+        server.startAndWait();
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%11s %6s %6s %8s %8s %8s %8s %8s %8s %8s",
+                "concurrency", "files", "failed", "wall(s)", "files/s", "RTF", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)"));
+        try {
+            for (String level : ns.getString("concurrency").split(",")) {
+                report.add(runLevel(server, files, Integer.parseInt(level.trim())));
+            }
+        } finally {
+            server.stop();
+            if (generatedDir != null) {
+                for (String file : files) {
+                    Files.deleteIfExists(Paths.get(file));
+                }
+                Files.deleteIfExists(generatedDir);
+            }
+        }
+
+        System.out.println();
+        System.out.println("服务端注入错误 " + server.getInjectedErrors() + " 次，断开连接 " + server.getInjectedDrops() + " 次");
+        for (String line : report) {
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * 按指定并发数处理全部文件，返回一行统计结果
+     */
+    private static String runLevel(StubAsrServer server, String[] files, int concurrency) throws InterruptedException {
+        EndpointRouter router = new EndpointRouter(EndpointRouter.parseEndpoints("127.0.0.1:" + server.getPort()));
+        FunasrSessionPool pool = new FunasrSessionPool(router, concurrency, concurrency, 2, null, null,
+                new Notifier(null, EnumSet.noneOf(Notifier.Kind.class), 0, 1));
+        server.drainLatencies();
+        double failedBefore = ClientMetrics.FILES_FAILED.get();
+        double audioBefore = ClientMetrics.AUDIO_SECONDS.get();
+
+        long start = System.nanoTime();
+        pool.run(files);
+        double wallSeconds = (System.nanoTime() - start) / 1e9;
+
+        long failed = Math.round(ClientMetrics.FILES_FAILED.get() - failedBefore);
+        double audioSeconds = ClientMetrics.AUDIO_SECONDS.get() - audioBefore;
+        long[] latencies = server.drainLatencies();
+        Arrays.sort(latencies);
+        return String.format("%11d %6d %6d %8.2f %8.2f %8.1f %8d %8d %8d %8d",
+                concurrency, files.length, failed, wallSeconds, files.length / wallSeconds, audioSeconds / wallSeconds,
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.95),
+                percentileMillis(latencies, 0.99), percentileMillis(latencies, 1.0));
+    }
+
+    /**
+     * 已排序耗时的分位数（最近秩法）
+     */
+    private static long percentileMillis(long[] sortedNanos, double quantile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1_000_000;
+    }
+
+    /**
+     * 生成16kHz单声道wav文件：频率随文件变化的正弦波加少量噪声，每秒中有一段静音
+     */
+    static String[] generateWavFiles(Path dir, int count, int seconds, long seed) throws IOException {
+        Random random = new Random(seed);
+        String[] files = new String[count];
+        int dataBytes = seconds * BYTES_PER_SECOND;
+        for (int i = 0; i < count; i++) {
+            Path file = dir.resolve(String.format("load_%03d.wav", i));
+            double frequency = 200 + 40 * i;
+            ByteBuffer pcm = ByteBuffer.allocate(BYTES_PER_SECOND).order(ByteOrder.LITTLE_ENDIAN);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                out.write(wavHeader(dataBytes));
+                for (int second = 0; second < seconds; second++) {
+                    pcm.clear();
+                    for (int n = 0; n < BYTES_PER_SECOND / 2; n++) {
+                        // 每秒最后200ms为静音
+                        double amplitude = n < 12800 ? 8000 : 0;
+                        double sample = amplitude * Math.sin(2 * Math.PI * frequency * n / 16000) + random.nextGaussian() * 100;
+                        pcm.putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample)));
+                    }
+                    out.write(pcm.array());
+                }
+            }
+            files[i] = file.toString();
+        }
+        return files;
+    }
+
+    /**
+     * 16kHz、16bit单声道PCM的wav文件头
+     */
+    private static byte[] wavHeader(int dataBytes) {
+        ByteBuffer header = ByteBuffer.allocate(WAV_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[]{'R', 'I', 'F', 'F'}).putInt(36 + dataBytes).put(new byte[]{'W', 'A', 'V', 'E'});
+        header.put(new byte[]{'f', 'm', 't', ' '}).putInt(16).putShort((short) 1).putShort((short) 1)
+                .putInt(16000).putInt(BYTES_PER_SECOND).putShort((short) 2).putShort((short) 16);
+        header.put(new byte[]{'d', 'a', 't', 'a'}).putInt(dataBytes);
+        return header.array();
+    }
+}
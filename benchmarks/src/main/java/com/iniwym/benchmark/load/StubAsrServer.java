@@ -0,0 +1,295 @@
+package com.iniwym.benchmark.load;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import org.java_websocket.WebSocket;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Description: 进程内的FunASR协议替身服务端，不做识别，只按协议应答：
+ * 收到开始消息（JSON）、二进制音频和{"is_speaking":false}后，等待模拟的解码时间再返回带stamp_sents的结果；
+ * online/2pass模式下每收到1秒音频返回一条2pass-online中间结果。
+ * 解码时间为固定延迟加上音频时长乘以解码实时率；可以按比例注入识别错误（以1011关闭连接）和连接中断（发送中途断开），
+ * 也可以指定某个文件接下来的若干次请求一定断开，用于确定性地测试重试和失败文件清单。
+ * 记录每个会话从开始消息到返回结果的耗时和同时处理的最大会话数，供{@link LoadGenerator}和测试统计。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class StubAsrServer extends WebSocketServer {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(StubAsrServer.class);
+
+    // 16kHz、16bit单声道音频每秒的字节数
+    private static final int BYTES_PER_SECOND = 32000;
+    // 模拟结果中每句的时长，单位毫秒
+    private static final long SENTENCE_MS = 2000;
+    // 注入连接中断时，最晚在收到多少字节音频后断开
+    private static final long MAX_DROP_BYTES = 5L * BYTES_PER_SECOND;
+
+    private final long latencyMs;
+    private final double decodeRtf;
+    private final double errorRate;
+    private final double dropRate;
+    private final Random random;
+    private final CountDownLatch started = new CountDownLatch(1);
+    // 延迟返回结果的调度线程
+    private final ScheduledExecutorService resultScheduler = Executors.newScheduledThreadPool(2, r -> {
+        Thread thread = new Thread(r, "stub-asr-result");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 各会话从开始消息到返回结果的耗时，单位纳秒
+    private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong injectedDrops = new AtomicLong();
+    // 指定文件名接下来一定断开连接的请求次数
+    private final Map<String, AtomicInteger> scriptedDrops = new ConcurrentHashMap<>();
+    // 正在处理的会话数及其最大值
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicInteger peakSessions = new AtomicInteger();
+
+    /**
+     * 构造替身服务端
+     *
+     * @param port      监听端口，0表示自动选择
+     * @param latencyMs 每个文件固定的解码延迟，单位毫秒
+     * @param decodeRtf 解码实时率，每秒音频额外增加的解码时间（秒）
+     * @param errorRate 返回识别错误的比例，0到1
+     * @param dropRate  发送中途断开连接的比例，0到1
+     * @param seed      随机数种子，相同的种子注入相同序列的错误
+     */
+    public StubAsrServer(int port, long latencyMs, double decodeRtf, double errorRate, double dropRate, long seed) {
+        super(new InetSocketAddress("127.0.0.1", port));
+        this.latencyMs = latencyMs;
+        this.decodeRtf = decodeRtf;
+        this.errorRate = errorRate;
+        this.dropRate = dropRate;
+        this.random = new Random(seed);
+        setReuseAddr(true);
+    }
+
+    /**
+     * 启动并等待开始监听
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    public void startAndWait() throws InterruptedException {
+        start();
+        started.await();
+    }
+
+    @Override
+    public void onStart() {
+        logger.info("替身服务端已启动：{}", getPort());
+        started.countDown();
+    }
+
+    /**
+     * 指定文件接下来的若干次请求在收到第一个音频数据块后断开连接，之后的请求正常处理
+     *
+     * @param wavName  开始消息中的文件名
+     * @param attempts 断开的次数
+     */
+    public void dropNextAttempts(String wavName, int attempts) {
+        scriptedDrops.put(wavName, new AtomicInteger(attempts));
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        JSONObject obj = JSON.parseObject(message);
+        if (obj.containsKey("wav_name")) {
+            String wavName = obj.getString("wav_name");
+            AtomicInteger scripted = scriptedDrops.get(wavName);
+            long dropAt;
+            if (scripted != null && scripted.getAndDecrement() > 0) {
+                dropAt = 1;
+            } else {
+                dropAt = random.nextDouble() < dropRate ? (long) (random.nextDouble() * MAX_DROP_BYTES) : -1;
+            }
+            conn.setAttachment(new Session(wavName, obj.getString("mode"), dropAt));
+            peakSessions.accumulateAndGet(activeSessions.incrementAndGet(), Math::max);
+            return;
+        }
+        Session session = conn.getAttachment();
+        if (session == null || !Boolean.FALSE.equals(obj.getBoolean("is_speaking"))) {
+            return;
+        }
+        if (session.dropAtBytes >= 0) {
+            // 音频比断开位置短时在结束时断开
+            drop(conn, session);
+            return;
+        }
+        if (random.nextDouble() < errorRate) {
+            injectedErrors.incrementAndGet();
+            endSession(session);
+            conn.close(CloseFrame.UNEXPECTED_CONDITION, "injected decode error");
+            return;
+        }
+        long audioMs = session.bytes / (BYTES_PER_SECOND / 1000);
+        long delayMs = latencyMs + (long) (audioMs * decodeRtf);
+        resultScheduler.schedule(() -> sendResult(conn, session, audioMs), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, ByteBuffer message) {
+        Session session = conn.getAttachment();
+        if (session == null || session.dropped) {
+            return;
+        }
+        long before = session.bytes;
+        session.bytes += message.remaining();
+        if (session.dropAtBytes >= 0 && session.bytes >= session.dropAtBytes) {
+            drop(conn, session);
+            return;
+        }
+        if (session.streaming && before / BYTES_PER_SECOND != session.bytes / BYTES_PER_SECOND) {
+            JSONObject partial = new JSONObject();
+            partial.put("mode", "2pass-online");
+            partial.put("wav_name", session.wavName);
+            partial.put("text", "你好");
+            partial.put("is_final", false);
+            conn.send(partial.toJSONString());
+        }
+    }
+
+    /**
+     * 不发送关闭帧直接断开，模拟网络中断或服务端崩溃
+     */
+    private void drop(WebSocket conn, Session session) {
+        session.dropped = true;
+        injectedDrops.incrementAndGet();
+        endSession(session);
+        conn.closeConnection(CloseFrame.ABNORMAL_CLOSE, "injected connection drop");
+    }
+
+    /**
+     * 返回模拟的识别结果，每2秒音频一句
+     */
+    private void sendResult(WebSocket conn, Session session, long audioMs) {
+        JSONArray sents = new JSONArray();
+        for (long start = 0; start < audioMs; start += SENTENCE_MS) {
+            JSONObject sent = new JSONObject();
+            sent.put("text_seg", "你 好 hello world");
+            sent.put("punc", (start / SENTENCE_MS) % 2 == 0 ? "，" : "。");
+            sent.put("start", start);
+            sent.put("end", Math.min(audioMs, start + SENTENCE_MS - 100));
+            sents.add(sent);
+        }
+        JSONObject result = new JSONObject();
+        result.put("mode", session.streaming ? "2pass-offline" : "offline");
+        result.put("wav_name", session.wavName);
+        result.put("text", "你好hello world");
+        result.put("stamp_sents", sents);
+        result.put("is_final", session.streaming);
+        if (conn.isOpen()) {
+            conn.send(result.toJSONString());
+            latencies.add(System.nanoTime() - session.startNanos);
+        }
+        endSession(session);
+    }
+
+    /**
+     * 一个会话结束（返回结果、注入错误或断开），每个会话只计一次
+     */
+    private void endSession(Session session) {
+        if (session.ended.compareAndSet(false, true)) {
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        Session session = conn.getAttachment();
+        if (session != null) {
+            endSession(session);
+        }
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        logger.warn("替身服务端连接出错", ex);
+    }
+
+    /**
+     * 取出并清空已记录的会话耗时
+     *
+     * @return 耗时，单位纳秒
+     */
+    public long[] drainLatencies() {
+        long[] result = new long[latencies.size()];
+        int n = 0;
+        Long latency;
+        while (n < result.length && (latency = latencies.poll()) != null) {
+            result[n++] = latency;
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.get();
+    }
+
+    public long getInjectedDrops() {
+        return injectedDrops.get();
+    }
+
+    /**
+     * 同时处理的最大会话数
+     *
+     * @return 从启动开始的最大值
+     */
+    public int getPeakSessions() {
+        return peakSessions.get();
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        resultScheduler.shutdownNow();
+        super.stop();
+    }
+
+    /**
+     * 一个会话正在处理的文件
+     */
+    private static class Session {
+        private final String wavName;
+        private final boolean streaming;
+        private final long dropAtBytes;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean ended = new AtomicBoolean();
+        // 只在该连接的读取线程中修改
+        private long bytes;
+        private boolean dropped;
+
+        Session(String wavName, String mode, long dropAtBytes) {
+            this.wavName = wavName;
+            this.streaming = !"offline".equals(mode);
+            this.dropAtBytes = dropAtBytes;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.iniwym.benchmark.load;
+
+import com.iniwym.client.EndpointRouter;
+import com.iniwym.client.FunasrSessionPool;
+import com.iniwym.client.FunasrWsClient;
+import com.iniwym.metrics.ClientMetrics;
+import com.iniwym.notify.Notifier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Description: 客户端会话池对替身服务端的端到端测试：并发会话数、断线重试和失败文件清单、发送队列水位暂停。
+ * 客户端其他参数取自paramMapping.properties（离线模式，失败后最多重试3次，高水位4MB）。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class SessionPoolEndToEndTest {
+
+    // 16kHz、16bit单声道音频每秒的字节数
+    private static final int BYTES_PER_SECOND = 32000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // 输出和失败文件清单位于user.dir下的run中，测试期间指向临时目录
+    private String userDir;
+    private StubAsrServer server;
+
+    @Before
+    public void setUp() throws InterruptedException {
+        userDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", folder.getRoot().getPath());
+        server = new StubAsrServer(0, 50, 0.0, 0.0, 0.0, 1);
+        server.startAndWait();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        server.stop();
+        System.setProperty("user.dir", userDir);
+    }
+
+    @Test(timeout = 60000)
+    public void poolRetriesDropsAndRecordsDeadLetters() throws Exception {
+        String[] files = LoadGenerator.generateWavFiles(folder.newFolder("audio").toPath(), 6, 3, 1);
+        // 第一个文件断开一次后重试成功，第二个文件每次都断开，用完重试次数后记入失败文件清单
+        server.dropNextAttempts(wavName(files[0]), 1);
+        server.dropNextAttempts(wavName(files[1]), Integer.MAX_VALUE);
+        double succeededBefore = ClientMetrics.FILES_SUCCEEDED.get();
+        double failedBefore = ClientMetrics.FILES_FAILED.get();
+        double retriesBefore = ClientMetrics.RETRIES.get();
+
+        newPool(server.getPort(), 2).run(files);
+
+        assertEquals(5, Math.round(ClientMetrics.FILES_SUCCEEDED.get() - succeededBefore));
+        assertEquals(1, Math.round(ClientMetrics.FILES_FAILED.get() - failedBefore));
+        // 第一个文件重试1次，第二个文件重试3次
+        assertEquals(4, Math.round(ClientMetrics.RETRIES.get() - retriesBefore));
+        assertEquals(5, server.getInjectedDrops());
+        // 同时处理的会话数不超过会话池的大小
+        assertEquals(2, server.getPeakSessions());
+
+        List<String> deadLetters = Files.readAllLines(folder.getRoot().toPath().resolve("run/deadLetter.txt"), StandardCharsets.UTF_8);
+        assertEquals(1, deadLetters.size());
+        assertTrue(deadLetters.get(0), deadLetters.get(0).endsWith("\t4\t" + files[1]));
+        String[] transcripts = new File(folder.getRoot(), "run/outTxt").list();
+        assertEquals(5, transcripts == null ? 0 : transcripts.length);
+    }
+
+    @Test(timeout = 60000)
+    public void sendingPausesAtHighWatermark() throws Exception {
+        // 代理暂停转发期间socket缓冲区被填满，文件的其余部分堆积在发送队列中超过高水位
+        int seconds = (int) (4 * FunasrWsClient.getSendHighWatermark() / BYTES_PER_SECOND) + 1;
+        String[] files = LoadGenerator.generateWavFiles(folder.newFolder("audio").toPath(), 1, seconds, 1);
+        double stallsBefore = ClientMetrics.SEND_STALLS.get();
+        double succeededBefore = ClientMetrics.FILES_SUCCEEDED.get();
+
+        try (StallingProxy proxy = new StallingProxy(server.getPort(), 2000)) {
+            newPool(proxy.getPort(), 1).run(files);
+        }
+
+        assertEquals(1, Math.round(ClientMetrics.FILES_SUCCEEDED.get() - succeededBefore));
+        assertTrue("发送应当在高水位暂停", ClientMetrics.SEND_STALLS.get() > stallsBefore);
+    }
+
+    private static FunasrSessionPool newPool(int port, int sessions) {
+        EndpointRouter router = new EndpointRouter(EndpointRouter.parseEndpoints("127.0.0.1:" + port));
+        return new FunasrSessionPool(router, sessions, sessions, 2, null, null,
+                new Notifier(null, EnumSet.noneOf(Notifier.Kind.class), 0, 1));
+    }
+
+    /**
+     * 开始消息中的文件名：不含目录和后缀
+     */
+    private static String wavName(String file) {
+        return new File(file).getName().split("\\.")[0];
+    }
+
+    /**
+     * 建立连接后先暂停转发客户端发来的数据，模拟一时跟不上的网络，之后正常转发
+     */
+    private static class StallingProxy implements Closeable {
+        private final ServerSocket serverSocket;
+        private final int targetPort;
+        private final long stallMillis;
+
+        StallingProxy(int targetPort, long stallMillis) throws IOException {
+            this.targetPort = targetPort;
+            this.stallMillis = stallMillis;
+            this.serverSocket = new ServerSocket();
+            // 较小的接收缓冲区，数据尽快积压到客户端的发送队列中
+            serverSocket.setReceiveBufferSize(64 * 1024);
+            serverSocket.bind(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+            daemon(this::acceptLoop).start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void acceptLoop() {
+            try {
+                while (true) {
+                    Socket client = serverSocket.accept();
+                    Socket upstream = new Socket("127.0.0.1", targetPort);
+                    daemon(() -> pump(client, upstream, stallMillis)).start();
+                    daemon(() -> pump(upstream, client, 0)).start();
+                }
+            } catch (IOException e) {
+                // 代理已关闭
+            }
+        }
+
+        /**
+         * 先暂停stallMillis毫秒再开始转发数据
+         */
+        private static void pump(Socket from, Socket to, long stallMillis) {
+            byte[] buffer = new byte[16 * 1024];
+            try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+                int n = in.read(buffer);
+                if (n > 0) {
+                    // 握手请求先转发，之后的音频数据暂停转发
+                    out.write(buffer, 0, n);
+                    Thread.sleep(stallMillis);
+                }
+                while (n > 0) {
+                    n = in.read(buffer);
+                    if (n > 0) {
+                        out.write(buffer, 0, n);
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // 连接已关闭
+            } finally {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        }
+
+        private static Thread daemon(Runnable task) {
+            Thread thread = new Thread(task, "stalling-proxy");
+            thread.setDaemon(true);
+            return thread;
+        }
+
+        private static void closeQuietly(Socket socket) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // 已关闭
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
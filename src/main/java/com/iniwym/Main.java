@@ -1,12 +1,31 @@
 package com.iniwym;
 
-import com.iniwym.client.FunasrWsClient;
+import com.iniwym.cache.TranscriptCache;
+import com.iniwym.client.EndpointRouter;
+import com.iniwym.client.FunasrEndpoint;
+import com.iniwym.client.FunasrSessionPool;
+import com.iniwym.config.ConfigFileWatcher;
+import com.iniwym.config.SessionConfig;
+import com.iniwym.journal.JobJournal;
+import com.iniwym.metrics.ClientMetrics;
+import com.iniwym.metrics.MetricsServer;
+import com.iniwym.notify.Notifier;
+import com.iniwym.scheduler.TaskScheduler;
 import com.iniwym.utils.ConfigReaderUtil;
 import com.iniwym.utils.Mp3FileFinderUtil;
+import com.iniwym.watch.HotFolderWatcher;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.URI;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * @Description: 主方法
@@ -16,63 +35,235 @@ import java.net.URI;
 public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
 
+    // 常驻模式退出时等待处理中文件的最长时间，以及结束时等待后台任务的最长时间，单位毫秒
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 60_000;
+
     public static void main(String[] args) {
 
+        // 解析命令行参数
+        ArgumentParser parser = ArgumentParsers.newFor("funasr").build()
+                .description("FunASR 音频转文字客户端");
+        parser.addArgument("path").nargs("?").help("音频文件目录，未指定时使用配置中的mp3Path");
+        parser.addArgument("--watch").action(Arguments.storeTrue())
+                .help("常驻运行，监听目录并识别新出现的音频文件");
+        Namespace namespace;
+        try {
+            namespace = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+            return;
+        }
+
         // 服务器IP地址
         String srvIp = ConfigReaderUtil.getPropertyKey("srvIp");
         // 服务器端口号
         String srvPort = ConfigReaderUtil.getPropertyKey("srvPort");
+        // 服务端地址列表，未配置时使用单个服务器
+        String srvEndpoints = ConfigReaderUtil.getPropertyKey("srvEndpoints", null);
+        if (srvEndpoints == null) {
+            // IPv6地址需要加上方括号
+            srvEndpoints = new FunasrEndpoint(srvIp.trim(), Integer.parseInt(srvPort.trim())).toString();
+        }
         // 音频文件目录
         String mp3Path = ConfigReaderUtil.getPropertyKey("mp3Path");
 
-        if (args.length > 0) {
+        if (namespace.getString("path") != null) {
             // 音频文件目录，从命令行参数获取
-            mp3Path = args[0];
+            mp3Path = namespace.getString("path");
         }
+        boolean watch = namespace.getBoolean("watch");
         logger.info("音频文件目录：{}", mp3Path);
-        System.out.println("音频路径: " + mp3Path + "\n处理音频文件中...");
+        System.out.println("音频路径: " + mp3Path + (watch ? "\n监听目录中..." : "\n处理音频文件中..."));
+        logger.info("会话参数：{}", SessionConfig.current());
+        logger.info("工作线程：{}", TaskScheduler.isVirtualThreads() ? "虚拟线程" : "平台线程");
+        watchConfigFile();
 
         // 处理音频文件
-        handleAudio(srvIp, srvPort, mp3Path);
+        handleAudio(srvEndpoints, mp3Path, watch);
+    }
+
+    /**
+     * 需要识别的音频文件后缀，客户端解码或切分长音频时wav文件也可以直接识别
+     *
+     * @return 文件后缀
+     */
+    private static String[] audioSuffixes() {
+        boolean clientDecode = Boolean.parseBoolean(ConfigReaderUtil.getPropertyKey("clientDecode", "false"))
+                || ConfigReaderUtil.getIntPropertyKey("segmentSeconds", 0) > 0;
+        return clientDecode ? new String[]{".mp3", ".wav"} : new String[]{".mp3"};
     }
 
     /**
-     * 处理音频文件
+     * 在主线程中处理音频文件，结束时关闭全部后台线程池
      *
-     * @param srvIp   服务器IP地址
-     * @param srvPort 服务器端口号
-     * @param mp3Path 音频文件目录
+     * @param srvEndpoints 服务端地址列表，逗号分隔的host:port
+     * @param mp3Path      音频文件目录
+     * @param watch        是否常驻监听目录
      */
-    private static void handleAudio(String srvIp, String srvPort, String mp3Path) {
+    private static void handleAudio(String srvEndpoints, String mp3Path, boolean watch) {
         try {
-            // 获取mp3文件列表
-            String[] mp3Files = Mp3FileFinderUtil.findMp3FilesInDirectory(mp3Path);
-
-            // 创建并启动一个线程来处理客户端任务
-            Thread clientTask = new Thread(() -> {
-                try {
-                    // 构造WebSocket地址
-                    String wsAddress = "ws://" + srvIp + ":" + srvPort;
-                    // 打印WebSocket地址
-                    logger.info("WebSocket地址：{}", wsAddress);
-
-                    // 创建FunasrWsClient实例
-                    FunasrWsClient funasrWsClient = new FunasrWsClient(new URI(wsAddress));
-                    // 设置文件路径
-                    funasrWsClient.setWavPath(mp3Files);
-                    // 建立WebSocket连接
-                    funasrWsClient.connect();
-                } catch (Exception e) {
-                    // 打印异常信息
-                    logger.error("建立WebSocket连接失败: ", e);
+            String[] suffixes = audioSuffixes();
+            String[] mp3Files = new String[0];
+            if (watch) {
+                if (!new File(mp3Path).isDirectory()) {
+                    logger.error("监听的目录不存在：{}", mp3Path);
+                    return;
+                }
+            } else {
+                // 获取音频文件列表
+                mp3Files = Mp3FileFinderUtil.findAudioFilesInDirectory(mp3Path, suffixes);
+                if (mp3Files.length == 0) {
+                    logger.info("目录中没有需要处理的音频文件：{}", mp3Path);
+                    return;
                 }
-            });
-            clientTask.start();
+            }
+            // 并发会话数量
+            int sessionCount = ConfigReaderUtil.getIntPropertyKey("sessionCount", 1);
+            // 提前预读的文件数量
+            int prefetchCount = ConfigReaderUtil.getIntPropertyKey("prefetchCount", 2);
+            // 流式模式的发送调度线程数量
+            int pacerThreads = ConfigReaderUtil.getIntPropertyKey("pacerThreads", 2);
 
+            EndpointRouter router = null;
+            MetricsServer metricsServer = null;
+            // 通知在后台发送，识别线程只投递事件
+            Notifier notifier = Notifier.fromConfig();
+            try {
+                metricsServer = startMetricsServer();
+                // 构造服务端路由器
+                router = new EndpointRouter(EndpointRouter.parseEndpoints(srvEndpoints));
+                // 打印服务端地址
+                logger.info("服务端地址：{}", router.getEndpoints());
+                router.startHealthCheck(ConfigReaderUtil.getIntPropertyKey("healthCheckInterval", 10));
+
+                // 创建会话池并分发全部文件
+                FunasrSessionPool sessionPool = new FunasrSessionPool(router, sessionCount, prefetchCount, pacerThreads, openCache(), openJournal(), notifier);
+                if (watch) {
+                    watchDirectory(sessionPool, mp3Path, suffixes);
+                } else {
+                    sessionPool.run(mp3Files);
+                }
+            } finally {
+                if (router != null) {
+                    router.stopHealthCheck();
+                }
+                if (metricsServer != null) {
+                    metricsServer.stop();
+                }
+                // 发送尚未发送的通知
+                notifier.close();
+                // 等待仍在运行的后台任务（例如写JSON文件）结束，出错退出时也不遗留线程
+                TaskScheduler.shutdownAll(SHUTDOWN_TIMEOUT_MILLIS);
+            }
         } catch (Exception e) {
             // 打印处理音频失败的异常信息
             logger.error("处理音频失败：", e);
         }
     }
 
-}
+    /**
+     * 常驻模式：监听目录，新文件写入完成后提交给会话池，进程退出时等待处理中的文件结束
+     *
+     * @param sessionPool 会话池
+     * @param mp3Path     音频文件目录
+     * @param suffixes    需要识别的文件后缀
+     */
+    private static void watchDirectory(FunasrSessionPool sessionPool, String mp3Path, String[] suffixes)
+            throws IOException, InterruptedException {
+        // 文件大小保持不变多长时间后认为写入完成
+        long settleMillis = ConfigReaderUtil.getIntPropertyKey("watchSettleSeconds", 5) * 1000L;
+        HotFolderWatcher watcher = new HotFolderWatcher(Paths.get(mp3Path), settleMillis, sessionPool::submit, suffixes);
+        TaskScheduler.newDaemonThread("watch", watcher).start();
+
+        // 收到退出信号时停止监听，等待处理中的文件结束
+        Thread poolThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                logger.warn("关闭目录监听失败", e);
+            }
+            sessionPool.stop();
+            try {
+                poolThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "funasr-shutdown"));
+
+        sessionPool.runUntilStopped();
+    }
+
+    /**
+     * 配置了外部配置文件时监听该文件，修改后重新加载会话参数，正在处理的文件不受影响
+     */
+    private static void watchConfigFile() {
+        Path configFile = ConfigReaderUtil.getOverrideFile();
+        if (configFile == null) {
+            return;
+        }
+        try {
+            TaskScheduler.newDaemonThread("config-watch", new ConfigFileWatcher(configFile)).start();
+        } catch (IOException e) {
+            logger.error("监听配置文件失败，修改后需要重启才能生效：{}", configFile, e);
+        }
+    }
+
+    /**
+     * 按配置打开识别结果缓存
+     *
+     * @return 缓存，未开启或打开失败时返回null
+     */
+    private static TranscriptCache openCache() {
+        if (!Boolean.parseBoolean(ConfigReaderUtil.getPropertyKey("cacheEnabled", "false"))) {
+            return null;
+        }
+        String cacheDir = ConfigReaderUtil.getPropertyKey("cacheDir", System.getProperty("user.dir") + "/run/cache");
+        long cacheMaxBytes = ConfigReaderUtil.getIntPropertyKey("cacheMaxMb", 512) * 1024L * 1024L;
+        try {
+            return new TranscriptCache(Paths.get(cacheDir), cacheMaxBytes);
+        } catch (IOException e) {
+            logger.error("打开识别结果缓存失败，本次不使用缓存：{}", cacheDir, e);
+            return null;
+        }
+    }
+
+    /**
+     * 按配置打开任务日志，打开失败时不记录处理状态
+     *
+     * @return 任务日志，未开启或打开失败时返回null
+     */
+    private static JobJournal openJournal() {
+        if (!Boolean.parseBoolean(ConfigReaderUtil.getPropertyKey("journalEnabled", "true"))) {
+            return null;
+        }
+        String journalFile = ConfigReaderUtil.getPropertyKey("journalFile", System.getProperty("user.dir") + "/run/journal.log");
+        try {
+            return new JobJournal(Paths.get(journalFile));
+        } catch (IOException e) {
+            logger.error("打开任务日志失败，本次不记录处理状态：{}", journalFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * 按配置启动指标服务，端口为0时不启动
+     *
+     * @return 指标服务，未开启或启动失败时返回null
+     */
+    private static MetricsServer startMetricsServer() {
+        int metricsPort = ConfigReaderUtil.getIntPropertyKey("metricsPort", 0);
+        if (metricsPort <= 0) {
+            return null;
+        }
+        String metricsHost = ConfigReaderUtil.getPropertyKey("metricsHost", "127.0.0.1");
+        try {
+            return new MetricsServer(metricsHost, metricsPort, ClientMetrics.REGISTRY);
+        } catch (IOException e) {
+            logger.error("启动指标服务失败：{}:{}", metricsHost, metricsPort, e);
+            return null;
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,182 @@
+package com.iniwym.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @Description: 把长音频切分为多个片段，每个片段可以交给不同的会话并行识别。
+ * 切分点选在目标时长之前一段搜索范围内能量最低的帧上，尽量落在静音处而不是句子中间；
+ * 相邻片段在切分点两侧各多发送一段重叠音频，使跨越切分点的句子在其中一个片段里是完整的。
+ * 输入为16kHz、16bit单声道小端序PCM文件。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class AudioSegmenter {
+
+    // 16kHz、16bit单声道音频每毫秒32字节
+    public static final int BYTES_PER_MS = 32;
+    // 计算能量的帧长，单位毫秒
+    private static final int FRAME_MS = 20;
+    private static final int FRAME_BYTES = FRAME_MS * BYTES_PER_MS;
+
+    private final long segmentBytes;
+    private final long overlapBytes;
+    private final long searchBytes;
+
+    /**
+     * 一个切分后的片段。
+     * 片段实际发送的范围包含两侧的重叠部分，识别结果只采用开始时间落在[ownStartMs, ownEndMs)内的句子。
+     */
+    public static class Segment {
+        private final int index;
+        private final long startByte;
+        private final long endByte;
+        private final long ownStartMs;
+        private final long ownEndMs;
+
+        Segment(int index, long startByte, long endByte, long ownStartMs, long ownEndMs) {
+            this.index = index;
+            this.startByte = startByte;
+            this.endByte = endByte;
+            this.ownStartMs = ownStartMs;
+            this.ownEndMs = ownEndMs;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public long getStartByte() {
+            return startByte;
+        }
+
+        public long getLength() {
+            return endByte - startByte;
+        }
+
+        /**
+         * 片段开头在整个音频中的时间，用于把片段内的时间戳换算为绝对时间
+         *
+         * @return 偏移时间，单位毫秒
+         */
+        public long getOffsetMs() {
+            return startByte / BYTES_PER_MS;
+        }
+
+        public long getOwnStartMs() {
+            return ownStartMs;
+        }
+
+        public long getOwnEndMs() {
+            return ownEndMs;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + "[" + startByte / BYTES_PER_MS + "ms, " + endByte / BYTES_PER_MS + "ms)";
+        }
+    }
+
+    /**
+     * 构造切分器
+     *
+     * @param segmentSeconds 每个片段的目标时长，单位秒
+     * @param overlapSeconds 切分点两侧的重叠时长，单位秒
+     * @param searchSeconds  在目标切分点之前寻找静音的范围，单位秒
+     */
+    public AudioSegmenter(int segmentSeconds, int overlapSeconds, int searchSeconds) {
+        if (segmentSeconds < 1) {
+            throw new IllegalArgumentException("segmentSeconds must be positive: " + segmentSeconds);
+        }
+        this.segmentBytes = segmentSeconds * 1000L * BYTES_PER_MS;
+        this.overlapBytes = Math.max(0, overlapSeconds) * 1000L * BYTES_PER_MS;
+        // 搜索范围不超过片段时长的一半，避免切出过短的片段
+        this.searchBytes = Math.min(Math.max(0, searchSeconds) * 1000L * BYTES_PER_MS, segmentBytes / 2);
+    }
+
+    /**
+     * 计算PCM文件的切分方案
+     *
+     * @param pcmFile PCM文件
+     * @return 按时间顺序排列的片段，不超过目标时长的音频只有一个片段
+     * @throws IOException 读取文件失败时抛出
+     */
+    public List<Segment> split(Path pcmFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(pcmFile, StandardOpenOption.READ)) {
+            long total = channel.size() & ~1L;
+            if (total <= segmentBytes) {
+                return Collections.singletonList(new Segment(0, 0, total, 0, Long.MAX_VALUE));
+            }
+
+            // 搜索窗口的读取缓冲区，所有切分点共用
+            ByteBuffer window = ByteBuffer.allocate((int) searchBytes + FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            List<Long> cuts = new ArrayList<>();
+            long previous = 0;
+            while (total - previous > segmentBytes) {
+                long target = previous + segmentBytes;
+                long cut = searchBytes > 0 ? findQuietestFrame(channel, window, target - searchBytes, target) : target;
+                cuts.add(cut);
+                previous = cut;
+            }
+
+            List<Segment> segments = new ArrayList<>(cuts.size() + 1);
+            long ownStart = 0;
+            for (int i = 0; i <= cuts.size(); i++) {
+                long ownEnd = i < cuts.size() ? cuts.get(i) : total;
+                long start = Math.max(0, ownStart - overlapBytes);
+                long end = Math.min(total, ownEnd + overlapBytes);
+                segments.add(new Segment(i, start, end, ownStart / BYTES_PER_MS,
+                        i < cuts.size() ? ownEnd / BYTES_PER_MS : Long.MAX_VALUE));
+                ownStart = ownEnd;
+            }
+            return segments;
+        }
+    }
+
+    /**
+     * 在给定范围内寻找平均能量最低的帧，返回该帧中心的字节位置
+     *
+     * @param channel 文件通道
+     * @param window  读取缓冲区
+     * @param from    搜索起点
+     * @param to      搜索终点
+     * @return 切分点的字节位置，按采样对齐
+     */
+    private static long findQuietestFrame(FileChannel channel, ByteBuffer window, long from, long to) throws IOException {
+        from &= ~1L;
+        window.clear();
+        window.limit((int) Math.min(window.capacity(), to - from));
+        long position = from;
+        while (window.hasRemaining()) {
+            int read = channel.read(window, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        window.flip();
+
+        long bestEnergy = Long.MAX_VALUE;
+        int bestFrame = 0;
+        for (int frameStart = 0; frameStart + FRAME_BYTES <= window.limit(); frameStart += FRAME_BYTES) {
+            long energy = 0;
+            for (int i = frameStart; i < frameStart + FRAME_BYTES; i += 2) {
+                int sample = window.getShort(i);
+                energy += (long) sample * sample;
+            }
+            // 能量相同时取更靠后的帧，使片段更接近目标时长
+            if (energy <= bestEnergy) {
+                bestEnergy = energy;
+                bestFrame = frameStart;
+            }
+        }
+        return from + bestFrame + FRAME_BYTES / 2;
+    }
+}
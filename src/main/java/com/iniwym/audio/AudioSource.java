@@ -0,0 +1,31 @@
+package com.iniwym.audio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * @Description: 待发送的音频数据来源，按数据块依次读出。
+ * 返回的ByteBuffer只保证在下一次调用nextChunk或close之前有效，调用方应在此之前发送完毕。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public interface AudioSource extends Closeable {
+
+    /**
+     * 读取下一个数据块
+     *
+     * @param maxBytes 数据块最大字节数
+     * @return 数据块，数据已读完时返回null
+     * @throws IOException 读取失败时抛出
+     */
+    ByteBuffer nextChunk(int maxBytes) throws IOException;
+
+    /**
+     * 提前把开头的数据读入内存，使第一次发送不必等待磁盘
+     *
+     * @param bytes 预读的字节数
+     * @throws IOException 读取失败时抛出
+     */
+    void stage(int bytes) throws IOException;
+}
@@ -0,0 +1,160 @@
+package com.iniwym.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * @Description: 在客户端解码并重采样的音频数据来源。
+ * mp3/wav文件边解码边转换为16kHz、16bit、单声道小端序PCM，多声道取平均值混为单声道，
+ * 采样率不是16kHz时经过{@link PolyphaseResampler}重采样。
+ * 服务端收到的是可以直接识别的pcm数据，不再需要在服务端解码，也不需要提前用ffmpeg转换。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class DecodedPcmAudioSource implements AudioSource {
+
+    // 服务端要求的采样率
+    public static final int TARGET_SAMPLE_RATE = 16000;
+    // 每次从解码器读取的帧数
+    private static final int DECODE_FRAMES = 4096;
+
+    private final PcmDecoder decoder;
+    private final PolyphaseResampler resampler;
+    private final float[] decodeBuffer;
+    private final float[] monoBuffer;
+    private final float[] resampleBuffer;
+    // 已转换好但尚未发送的PCM字节，有效数据为[pcmStart, pcmEnd)
+    private byte[] pcmBytes = new byte[64 * 1024];
+    private int pcmStart;
+    private int pcmEnd;
+    private boolean decoderFinished;
+
+    /**
+     * 构造解码数据来源
+     *
+     * @param decoder 解码器
+     */
+    public DecodedPcmAudioSource(PcmDecoder decoder) {
+        this.decoder = decoder;
+        this.resampler = PolyphaseResampler.isRequired(decoder.getSampleRate(), TARGET_SAMPLE_RATE)
+                ? new PolyphaseResampler(decoder.getSampleRate(), TARGET_SAMPLE_RATE) : null;
+        this.decodeBuffer = new float[DECODE_FRAMES * decoder.getChannels()];
+        this.monoBuffer = new float[DECODE_FRAMES];
+        this.resampleBuffer = new float[resampler == null ? 0 : resampler.maxOutput(DECODE_FRAMES)];
+    }
+
+    /**
+     * 按文件后缀选择解码器并打开文件
+     *
+     * @param path 文件路径
+     * @return 解码数据来源
+     * @throws IOException 文件格式不支持或无法解码时抛出
+     */
+    public static DecodedPcmAudioSource open(String path) throws IOException {
+        String lowerPath = path.toLowerCase();
+        if (lowerPath.endsWith(".wav")) {
+            return new DecodedPcmAudioSource(new WavPcmDecoder(path));
+        }
+        if (lowerPath.endsWith(".mp3")) {
+            return new DecodedPcmAudioSource(new Mp3PcmDecoder(path));
+        }
+        throw new IOException("Unsupported audio format for client decoding: " + path);
+    }
+
+    @Override
+    public ByteBuffer nextChunk(int maxBytes) throws IOException {
+        // 数据块保持为偶数字节，不拆开一个采样
+        int wanted = Math.max(2, maxBytes - (maxBytes & 1));
+        fill(wanted);
+        int length = Math.min(wanted, pcmEnd - pcmStart);
+        if (length <= 0) {
+            return null;
+        }
+        ByteBuffer chunk = ByteBuffer.wrap(pcmBytes, pcmStart, length).slice();
+        pcmStart += length;
+        return chunk;
+    }
+
+    @Override
+    public void stage(int bytes) throws IOException {
+        fill(bytes);
+    }
+
+    /**
+     * 解码直到缓冲的PCM字节不少于指定数量或解码结束
+     */
+    private void fill(int bytes) throws IOException {
+        while (pcmEnd - pcmStart < bytes && !decoderFinished) {
+            int samples = decoder.read(decodeBuffer);
+            if (samples < 0) {
+                decoderFinished = true;
+                if (resampler != null) {
+                    int count = resampler.flush(resampleBuffer);
+                    appendPcm(resampleBuffer, count);
+                }
+                break;
+            }
+            int frames = downmix(samples);
+            if (resampler != null) {
+                int count = resampler.process(monoBuffer, frames, resampleBuffer);
+                appendPcm(resampleBuffer, count);
+            } else {
+                appendPcm(monoBuffer, frames);
+            }
+        }
+    }
+
+    /**
+     * 多声道取平均值混为单声道
+     *
+     * @param samples 交错排列的采样个数
+     * @return 单声道采样个数
+     */
+    private int downmix(int samples) {
+        int channels = decoder.getChannels();
+        int frames = samples / channels;
+        if (channels == 1) {
+            System.arraycopy(decodeBuffer, 0, monoBuffer, 0, frames);
+            return frames;
+        }
+        for (int i = 0, p = 0; i < frames; i++) {
+            float sum = 0;
+            for (int c = 0; c < channels; c++) {
+                sum += decodeBuffer[p++];
+            }
+            monoBuffer[i] = sum / channels;
+        }
+        return frames;
+    }
+
+    /**
+     * 把浮点采样转换为16bit小端序追加到PCM缓冲区
+     */
+    private void appendPcm(float[] samples, int count) {
+        int needed = count * 2;
+        if (pcmEnd + needed > pcmBytes.length) {
+            // 上一个数据块已经发送完毕，可以把剩余数据移动到开头
+            int remaining = pcmEnd - pcmStart;
+            if (remaining + needed > pcmBytes.length) {
+                byte[] grown = new byte[Math.max(pcmBytes.length * 2, remaining + needed)];
+                System.arraycopy(pcmBytes, pcmStart, grown, 0, remaining);
+                pcmBytes = grown;
+            } else {
+                System.arraycopy(pcmBytes, pcmStart, pcmBytes, 0, remaining);
+            }
+            pcmStart = 0;
+            pcmEnd = remaining;
+        }
+        for (int i = 0; i < count; i++) {
+            float value = samples[i];
+            int sample = value >= 1f ? Short.MAX_VALUE : value <= -1f ? Short.MIN_VALUE : Math.round(value * 32767f);
+            pcmBytes[pcmEnd++] = (byte) sample;
+            pcmBytes[pcmEnd++] = (byte) (sample >> 8);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        decoder.close();
+    }
+}
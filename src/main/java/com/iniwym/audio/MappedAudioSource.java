@@ -0,0 +1,178 @@
+package com.iniwym.audio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * @Description: 基于内存映射的音频数据来源。
+ * 文件按窗口分段映射，每个数据块是映射区域上的切片，发送时不再复制到中间数组。
+ * 分段映射使超过2GB的文件也可以发送，同时避免一次性映射整个大文件。
+ * 切换窗口和关闭时立即解除上一个窗口的映射，不等垃圾回收：映射存在期间文件在Windows上无法删除或覆盖，
+ * 临时PCM文件和重新运行时的同名文件都会受影响。JVM不支持解除映射时退回到等待垃圾回收。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class MappedAudioSource implements AudioSource {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(MappedAudioSource.class);
+
+    // 每个映射窗口的大小
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    // 预读时按页触碰映射区域
+    private static final int PAGE_SIZE = 4096;
+    // 解除映射的方法，JVM不支持时为null
+    private static final Consumer<ByteBuffer> UNMAPPER = createUnmapper();
+
+    private final FileChannel channel;
+    private final long end;
+    // 当前映射窗口在文件中的起始位置
+    private long windowStart;
+    private MappedByteBuffer window;
+
+    /**
+     * 打开文件并定位到音频数据的起始位置
+     *
+     * @param path   文件路径
+     * @param offset 音频数据在文件中的起始偏移，例如wav头的长度
+     * @throws IOException 打开文件失败时抛出
+     */
+    public MappedAudioSource(Path path, long offset) throws IOException {
+        this(path, offset, -1);
+    }
+
+    /**
+     * 打开文件中的一段音频数据，用于长音频切分后的片段
+     *
+     * @param path   文件路径
+     * @param offset 音频数据在文件中的起始偏移
+     * @param length 音频数据的字节数，小于0表示一直到文件末尾
+     * @throws IOException 打开文件失败时抛出
+     */
+    public MappedAudioSource(Path path, long offset, long length) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        this.end = length < 0 ? size : Math.min(size, offset + length);
+        this.windowStart = Math.min(offset, end);
+    }
+
+    @Override
+    public ByteBuffer nextChunk(int maxBytes) throws IOException {
+        if (window == null || !window.hasRemaining()) {
+            if (!mapNextWindow()) {
+                return null;
+            }
+        }
+        // 在映射区域上切出一个数据块，不复制数据
+        int length = Math.min(maxBytes, window.remaining());
+        ByteBuffer chunk = window.slice();
+        chunk.limit(length);
+        window.position(window.position() + length);
+        return chunk;
+    }
+
+    @Override
+    public void stage(int bytes) throws IOException {
+        if (window == null && !mapNextWindow()) {
+            return;
+        }
+        // 逐页读取一个字节，触发缺页把开头的数据读入页缓存
+        int limit = Math.min(bytes, window.remaining());
+        int position = window.position();
+        for (int i = 0; i < limit; i += PAGE_SIZE) {
+            window.get(position + i);
+        }
+    }
+
+    /**
+     * 映射下一个窗口
+     *
+     * @return 是否还有数据
+     */
+    private boolean mapNextWindow() throws IOException {
+        if (window != null) {
+            windowStart += window.capacity();
+            // 上一个窗口的数据块已经发送，可以解除映射
+            unmap(window);
+            window = null;
+        }
+        if (windowStart >= end) {
+            return false;
+        }
+        long size = Math.min(WINDOW_SIZE, end - windowStart);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, size);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (window != null) {
+            unmap(window);
+            window = null;
+        }
+        channel.close();
+    }
+
+    /**
+     * 立即解除映射，之后不能再访问该区域及其切片
+     *
+     * @param buffer 映射区域
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (UNMAPPER != null) {
+            UNMAPPER.accept(buffer);
+        }
+    }
+
+    /**
+     * 查找解除映射的方法：Java 9及以上使用Unsafe.invokeCleaner，Java 8使用DirectBuffer的cleaner
+     *
+     * @return 解除映射的方法，都不可用时返回null
+     */
+    private static Consumer<ByteBuffer> createUnmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            return buffer -> invoke(invokeCleaner, unsafe, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java 8没有invokeCleaner
+        }
+        try {
+            Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return buffer -> {
+                try {
+                    Object bufferCleaner = cleaner.invoke(buffer);
+                    if (bufferCleaner != null) {
+                        clean.invoke(bufferCleaner);
+                    }
+                } catch (ReflectiveOperationException e) {
+                    logger.debug("解除内存映射失败", e);
+                }
+            };
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("当前JVM不支持立即解除内存映射，映射区域在垃圾回收时释放");
+            return null;
+        }
+    }
+
+    private static void invoke(Method method, Object target, ByteBuffer buffer) {
+        try {
+            method.invoke(target, buffer);
+        } catch (ReflectiveOperationException e) {
+            logger.debug("解除内存映射失败", e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.iniwym.audio;
+
+import javazoom.jl.decoder.Bitstream;
+import javazoom.jl.decoder.BitstreamException;
+import javazoom.jl.decoder.Decoder;
+import javazoom.jl.decoder.DecoderException;
+import javazoom.jl.decoder.Header;
+import javazoom.jl.decoder.SampleBuffer;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * @Description: mp3文件解码器，基于JLayer逐帧解码。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class Mp3PcmDecoder implements PcmDecoder {
+
+    private final Bitstream bitstream;
+    private final Decoder decoder = new Decoder();
+    private final int sampleRate;
+    private final int channels;
+    // 当前帧解码出的采样，以及已经读取到的位置
+    private short[] frame;
+    private int frameLength;
+    private int framePosition;
+
+    /**
+     * 打开mp3文件并解码第一帧以确定采样率和声道数
+     *
+     * @param path 文件路径
+     * @throws IOException 文件中没有可解码的mp3帧时抛出
+     */
+    public Mp3PcmDecoder(String path) throws IOException {
+        this.bitstream = new Bitstream(new BufferedInputStream(new FileInputStream(path), 64 * 1024));
+        try {
+            if (!decodeNextFrame()) {
+                throw new IOException("No mp3 frame found: " + path);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        this.sampleRate = decoder.getOutputFrequency();
+        this.channels = decoder.getOutputChannels();
+    }
+
+    /**
+     * 按第一帧的帧头估算mp3文件的时长，不解码音频数据
+     *
+     * @param path     文件路径
+     * @param fileSize 文件字节数
+     * @return 时长，单位毫秒，无法识别帧头时返回0
+     */
+    public static long estimateMillis(String path, long fileSize) {
+        Bitstream stream = null;
+        try {
+            stream = new Bitstream(new BufferedInputStream(new FileInputStream(path), 8 * 1024));
+            Header header = stream.readFrame();
+            return header == null ? 0 : (long) header.total_ms((int) Math.min(fileSize, Integer.MAX_VALUE));
+        } catch (IOException | BitstreamException e) {
+            return 0;
+        } finally {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (BitstreamException ignored) {
+                    // 只读取了帧头，关闭失败不影响结果
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public int getChannels() {
+        return channels;
+    }
+
+    @Override
+    public int read(float[] buffer) throws IOException {
+        int count = 0;
+        int max = buffer.length - buffer.length % channels;
+        while (count < max) {
+            if (framePosition >= frameLength && !decodeNextFrame()) {
+                break;
+            }
+            int n = Math.min(max - count, frameLength - framePosition);
+            for (int i = 0; i < n; i++) {
+                buffer[count + i] = frame[framePosition + i] / 32768f;
+            }
+            count += n;
+            framePosition += n;
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    /**
+     * 解码下一帧
+     *
+     * @return 是否还有数据
+     */
+    private boolean decodeNextFrame() throws IOException {
+        try {
+            Header header = bitstream.readFrame();
+            if (header == null) {
+                return false;
+            }
+            SampleBuffer output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+            frame = output.getBuffer();
+            frameLength = output.getBufferLength();
+            framePosition = 0;
+            bitstream.closeFrame();
+            return true;
+        } catch (BitstreamException | DecoderException e) {
+            throw new IOException("Failed to decode mp3 frame", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            bitstream.close();
+        } catch (BitstreamException e) {
+            throw new IOException(e);
+        }
+    }
+}
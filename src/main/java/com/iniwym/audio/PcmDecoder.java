@@ -0,0 +1,35 @@
+package com.iniwym.audio;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * @Description: 把音频文件解码为交错排列的PCM采样，采样值归一化到[-1, 1]。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public interface PcmDecoder extends Closeable {
+
+    /**
+     * 采样率
+     *
+     * @return 采样率，单位Hz
+     */
+    int getSampleRate();
+
+    /**
+     * 声道数
+     *
+     * @return 声道数
+     */
+    int getChannels();
+
+    /**
+     * 读取交错排列的采样
+     *
+     * @param buffer 采样缓冲区，长度应为声道数的整数倍
+     * @return 读取的采样个数（声道数的整数倍），解码结束时返回-1
+     * @throws IOException 读取或解码失败时抛出
+     */
+    int read(float[] buffer) throws IOException;
+}
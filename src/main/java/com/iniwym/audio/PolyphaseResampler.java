@@ -0,0 +1,210 @@
+package com.iniwym.audio;
+
+/**
+ * @Description: 有理数倍率的多相重采样器，用于把任意采样率的单声道音频转换为目标采样率。
+ * 倍率约分为 up/down（例如44100Hz到16000Hz为160/441），低通滤波器只在需要输出的相位上计算，
+ * 每个输出采样只做taps次乘加，不需要真正插零再抽取。
+ * 滤波器按Kaiser公式设计：通带到较低奈奎斯特频率的90%，阻带从奈奎斯特频率开始，过渡带为奈奎斯特频率的10%，
+ * 阻带衰减约80dB，因此奈奎斯特频率以上的成分（例如44.1kHz转16kHz时8kHz以上）不会混叠回通带。
+ * 过渡带宽度固定为输出带宽的一定比例，滤波器长度随抽取倍率增大，每个相位的阶数约为 100 × max(up, down) / up。
+ * 支持流式处理，输入可以分多次送入。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class PolyphaseResampler {
+
+    // 阻带衰减，单位dB
+    private static final double STOPBAND_ATTENUATION_DB = 80;
+    // Kaiser窗参数，由阻带衰减计算：0.1102 × (A - 8.7)
+    private static final double KAISER_BETA = 0.1102 * (STOPBAND_ATTENUATION_DB - 8.7);
+    // 过渡带宽度相对于奈奎斯特频率的比例，通带到奈奎斯特频率的90%，阻带从奈奎斯特频率开始
+    private static final double TRANSITION_WIDTH = 0.1;
+
+    private final int up;
+    private final int down;
+    // 每个相位的滤波器阶数
+    private final int taps;
+    // phases[p][j]：相位p的第j个系数，作用于倒数第j个输入采样
+    private final float[][] phases;
+    // 滤波器群延迟，单位为上采样后的采样点，用于对齐输入输出的时间轴
+    private final long delay;
+
+    // 尚需参与计算的输入采样，buffer[0]对应的输入序号为bufferStart
+    private float[] buffer = new float[4096];
+    private int bufferLength;
+    private long bufferStart;
+    // 已送入的真实输入采样数
+    private long inputCount;
+    // 下一个输出采样的序号
+    private long outputIndex;
+    private boolean flushed;
+
+    /**
+     * 构造重采样器
+     *
+     * @param inputRate  输入采样率
+     * @param outputRate 输出采样率
+     */
+    public PolyphaseResampler(int inputRate, int outputRate) {
+        int gcd = gcd(inputRate, outputRate);
+        this.up = outputRate / gcd;
+        this.down = inputRate / gcd;
+
+        // 在上采样后的采样率下设计低通滤波器，频率以上采样后的采样率归一化，
+        // 较低的奈奎斯特频率为 0.5 / max(up, down)，截止频率取过渡带中点
+        double nyquist = 0.5 / Math.max(up, down);
+        double transition = TRANSITION_WIDTH * nyquist;
+        double cutoff = nyquist - transition / 2;
+        // Kaiser公式估算的滤波器长度：(A - 7.95) / (2.285 × 2π × Δf)，向上取整为up的整数倍
+        double estimated = (STOPBAND_ATTENUATION_DB - 7.95) / (2.285 * 2 * Math.PI * transition);
+        this.taps = (int) Math.ceil(estimated / up);
+        int length = up * taps;
+        double center = (length - 1) / 2.0;
+        double[] prototype = new double[length];
+        double sum = 0;
+        for (int k = 0; k < length; k++) {
+            double x = k - center;
+            double sinc = x == 0 ? 2 * cutoff : Math.sin(2 * Math.PI * cutoff * x) / (Math.PI * x);
+            double ratio = 2.0 * k / (length - 1) - 1;
+            double window = besselI0(KAISER_BETA * Math.sqrt(Math.max(0, 1 - ratio * ratio))) / besselI0(KAISER_BETA);
+            prototype[k] = sinc * window;
+            sum += prototype[k];
+        }
+        // 插零会使幅度降为1/up，归一化使整个滤波器的直流增益为up
+        this.phases = new float[up][taps];
+        for (int k = 0; k < length; k++) {
+            phases[k % up][k / up] = (float) (prototype[k] * up / sum);
+        }
+        this.delay = (long) Math.floor(center);
+    }
+
+    /**
+     * 输入输出采样率相同时不需要重采样
+     *
+     * @param inputRate  输入采样率
+     * @param outputRate 输出采样率
+     * @return 是否需要重采样
+     */
+    public static boolean isRequired(int inputRate, int outputRate) {
+        return inputRate != outputRate;
+    }
+
+    /**
+     * 送入一段输入并取出已经可以计算的输出
+     *
+     * @param input  输入采样
+     * @param length 输入采样个数
+     * @param output 输出缓冲区，长度至少为{@link #maxOutput(int)}
+     * @return 输出采样个数
+     */
+    public int process(float[] input, int length, float[] output) {
+        append(input, length);
+        inputCount += length;
+        return drain(output, Long.MAX_VALUE);
+    }
+
+    /**
+     * 输入结束，用零补齐滤波器尾部并取出剩余输出
+     *
+     * @param output 输出缓冲区，长度至少为{@link #maxOutput(int)}(0)
+     * @return 输出采样个数
+     */
+    public int flush(float[] output) {
+        if (flushed) {
+            return 0;
+        }
+        flushed = true;
+        int padding = (int) (delay / up) + taps + 1;
+        append(new float[padding], padding);
+        // 输出总数与输入时长对应，补的零只用于计算最后几个输出
+        long totalOutput = (inputCount * up + down - 1) / down;
+        return drain(output, totalOutput);
+    }
+
+    /**
+     * 送入length个输入后最多可能产生的输出个数
+     *
+     * @param length 输入采样个数
+     * @return 输出采样个数上限
+     */
+    public int maxOutput(int length) {
+        long pending = bufferLength + length + delay / up + taps + 1;
+        return (int) (pending * up / down) + 2;
+    }
+
+    /**
+     * 计算所有输入已经到齐的输出采样
+     */
+    private int drain(float[] output, long limit) {
+        int count = 0;
+        long bufferEnd = bufferStart + bufferLength;
+        while (outputIndex < limit) {
+            long t = outputIndex * down + delay;
+            long base = t / up;
+            if (base >= bufferEnd) {
+                break;
+            }
+            float[] coefficients = phases[(int) (t % up)];
+            float acc = 0;
+            int index = (int) (base - bufferStart);
+            int available = Math.min(taps, index + 1);
+            for (int j = 0; j < available; j++) {
+                acc += coefficients[j] * buffer[index - j];
+            }
+            output[count++] = acc;
+            outputIndex++;
+        }
+        discardConsumed();
+        return count;
+    }
+
+    /**
+     * 丢弃之后的输出不再需要的输入采样
+     */
+    private void discardConsumed() {
+        long nextBase = (outputIndex * down + delay) / up;
+        long keepFrom = nextBase - taps + 1;
+        int discard = (int) Math.min(bufferLength, Math.max(0, keepFrom - bufferStart));
+        if (discard > 0) {
+            System.arraycopy(buffer, discard, buffer, 0, bufferLength - discard);
+            bufferLength -= discard;
+            bufferStart += discard;
+        }
+    }
+
+    private void append(float[] input, int length) {
+        if (bufferLength + length > buffer.length) {
+            float[] grown = new float[Math.max(buffer.length * 2, bufferLength + length)];
+            System.arraycopy(buffer, 0, grown, 0, bufferLength);
+            buffer = grown;
+        }
+        System.arraycopy(input, 0, buffer, bufferLength, length);
+        bufferLength += length;
+    }
+
+    /**
+     * 第一类零阶修正贝塞尔函数，用于计算Kaiser窗
+     */
+    private static double besselI0(double x) {
+        double sum = 1;
+        double term = 1;
+        double half = x / 2;
+        for (int k = 1; k < 50; k++) {
+            term *= (half / k) * (half / k);
+            sum += term;
+            if (term < sum * 1e-12) {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,219 @@
+package com.iniwym.audio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * @Description: 基于能量的简单语音活动检测，在发送前压缩长时间的静音。
+ * 音频按20ms分帧计算平均能量，低于阈值的帧视为静音；连续静音超过最短时长时，
+ * 只保留开头和结尾各一小段，中间部分不发送，并在{@link TimelineMap}中记录裁掉的位置和时长，
+ * 识别结果的时间戳可以据此换算回原始音频的时间。
+ * 输入输出均为16kHz、16bit单声道小端序PCM。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class SilenceTrimmingAudioSource implements AudioSource {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(SilenceTrimmingAudioSource.class);
+
+    // 16kHz、16bit单声道音频每毫秒32字节
+    private static final int BYTES_PER_MS = 32;
+    // 分帧时长，单位毫秒
+    private static final int FRAME_MS = 20;
+    private static final int FRAME_BYTES = FRAME_MS * BYTES_PER_MS;
+
+    private final AudioSource delegate;
+    private final String name;
+    // 一帧的能量（采样平方和）低于该值视为静音
+    private final long energyThreshold;
+    // 连续静音超过该帧数才压缩
+    private final int minSilenceFrames;
+    // 压缩时静音开头和结尾各保留的帧数
+    private final int keepFrames;
+    private final TimelineMap timeline = new TimelineMap();
+
+    // 正在组装的一帧
+    private final byte[] frame = new byte[FRAME_BYTES];
+    private int frameFill;
+    // 当前这段静音中尚未决定是否发送的帧
+    private final ArrayDeque<byte[]> silentFrames = new ArrayDeque<>();
+    // 可复用的帧数组
+    private final ArrayDeque<byte[]> freeFrames = new ArrayDeque<>();
+    // 当前这段静音是否已超过最短时长、开头部分已发送
+    private boolean trimming;
+    // 当前这段静音中裁掉的帧数
+    private long droppedFrames;
+
+    // 待发送的数据，有效数据为[outStart, outEnd)
+    private byte[] out = new byte[64 * 1024];
+    private int outStart;
+    private int outEnd;
+    // 已输出到发送时间轴上的字节数
+    private long outputBytes;
+    private long inputBytes;
+    private boolean finished;
+
+    /**
+     * 构造静音裁剪数据来源
+     *
+     * @param delegate      原始PCM数据来源
+     * @param name          音频名称，用于日志
+     * @param thresholdDb   静音阈值，帧的均方根电平低于该值（dBFS）视为静音
+     * @param minSilenceMs  连续静音超过该时长才压缩，单位毫秒
+     * @param keepMs        压缩时静音开头和结尾各保留的时长，单位毫秒
+     */
+    public SilenceTrimmingAudioSource(AudioSource delegate, String name, double thresholdDb, int minSilenceMs, int keepMs) {
+        this.delegate = delegate;
+        this.name = name;
+        double rms = 32768.0 * Math.pow(10, thresholdDb / 20);
+        this.energyThreshold = (long) (rms * rms * (FRAME_BYTES / 2));
+        this.keepFrames = Math.max(0, keepMs / FRAME_MS);
+        // 开头和结尾各保留keepFrames帧，静音至少要比两者之和长才有可裁掉的部分
+        this.minSilenceFrames = Math.max(minSilenceMs / FRAME_MS, 2 * keepFrames + 1);
+    }
+
+    /**
+     * 裁剪位置与时长的记录
+     *
+     * @return 时间轴对应关系
+     */
+    public TimelineMap getTimeline() {
+        return timeline;
+    }
+
+    @Override
+    public ByteBuffer nextChunk(int maxBytes) throws IOException {
+        // 数据块保持为偶数字节，不拆开一个采样
+        int wanted = Math.max(2, maxBytes - (maxBytes & 1));
+        fill(wanted);
+        int length = Math.min(wanted, outEnd - outStart);
+        if (length <= 0) {
+            return null;
+        }
+        ByteBuffer chunk = ByteBuffer.wrap(out, outStart, length).slice();
+        outStart += length;
+        return chunk;
+    }
+
+    @Override
+    public void stage(int bytes) throws IOException {
+        fill(bytes);
+    }
+
+    /**
+     * 读取并分帧处理，直到待发送的数据不少于指定字节数或原始数据读完
+     */
+    private void fill(int bytes) throws IOException {
+        while (outEnd - outStart < bytes && !finished) {
+            ByteBuffer input = delegate.nextChunk(FRAME_BYTES - frameFill);
+            if (input == null) {
+                finished = true;
+                // 末尾不足一帧的数据和尚未发送的静音照常发送
+                endSilence();
+                append(frame, frameFill);
+                frameFill = 0;
+                break;
+            }
+            int length = input.remaining();
+            input.get(frame, frameFill, length);
+            frameFill += length;
+            inputBytes += length;
+            if (frameFill == FRAME_BYTES) {
+                processFrame();
+                frameFill = 0;
+            }
+        }
+    }
+
+    /**
+     * 处理一个完整的帧
+     */
+    private void processFrame() {
+        if (!isSilent(frame)) {
+            endSilence();
+            append(frame, FRAME_BYTES);
+            return;
+        }
+        byte[] copy = freeFrames.isEmpty() ? new byte[FRAME_BYTES] : freeFrames.poll();
+        System.arraycopy(frame, 0, copy, 0, FRAME_BYTES);
+        silentFrames.add(copy);
+        if (!trimming && silentFrames.size() > minSilenceFrames) {
+            // 静音已足够长：发送开头保留的部分，其余只保留最后keepFrames帧
+            trimming = true;
+            for (int i = 0; i < keepFrames; i++) {
+                byte[] kept = silentFrames.poll();
+                append(kept, FRAME_BYTES);
+                freeFrames.add(kept);
+            }
+        }
+        if (trimming) {
+            while (silentFrames.size() > keepFrames) {
+                freeFrames.add(silentFrames.poll());
+                droppedFrames++;
+            }
+        }
+    }
+
+    /**
+     * 一段静音结束：记录裁掉的时长，发送保留的结尾部分
+     */
+    private void endSilence() {
+        if (droppedFrames > 0) {
+            timeline.addGap(outputBytes / BYTES_PER_MS, droppedFrames * FRAME_MS);
+        }
+        byte[] kept;
+        while ((kept = silentFrames.poll()) != null) {
+            append(kept, FRAME_BYTES);
+            freeFrames.add(kept);
+        }
+        trimming = false;
+        droppedFrames = 0;
+    }
+
+    /**
+     * 判断一帧是否为静音
+     */
+    private boolean isSilent(byte[] data) {
+        long energy = 0;
+        for (int i = 0; i < FRAME_BYTES; i += 2) {
+            int sample = (short) ((data[i] & 0xff) | (data[i + 1] << 8));
+            energy += (long) sample * sample;
+        }
+        return energy < energyThreshold;
+    }
+
+    /**
+     * 追加待发送的数据
+     */
+    private void append(byte[] data, int length) {
+        if (outEnd + length > out.length) {
+            // 上一个数据块已经发送完毕，可以把剩余数据移动到开头
+            int remaining = outEnd - outStart;
+            if (remaining + length > out.length) {
+                byte[] grown = new byte[Math.max(out.length * 2, remaining + length)];
+                System.arraycopy(out, outStart, grown, 0, remaining);
+                out = grown;
+            } else {
+                System.arraycopy(out, outStart, out, 0, remaining);
+            }
+            outStart = 0;
+            outEnd = remaining;
+        }
+        System.arraycopy(data, 0, out, outEnd, length);
+        outEnd += length;
+        outputBytes += length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (inputBytes > 0 && !timeline.isEmpty()) {
+            logger.info("静音裁剪：{}，原始{}ms，裁掉{}ms（{}%）", name, inputBytes / BYTES_PER_MS,
+                    timeline.getRemovedMs(), timeline.getRemovedMs() * 100 * BYTES_PER_MS / inputBytes);
+        }
+        delegate.close();
+    }
+}
@@ -0,0 +1,75 @@
+package com.iniwym.audio;
+
+import java.util.Arrays;
+
+/**
+ * @Description: 裁掉静音后的时间轴与原始时间轴的对应关系。
+ * 每裁掉一段静音记录一个点：发送时间轴上该位置之后的时间都要加上此前累计裁掉的时长，才是原始音频中的时间。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class TimelineMap {
+
+    // 裁剪点在发送时间轴上的位置，单位毫秒，递增
+    private long[] positions = new long[8];
+    // 截至每个裁剪点累计裁掉的时长，单位毫秒
+    private long[] removed = new long[8];
+    private int size;
+
+    /**
+     * 记录一段被裁掉的静音
+     *
+     * @param positionMs 裁剪点在发送时间轴上的位置
+     * @param removedMs  这段静音的时长
+     */
+    public synchronized void addGap(long positionMs, long removedMs) {
+        if (removedMs <= 0) {
+            return;
+        }
+        long total = (size > 0 ? removed[size - 1] : 0) + removedMs;
+        if (size > 0 && positions[size - 1] == positionMs) {
+            removed[size - 1] = total;
+            return;
+        }
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+            removed = Arrays.copyOf(removed, size * 2);
+        }
+        positions[size] = positionMs;
+        removed[size] = total;
+        size++;
+    }
+
+    /**
+     * 是否没有裁掉任何静音
+     *
+     * @return 没有裁剪时返回true
+     */
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 累计裁掉的时长
+     *
+     * @return 单位毫秒
+     */
+    public synchronized long getRemovedMs() {
+        return size > 0 ? removed[size - 1] : 0;
+    }
+
+    /**
+     * 把发送时间轴上的时间换算为原始音频中的时间
+     *
+     * @param ms 发送时间轴上的时间，单位毫秒
+     * @return 原始音频中的时间，单位毫秒
+     */
+    public synchronized long toOriginal(long ms) {
+        int index = Arrays.binarySearch(positions, 0, size, ms);
+        if (index < 0) {
+            // 取位置不大于ms的最后一个裁剪点
+            index = -index - 2;
+        }
+        return index < 0 ? ms : ms + removed[index];
+    }
+}
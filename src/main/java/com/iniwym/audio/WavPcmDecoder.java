@@ -0,0 +1,197 @@
+package com.iniwym.audio;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @Description: wav文件解码器。按RIFF结构查找fmt和data块，而不是假定固定44字节的文件头，
+ * 支持8/16/24/32位整数PCM和32位浮点PCM，以及任意采样率和声道数。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class WavPcmDecoder implements PcmDecoder {
+
+    private static final int FORMAT_PCM = 1;
+    private static final int FORMAT_IEEE_FLOAT = 3;
+    private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+
+    private final InputStream in;
+    private final int sampleRate;
+    private final int channels;
+    private final int bitsPerSample;
+    private final boolean floatSamples;
+    // data块中剩余的字节数
+    private long remainingBytes;
+    private byte[] readBuffer = new byte[0];
+
+    /**
+     * 打开wav文件并解析文件头
+     *
+     * @param path 文件路径
+     * @throws IOException 文件不是支持的wav格式时抛出
+     */
+    public WavPcmDecoder(String path) throws IOException {
+        this.in = new BufferedInputStream(new FileInputStream(path), 64 * 1024);
+        try {
+            if (!"RIFF".equals(readTag())) {
+                throw new IOException("Not a RIFF file: " + path);
+            }
+            readIntLE(); // RIFF size
+            if (!"WAVE".equals(readTag())) {
+                throw new IOException("Not a WAVE file: " + path);
+            }
+            int format = -1;
+            int rate = 0;
+            int channelCount = 0;
+            int bits = 0;
+            while (true) {
+                String tag = readTag();
+                long size = readIntLE() & 0xFFFFFFFFL;
+                if ("fmt ".equals(tag)) {
+                    format = readShortLE();
+                    channelCount = readShortLE();
+                    rate = readIntLE();
+                    readIntLE(); // byte rate
+                    readShortLE(); // block align
+                    bits = readShortLE();
+                    long consumed = 16;
+                    if (format == FORMAT_EXTENSIBLE && size >= 40) {
+                        readShortLE(); // cbSize
+                        readShortLE(); // valid bits
+                        readIntLE(); // channel mask
+                        format = readShortLE(); // sub format GUID的前两个字节即格式代码
+                        consumed += 10;
+                    }
+                    skipFully(Math.max(0, size - consumed) + (size & 1));
+                } else if ("data".equals(tag)) {
+                    remainingBytes = size;
+                    break;
+                } else {
+                    // 跳过LIST等其他块，块长度为奇数时有一个填充字节
+                    skipFully(size + (size & 1));
+                }
+            }
+            if (format != FORMAT_PCM && format != FORMAT_IEEE_FLOAT) {
+                throw new IOException("Unsupported wav format " + format + ": " + path);
+            }
+            if (format == FORMAT_IEEE_FLOAT ? bits != 32 : (bits != 8 && bits != 16 && bits != 24 && bits != 32)) {
+                throw new IOException("Unsupported wav sample size " + bits + ": " + path);
+            }
+            if (channelCount < 1 || rate < 1) {
+                throw new IOException("Invalid wav header: " + path);
+            }
+            this.sampleRate = rate;
+            this.channels = channelCount;
+            this.bitsPerSample = bits;
+            this.floatSamples = format == FORMAT_IEEE_FLOAT;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public int getChannels() {
+        return channels;
+    }
+
+    @Override
+    public int read(float[] buffer) throws IOException {
+        int bytesPerSample = bitsPerSample / 8;
+        int frameBytes = bytesPerSample * channels;
+        // 只读取完整的帧
+        long maxBytes = Math.min(remainingBytes, (long) (buffer.length / channels) * frameBytes);
+        maxBytes -= maxBytes % frameBytes;
+        if (maxBytes <= 0) {
+            return -1;
+        }
+        if (readBuffer.length < maxBytes) {
+            readBuffer = new byte[(int) maxBytes];
+        }
+        int read = 0;
+        while (read < maxBytes) {
+            int n = in.read(readBuffer, read, (int) maxBytes - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        read -= read % frameBytes;
+        remainingBytes = read < maxBytes ? 0 : remainingBytes - read;
+        if (read == 0) {
+            return -1;
+        }
+
+        int samples = read / bytesPerSample;
+        for (int i = 0, p = 0; i < samples; i++, p += bytesPerSample) {
+            buffer[i] = toFloat(readBuffer, p);
+        }
+        return samples;
+    }
+
+    /**
+     * 把一个小端序采样转换为[-1, 1]的浮点数
+     */
+    private float toFloat(byte[] bytes, int p) {
+        switch (bitsPerSample) {
+            case 8:
+                // 8位PCM为无符号数
+                return ((bytes[p] & 0xFF) - 128) / 128f;
+            case 16:
+                return (short) ((bytes[p] & 0xFF) | (bytes[p + 1] << 8)) / 32768f;
+            case 24:
+                return ((bytes[p] & 0xFF) | ((bytes[p + 1] & 0xFF) << 8) | (bytes[p + 2] << 16)) / 8388608f;
+            default:
+                int bits = (bytes[p] & 0xFF) | ((bytes[p + 1] & 0xFF) << 8) | ((bytes[p + 2] & 0xFF) << 16) | (bytes[p + 3] << 24);
+                return floatSamples ? Float.intBitsToFloat(bits) : bits / 2147483648f;
+        }
+    }
+
+    private String readTag() throws IOException {
+        byte[] tag = new byte[4];
+        for (int i = 0; i < 4; i++) {
+            tag[i] = (byte) readByte();
+        }
+        return new String(tag, "US-ASCII");
+    }
+
+    private int readShortLE() throws IOException {
+        return readByte() | (readByte() << 8);
+    }
+
+    private int readIntLE() throws IOException {
+        return readByte() | (readByte() << 8) | (readByte() << 16) | (readByte() << 24);
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Unexpected end of wav header");
+        }
+        return b;
+    }
+
+    private void skipFully(long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                readByte();
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
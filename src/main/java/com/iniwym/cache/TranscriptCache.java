@@ -0,0 +1,296 @@
+package com.iniwym.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @Description: 按音频内容和识别参数缓存识别结果。
+ * 缓存键为音频文件内容与请求参数的MD5，内容相同的文件即使改名或换了目录也能命中；
+ * 每条结果保存为缓存目录下的一个文件，索引文件按最近使用顺序记录各条目的大小，
+ * 总大小超过上限时淘汰最久未使用的条目。
+ * 索引只追加写入：保存结果时追加一行"缓存键 字节数"，删除条目时追加一行"- 缓存键"，
+ * 加载时按顺序重放；追加的行数超过条目数较多时，以及关闭时，才整体重写一次索引。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class TranscriptCache {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(TranscriptCache.class);
+
+    // 索引文件名
+    private static final String INDEX_FILE = "index.txt";
+    // 索引中表示删除条目的行首
+    private static final String REMOVED_PREFIX = "- ";
+    // 计算哈希时每次读取的字节数
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    // 索引中多于条目数的行数超过该值时重写索引
+    private static final int COMPACT_SLACK = 256;
+
+    private final Path directory;
+    private final long maxBytes;
+    // 缓存键到结果大小，按访问顺序排列，第一个为最久未使用
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    // 索引文件的行数，包括已被后续行覆盖的行
+    private int indexLines;
+
+    /**
+     * 打开缓存目录并加载索引
+     *
+     * @param directory 缓存目录
+     * @param maxBytes  缓存总大小上限
+     * @throws IOException 创建目录或读取索引失败时抛出
+     */
+    public TranscriptCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        loadIndex();
+    }
+
+    /**
+     * 计算音频文件内容和识别参数的缓存键
+     *
+     * @param audioFile 音频文件
+     * @param params    影响识别结果的参数
+     * @return 缓存键
+     * @throws IOException 读取文件失败时抛出
+     */
+    public static String computeKey(Path audioFile, String params) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        // 堆内缓冲区随方法返回回收，不为每个文件分配直接内存
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(audioFile)) {
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        digest.update(params.getBytes(StandardCharsets.UTF_8));
+        StringBuilder key = new StringBuilder(32);
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * 读取缓存的识别结果
+     *
+     * @param key 缓存键
+     * @return 识别结果的JSON文本，未命中时返回null
+     */
+    public synchronized String get(String key) {
+        if (entries.get(key) == null) {
+            return null;
+        }
+        try {
+            return new String(Files.readAllBytes(entryPath(key)), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warn("读取缓存失败，删除该条目：{}", key, e);
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * 保存识别结果，超过大小上限时淘汰最久未使用的条目
+     *
+     * @param key    缓存键
+     * @param result 识别结果的JSON文本
+     */
+    public synchronized void put(String key, String result) {
+        byte[] bytes = result.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxBytes) {
+            return;
+        }
+        try {
+            Files.write(entryPath(key), bytes);
+        } catch (IOException e) {
+            logger.warn("写入缓存失败：{}", key, e);
+            return;
+        }
+        Long previous = entries.put(key, (long) bytes.length);
+        totalBytes += bytes.length - (previous == null ? 0 : previous);
+        appendIndex(key + " " + bytes.length);
+        evict();
+        compactIfNeeded();
+    }
+
+    /**
+     * 把最近使用顺序写回索引文件
+     */
+    public synchronized void close() {
+        saveIndex();
+    }
+
+    /**
+     * 缓存的条目数
+     *
+     * @return 条目数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 缓存条目的总字节数
+     *
+     * @return 总字节数
+     */
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * 淘汰最久未使用的条目直到总大小不超过上限
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            deleteQuietly(eldest.getKey());
+            appendIndex(REMOVED_PREFIX + eldest.getKey());
+            logger.info("淘汰缓存条目：{}", eldest.getKey());
+        }
+    }
+
+    private void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        deleteQuietly(key);
+        appendIndex(REMOVED_PREFIX + key);
+    }
+
+    /**
+     * 按顺序重放索引，"缓存键 字节数"表示保存或更新，"- 缓存键"表示删除，越靠后越是最近使用。
+     * 格式错误的行（例如写入中断留下的半行）和文件已不存在的条目跳过，加载后重写一次索引
+     */
+    private void loadIndex() throws IOException {
+        Path index = directory.resolve(INDEX_FILE);
+        if (!Files.exists(index)) {
+            return;
+        }
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.startsWith(REMOVED_PREFIX)) {
+                    entries.remove(line.substring(REMOVED_PREFIX.length()));
+                    continue;
+                }
+                String[] parts = line.split(" ");
+                long size;
+                try {
+                    size = parts.length == 2 ? Long.parseLong(parts[1]) : -1;
+                } catch (NumberFormatException e) {
+                    size = -1;
+                }
+                if (size < 0) {
+                    skipped++;
+                    continue;
+                }
+                entries.put(parts[0], size);
+            }
+        }
+        // 文件已不存在的条目丢弃，大小以实际文件为准，不受中断时写了一半的数字影响
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            Path entryFile = entryPath(entry.getKey());
+            if (!Files.isRegularFile(entryFile)) {
+                iterator.remove();
+                continue;
+            }
+            entry.setValue(Files.size(entryFile));
+            totalBytes += entry.getValue();
+        }
+        if (skipped > 0) {
+            logger.warn("缓存索引中有{}行格式错误，已跳过：{}", skipped, index);
+        }
+        evict();
+        saveIndex();
+        logger.info("加载识别结果缓存：{}，{}个条目，{}字节", directory, entries.size(), totalBytes);
+    }
+
+    /**
+     * 在索引末尾追加一行
+     */
+    private void appendIndex(String line) {
+        Path index = directory.resolve(INDEX_FILE);
+        try (BufferedWriter writer = Files.newBufferedWriter(index, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(line);
+            writer.newLine();
+            indexLines++;
+        } catch (IOException e) {
+            logger.warn("写入缓存索引失败：{}", index, e);
+        }
+    }
+
+    /**
+     * 索引中被覆盖的行过多时重写索引
+     */
+    private void compactIfNeeded() {
+        if (indexLines > entries.size() + COMPACT_SLACK) {
+            saveIndex();
+        }
+    }
+
+    /**
+     * 写入索引，先写临时文件再替换，避免中断时留下不完整的索引
+     */
+    private void saveIndex() {
+        Path index = directory.resolve(INDEX_FILE);
+        Path tmp = directory.resolve(INDEX_FILE + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                    writer.write(entry.getKey() + " " + entry.getValue());
+                    writer.newLine();
+                }
+            }
+            Files.move(tmp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            indexLines = entries.size();
+        } catch (IOException e) {
+            logger.warn("写入缓存索引失败：{}", index, e);
+        }
+    }
+
+    private Path entryPath(String key) {
+        return directory.resolve(key + ".json");
+    }
+
+    private void deleteQuietly(String key) {
+        try {
+            Files.deleteIfExists(entryPath(key));
+        } catch (IOException e) {
+            logger.warn("删除缓存条目失败：{}", key, e);
+        }
+    }
+}
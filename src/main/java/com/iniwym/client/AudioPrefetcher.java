@@ -0,0 +1,131 @@
+package com.iniwym.client;
+
+import com.iniwym.scheduler.TaskScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * @Description: 音频预读流水线。在会话仍在等待上一个文件的识别结果时，
+ * 提前打开、校验后续的K个文件并读好第一个数据块，会话空闲后可以立即开始发送。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class AudioPrefetcher implements Runnable {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(AudioPrefetcher.class);
+
+    // 待预读的文件路径
+    private final BlockingQueue<String> pendingFiles;
+    // 预读完成的文件，容量即预读数量
+    private final BlockingQueue<PreparedAudio> readyFiles;
+    // 文件校验或读取失败时的回调
+    private final BiConsumer<String, IOException> onFailure;
+    // 预读前调用，返回true表示该文件已经从缓存中得到结果，不需要识别
+    private final Predicate<String> servedFromCache;
+    private final int chunkSize;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * 构造预读流水线
+     *
+     * @param pendingFiles    待预读的文件路径队列
+     * @param prefetchCount   最多提前准备的文件数量
+     * @param chunkSize       每次发送的数据块大小
+     * @param onFailure       文件校验或读取失败时的回调
+     * @param servedFromCache 预读前调用，返回true表示该文件已从缓存得到结果
+     */
+    public AudioPrefetcher(BlockingQueue<String> pendingFiles, int prefetchCount, int chunkSize,
+                           BiConsumer<String, IOException> onFailure, Predicate<String> servedFromCache) {
+        if (prefetchCount < 1) {
+            throw new IllegalArgumentException("prefetchCount must be positive: " + prefetchCount);
+        }
+        this.pendingFiles = pendingFiles;
+        this.readyFiles = new LinkedBlockingQueue<>(prefetchCount);
+        this.chunkSize = chunkSize;
+        this.onFailure = onFailure;
+        this.servedFromCache = servedFromCache;
+    }
+
+    /**
+     * 启动后台预读线程
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = TaskScheduler.newDaemonThread("prefetch", this);
+        thread.start();
+    }
+
+    /**
+     * 停止预读并关闭尚未取走的文件
+     */
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        PreparedAudio audio;
+        while ((audio = readyFiles.poll()) != null) {
+            audio.discard();
+        }
+    }
+
+    /**
+     * 取出一个预读完成的文件
+     *
+     * @param timeout 等待时间
+     * @param unit    时间单位
+     * @return 预读完成的文件，超时返回null
+     */
+    public PreparedAudio poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return readyFiles.poll(timeout, unit);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                String wavPath = pendingFiles.poll(500, TimeUnit.MILLISECONDS);
+                if (wavPath == null || servedFromCache.test(wavPath)) {
+                    continue;
+                }
+                List<PreparedAudio> prepared;
+                try {
+                    prepared = PreparedAudio.prepareAll(wavPath, chunkSize);
+                } catch (IOException e) {
+                    logger.error("预读音频文件失败：{}", wavPath, e);
+                    onFailure.accept(wavPath, e);
+                    continue;
+                }
+                // 队列已满时在这里阻塞，最多提前准备prefetchCount个文件（长音频的每个片段各占一个位置）
+                for (int i = 0; i < prepared.size(); i++) {
+                    try {
+                        readyFiles.put(prepared.get(i));
+                    } catch (InterruptedException e) {
+                        // 尚未放入队列的片段不会再被发送，关闭文件并释放临时PCM文件
+                        for (PreparedAudio audio : prepared.subList(i, prepared.size())) {
+                            audio.discard();
+                        }
+                        throw e;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
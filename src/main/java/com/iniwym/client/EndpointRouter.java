@@ -0,0 +1,214 @@
+package com.iniwym.client;
+
+import com.iniwym.scheduler.TaskScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description: 在多个FunASR服务端之间分配文件。
+ * 每个文件交给健康且处理中字节数最少的服务端，并定期以WebSocket握手探测各服务端是否可用。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class EndpointRouter {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(EndpointRouter.class);
+
+    // 健康探测时建立连接和等待握手响应的超时时间，单位毫秒
+    private static final int PROBE_TIMEOUT_MILLIS = 3000;
+
+    private final List<FunasrEndpoint> endpoints;
+    private ScheduledExecutorService healthChecker;
+
+    /**
+     * 构造路由器
+     *
+     * @param endpoints 服务端地址列表
+     */
+    public EndpointRouter(List<FunasrEndpoint> endpoints) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one FunASR endpoint is required.");
+        }
+        this.endpoints = Collections.unmodifiableList(new ArrayList<>(endpoints));
+    }
+
+    /**
+     * 解析逗号分隔的服务端地址列表，例如 "10.0.0.1:10095,10.0.0.2:10095"，IPv6地址写在方括号中，例如 "[::1]:10095"
+     *
+     * @param srvEndpoints 服务端地址配置
+     * @return 服务端地址列表
+     */
+    public static List<FunasrEndpoint> parseEndpoints(String srvEndpoints) {
+        List<FunasrEndpoint> endpoints = new ArrayList<>();
+        for (String item : srvEndpoints.split(",")) {
+            item = item.trim();
+            if (item.isEmpty()) {
+                continue;
+            }
+            int index = item.lastIndexOf(':');
+            if (index <= 0 || index == item.length() - 1) {
+                throw new IllegalArgumentException("Invalid endpoint, expected host:port but got: " + item);
+            }
+            String host = item.substring(0, index);
+            if (host.startsWith("[") && host.endsWith("]") && host.length() > 2) {
+                host = host.substring(1, host.length() - 1);
+            } else if (host.indexOf(':') >= 0 || host.indexOf('[') >= 0 || host.indexOf(']') >= 0) {
+                throw new IllegalArgumentException("Invalid endpoint, IPv6 addresses must be written as [host]:port but got: " + item);
+            }
+            int port;
+            try {
+                port = Integer.parseInt(item.substring(index + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid endpoint port: " + item, e);
+            }
+            endpoints.add(new FunasrEndpoint(host, port));
+        }
+        return endpoints;
+    }
+
+    public List<FunasrEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * 选择处理中字节数最少的健康服务端，字节数相同时选择处理中文件更少的。
+     *
+     * @return 选中的服务端，没有健康的服务端时返回null
+     */
+    public synchronized FunasrEndpoint select() {
+        FunasrEndpoint best = null;
+        for (FunasrEndpoint endpoint : endpoints) {
+            if (!endpoint.isHealthy()) {
+                continue;
+            }
+            if (best == null
+                    || endpoint.getInFlightBytes() < best.getInFlightBytes()
+                    || (endpoint.getInFlightBytes() == best.getInFlightBytes()
+                    && endpoint.getInFlightFiles() < best.getInFlightFiles())) {
+                best = endpoint;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 选择服务端并记录分配给它的负载，选择与记账在同一把锁内完成，避免并发分发时都选中同一个服务端。
+     *
+     * @param bytes 文件字节数
+     * @return 选中的服务端，没有健康的服务端时返回null
+     */
+    public synchronized FunasrEndpoint acquire(long bytes) {
+        FunasrEndpoint endpoint = select();
+        if (endpoint != null) {
+            endpoint.acquire(bytes);
+        }
+        return endpoint;
+    }
+
+    /**
+     * 文件处理结束后归还负载
+     *
+     * @param endpoint 服务端
+     * @param bytes    文件字节数
+     */
+    public void release(FunasrEndpoint endpoint, long bytes) {
+        endpoint.release(bytes);
+    }
+
+    /**
+     * 将服务端标记为不可用，直到下一次健康探测成功。
+     *
+     * @param endpoint 服务端
+     * @param reason   原因
+     */
+    public void markUnhealthy(FunasrEndpoint endpoint, String reason) {
+        if (endpoint.isHealthy()) {
+            logger.warn("服务端 {} 不可用：{}", endpoint, reason);
+        }
+        endpoint.setHealthy(false);
+    }
+
+    /**
+     * 启动周期性健康探测
+     *
+     * @param intervalSeconds 探测间隔，单位秒，小于等于0时不探测
+     */
+    public synchronized void startHealthCheck(int intervalSeconds) {
+        if (intervalSeconds <= 0 || healthChecker != null) {
+            return;
+        }
+        healthChecker = TaskScheduler.newScheduler("health-check", 1);
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停止健康探测
+     */
+    public synchronized void stopHealthCheck() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+            healthChecker = null;
+        }
+    }
+
+    /**
+     * 探测所有服务端，并更新健康状态。除周期性探测外，重新连接前也会立即探测一次
+     */
+    public void checkHealth() {
+        for (FunasrEndpoint endpoint : endpoints) {
+            boolean reachable = probe(endpoint);
+            if (reachable && !endpoint.isHealthy()) {
+                logger.info("服务端 {} 已恢复", endpoint);
+                endpoint.setHealthy(true);
+            } else if (!reachable) {
+                markUnhealthy(endpoint, "健康探测失败");
+            }
+        }
+    }
+
+    /**
+     * 向服务端发起WebSocket握手，收到101响应才算可用；端口能连上但不是WebSocket服务
+     * （例如服务端进程异常、端口被其他程序占用）时判定为不可用。握手成功后直接断开，不发送识别请求。
+     *
+     * @param endpoint 服务端
+     * @return 是否完成握手
+     */
+    static boolean probe(FunasrEndpoint endpoint) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(endpoint.getHost(), endpoint.getPort()), PROBE_TIMEOUT_MILLIS);
+            socket.setSoTimeout(PROBE_TIMEOUT_MILLIS);
+            byte[] nonce = new byte[16];
+            ThreadLocalRandom.current().nextBytes(nonce);
+            String request = "GET / HTTP/1.1\r\n"
+                    + "Host: " + endpoint + "\r\n"
+                    + "Upgrade: websocket\r\n"
+                    + "Connection: Upgrade\r\n"
+                    + "Sec-WebSocket-Key: " + Base64.getEncoder().encodeToString(nonce) + "\r\n"
+                    + "Sec-WebSocket-Version: 13\r\n\r\n";
+            OutputStream out = socket.getOutputStream();
+            out.write(request.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            // 只读取状态行，例如 "HTTP/1.1 101 Switching Protocols"
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            String statusLine = reader.readLine();
+            return statusLine != null && statusLine.startsWith("HTTP/1.1 101");
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
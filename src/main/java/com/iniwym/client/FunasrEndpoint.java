@@ -0,0 +1,89 @@
+package com.iniwym.client;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Description: 一个FunASR服务端地址及其当前负载（处理中的文件数和字节数）与健康状态
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class FunasrEndpoint {
+
+    private final String host;
+    private final int port;
+    private final URI uri;
+    // 已分配但尚未完成的音频字节数
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    // 已分配但尚未完成的文件数
+    private final AtomicInteger inFlightFiles = new AtomicInteger();
+    // 最近一次探测或连接的结果
+    private volatile boolean healthy = true;
+
+    /**
+     * 构造服务端地址
+     *
+     * @param host 服务器IP地址或主机名，IPv6地址不带方括号
+     * @param port 服务器端口号
+     */
+    public FunasrEndpoint(String host, int port) {
+        this.host = host;
+        this.port = port;
+        this.uri = URI.create("ws://" + this);
+    }
+
+    /**
+     * 记录分配给该地址的一个文件
+     *
+     * @param bytes 文件字节数
+     */
+    void acquire(long bytes) {
+        inFlightFiles.incrementAndGet();
+        inFlightBytes.addAndGet(bytes);
+    }
+
+    /**
+     * 文件处理结束后扣减负载
+     *
+     * @param bytes 文件字节数
+     */
+    void release(long bytes) {
+        inFlightFiles.decrementAndGet();
+        inFlightBytes.addAndGet(-bytes);
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public long getInFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    public int getInFlightFiles() {
+        return inFlightFiles.get();
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    @Override
+    public String toString() {
+        // IPv6地址需要加上方括号才能与端口区分
+        return (host.indexOf(':') >= 0 ? "[" + host + "]" : host) + ":" + port;
+    }
+}
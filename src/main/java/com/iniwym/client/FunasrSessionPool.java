@@ -0,0 +1,657 @@
+package com.iniwym.client;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.iniwym.cache.TranscriptCache;
+import com.iniwym.journal.DeadLetterList;
+import com.iniwym.journal.JobJournal;
+import com.iniwym.journal.JobState;
+import com.iniwym.metrics.ClientMetrics;
+import com.iniwym.notify.Notifier;
+import com.iniwym.scheduler.TaskScheduler;
+import com.iniwym.utils.ConfigReaderUtil;
+import com.iniwym.utils.JsonToFileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+
+/**
+ * @Description: WebSocket会话池。维持固定数量的并发连接，
+ * 将待处理的音频文件分发给空闲的会话，并汇报每个文件的完成情况。
+ * 配置多个服务端时，每个文件由{@link EndpointRouter}选择负载最低的服务端，空闲连接按服务端分别复用。
+ * 文件先经过{@link AudioPrefetcher}预读，会话空闲时直接拿到已准备好的文件。
+ * 长音频切分后的各片段和普通文件一样分发给不同会话并行识别，全部片段结束后才算该文件完成。
+ * 开启结果缓存时，内容和参数都相同的文件直接输出缓存的结果，不再发送给服务端。
+ * 识别失败或连接中断的文件间隔逐渐加长地重试，连不上服务端时同样按指数退避重新连接，
+ * 多次重试仍然失败的文件记入失败文件清单。
+ * 开启任务日志时记录每个文件的处理状态，重新运行时跳过已完成的文件。
+ * 既可以一次处理一批文件，也可以常驻运行，持续处理监听目录中新出现的文件。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class FunasrSessionPool {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(FunasrSessionPool.class);
+
+    // 建立连接的超时时间，单位秒
+    private static final int CONNECT_TIMEOUT_SECONDS = 10;
+    // 结束时等待发送线程退出的最长时间，单位毫秒
+    private static final long SEND_SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+    // 一个文件（或长音频的一个片段）失败后最多重试的次数
+    private static final int retryMaxAttempts = ConfigReaderUtil.getIntPropertyKey("retryMaxAttempts", 3);
+    // 第一次重试前的等待时间，之后每次翻倍，单位毫秒
+    private static final long retryBaseDelayMs = ConfigReaderUtil.getIntPropertyKey("retryBaseDelayMs", 1000);
+    // 重试等待时间的上限，单位毫秒
+    private static final long retryMaxDelayMs = ConfigReaderUtil.getIntPropertyKey("retryMaxDelayMs", 60000);
+    // 没有可用服务端时，一次分发最多重新连接的次数
+    private static final int reconnectMaxAttempts = ConfigReaderUtil.getIntPropertyKey("reconnectMaxAttempts", 8);
+
+    private final EndpointRouter router;
+    private final int sessionCount;
+    // 控制同时处理的文件数量，每个许可对应一个会话
+    private final Semaphore sessionPermits;
+    // 待预读的文件队列
+    private final LinkedBlockingQueue<String> pendingFiles = new LinkedBlockingQueue<>();
+    // 预读流水线
+    private final AudioPrefetcher prefetcher;
+    // 流式模式下所有会话共用的实时发送调度器
+    private final StreamPacer pacer;
+    // 各服务端空闲且仍处于连接状态的会话
+    private final Map<FunasrEndpoint, LinkedBlockingQueue<FunasrWsClient>> idleSessions = new ConcurrentHashMap<>();
+    // 处理中的会话及其文件字节数，用于文件结束后归还服务端负载
+    private final Map<FunasrWsClient, Long> busySessions = new ConcurrentHashMap<>();
+    // 识别结果缓存，未开启时为null
+    private final TranscriptCache cache;
+    // 未命中缓存的文件及其缓存键，识别完成后按该键保存结果
+    private final Map<String, String> cacheKeys = new ConcurrentHashMap<>();
+    // 任务日志，未开启时为null
+    private final JobJournal journal;
+    // 后台发送通知，不阻塞识别
+    private final Notifier notifier;
+    // 重试多次后仍然失败的文件清单
+    private final DeadLetterList deadLetters = new DeadLetterList(Paths.get(
+            ConfigReaderUtil.getPropertyKey("deadLetterFile", System.getProperty("user.dir") + "/run/deadLetter.txt")));
+    // 各文件（片段）已失败的次数
+    private final Map<String, Integer> failedAttempts = new ConcurrentHashMap<>();
+    // 放弃重试的文件及其尝试次数，用于写入失败文件清单
+    private final Map<String, Integer> exhaustedAttempts = new ConcurrentHashMap<>();
+    // 各文件第一次分发的时间，用于统计每个文件的总耗时
+    private final Map<String, Long> dispatchNanos = new ConcurrentHashMap<>();
+    // 等待时间到达后重新打开、等待分发的重试文件，优先于新文件分发
+    private final LinkedBlockingQueue<PreparedAudio> retryQueue = new LinkedBlockingQueue<>();
+    // 按退避时间安排重试的调度线程
+    private final ScheduledExecutorService retryScheduler = TaskScheduler.newScheduler("retry", 1);
+    // 发送音频的线程池，每个处理中的会话占用一个线程
+    private final ExecutorService sendExecutor;
+
+    private final AtomicInteger totalFiles = new AtomicInteger();
+    private final AtomicInteger finishedFiles = new AtomicInteger();
+    private final AtomicInteger failedFiles = new AtomicInteger();
+    // 之前已处理完成而跳过的文件数量
+    private final AtomicInteger skippedFiles = new AtomicInteger();
+    // 尚未结束（排队中或处理中）的文件数量
+    private final AtomicInteger unfinishedFiles = new AtomicInteger();
+    // 常驻模式是否已停止
+    private volatile boolean stopped;
+
+    /**
+     * 构造会话池
+     *
+     * @param router        服务端路由器
+     * @param sessionCount  并发会话数量（所有服务端合计）
+     * @param prefetchCount 提前预读的文件数量
+     * @param pacerThreads  流式发送调度线程数量
+     * @param cache         识别结果缓存，为null时不使用缓存
+     * @param journal       任务日志，为null时不记录处理状态
+     * @param notifier      通知发送器，在后台发送进度、失败和汇总通知
+     */
+    public FunasrSessionPool(EndpointRouter router, int sessionCount, int prefetchCount, int pacerThreads,
+                             TranscriptCache cache, JobJournal journal, Notifier notifier) {
+        if (sessionCount < 1) {
+            throw new IllegalArgumentException("sessionCount must be positive: " + sessionCount);
+        }
+        this.router = router;
+        this.sessionCount = sessionCount;
+        this.sessionPermits = new Semaphore(sessionCount);
+        this.cache = cache;
+        this.journal = journal;
+        this.notifier = notifier;
+        this.prefetcher = new AudioPrefetcher(pendingFiles, prefetchCount, FunasrWsClient.getSendChunkSize(),
+                this::onPrepareFailed, this::serveFromCache);
+        this.pacer = new StreamPacer(pacerThreads);
+        // 会话归还许可时发送任务可能还没有退出，队列留出同样多的位置
+        this.sendExecutor = TaskScheduler.newWorkerPool("send", sessionCount, sessionCount);
+        for (FunasrEndpoint endpoint : router.getEndpoints()) {
+            idleSessions.put(endpoint, new LinkedBlockingQueue<>());
+        }
+        ClientMetrics.REGISTRY.gauge("funasr_active_sessions", "Sessions currently transcribing a file.", busySessions::size);
+        ClientMetrics.REGISTRY.gauge("funasr_send_queued_bytes", "Bytes handed to WebSocket connections but not yet written to the socket.",
+                this::queuedBytes);
+        ClientMetrics.REGISTRY.gauge("funasr_send_high_watermark_bytes", "Per-connection outbound queue size at which sending pauses, 0 if unlimited.",
+                FunasrWsClient::getSendHighWatermark);
+        ClientMetrics.REGISTRY.gauge("funasr_send_low_watermark_bytes", "Per-connection outbound queue size below which paused sending resumes.",
+                FunasrWsClient::getSendLowWatermark);
+        ClientMetrics.REGISTRY.gauge("funasr_backlog_files", "Files and retries waiting to be prepared or dispatched.",
+                () -> pendingFiles.size() + retryQueue.size());
+        ClientMetrics.REGISTRY.gauge("funasr_unfinished_files", "Files queued or in progress.", unfinishedFiles::get);
+    }
+
+    /**
+     * 流式模式下所有会话共用的实时发送调度器
+     *
+     * @return 调度器
+     */
+    StreamPacer getPacer() {
+        return pacer;
+    }
+
+    /**
+     * 发送音频的线程池
+     *
+     * @return 线程池
+     */
+    ExecutorService getSendExecutor() {
+        return sendExecutor;
+    }
+
+    /**
+     * 处理给定的全部音频文件，直到所有文件都完成或失败后返回。
+     *
+     * @param wavPaths 音频文件路径数组
+     */
+    public void run(String[] wavPaths) throws InterruptedException {
+        for (String wavPath : wavPaths) {
+            submit(wavPath);
+        }
+        logger.info("会话池启动，服务端：{}，并发会话数：{}，待处理文件数：{}", router.getEndpoints(), sessionCount, totalFiles.get());
+        dispatchLoop(() -> unfinishedFiles.get() > 0);
+    }
+
+    /**
+     * 持续处理通过{@link #submit(String)}提交的文件，直到调用{@link #stop()}后返回。
+     * 连接在文件之间保持复用，适用于监听目录的常驻模式。
+     */
+    public void runUntilStopped() throws InterruptedException {
+        logger.info("会话池以常驻模式启动，服务端：{}，并发会话数：{}", router.getEndpoints(), sessionCount);
+        dispatchLoop(() -> !stopped);
+    }
+
+    /**
+     * 提交一个待处理的文件，可以在会话池运行期间从其他线程调用。
+     * 任务日志中记录为已完成且此后没有修改的文件直接跳过。
+     *
+     * @param wavPath 音频文件路径
+     */
+    public void submit(String wavPath) {
+        if (journal != null) {
+            if (journal.isDone(wavPath)) {
+                skippedFiles.incrementAndGet();
+                ClientMetrics.FILES_SKIPPED.inc();
+                logger.info("已在之前的运行中完成，跳过：{}", wavPath);
+                return;
+            }
+            journal.record(wavPath, JobState.QUEUED);
+        }
+        totalFiles.incrementAndGet();
+        unfinishedFiles.incrementAndGet();
+        pendingFiles.add(wavPath);
+    }
+
+    /**
+     * 停止常驻模式：不再分发新的文件，处理中的文件结束后{@link #runUntilStopped()}返回
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * 分发循环：每拿到一个空闲许可就分配一个预读好的文件，条件不再满足时等待处理中的文件结束并释放资源
+     *
+     * @param keepRunning 是否继续分发
+     */
+    private void dispatchLoop(BooleanSupplier keepRunning) throws InterruptedException {
+        ClientMetrics.markStart();
+        prefetcher.start();
+        try {
+            while (keepRunning.getAsBoolean()) {
+                sessionPermits.acquire();
+                PreparedAudio audio = retryQueue.poll();
+                if (audio == null) {
+                    audio = prefetcher.poll(500, TimeUnit.MILLISECONDS);
+                }
+                if (audio == null) {
+                    sessionPermits.release();
+                    continue;
+                }
+                dispatch(audio);
+            }
+        } finally {
+            prefetcher.stop();
+            // 常驻模式停止时尚未重试的文件不再处理，任务日志中保持未完成，下次运行时重新识别
+            retryScheduler.shutdownNow();
+            PreparedAudio pending;
+            while ((pending = retryQueue.poll()) != null) {
+                closeQuietly(pending);
+            }
+        }
+
+        // 等待所有会话归还许可后关闭空闲连接
+        sessionPermits.acquire(sessionCount);
+        sessionPermits.release(sessionCount);
+        TaskScheduler.shutdown(sendExecutor, SEND_SHUTDOWN_TIMEOUT_MILLIS);
+        closeIdleSessions();
+        pacer.shutdown();
+        // 等待后台线程写完JSON文件
+        JsonToFileUtil.awaitAsyncWrites();
+        if (cache != null) {
+            cache.close();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+
+        String result = "所有音频处理完毕，共 " + totalFiles.get() + " 个文件，失败 " + failedFiles.get() + " 个";
+        if (skippedFiles.get() > 0) {
+            result += "，跳过已完成的 " + skippedFiles.get() + " 个";
+        }
+        if (failedFiles.get() > 0) {
+            result += "，失败文件清单：" + deadLetters.getFile();
+        }
+        logger.info("识别音频共{}秒，平均速度为实时的{}倍", Math.round(ClientMetrics.AUDIO_SECONDS.get()),
+                String.format("%.1f", ClientMetrics.realtimeFactor()));
+        logger.info(result);
+        System.out.println(result);
+        notifier.summary(result);
+    }
+
+    /**
+     * 将文件交给负载最低的服务端上的一个会话处理。
+     * 连接失败的服务端会被标记为不可用并改选其他服务端；全部不可用时按指数退避等待，
+     * 立即探测一次服务端后重新连接，超过重新连接次数后该文件按失败处理。
+     *
+     * @param audio 预读完成的音频文件
+     */
+    private void dispatch(PreparedAudio audio) throws InterruptedException {
+        for (int reconnect = 0; ; reconnect++) {
+            if (tryDispatch(audio)) {
+                return;
+            }
+            if (reconnect >= reconnectMaxAttempts || stopped) {
+                break;
+            }
+            long delay = backoffDelay(reconnect);
+            logger.warn("没有可用的服务端，{}ms后第{}次重新连接：{}", delay, reconnect + 1, router.getEndpoints());
+            ClientMetrics.RECONNECTS.inc();
+            Thread.sleep(delay);
+            router.checkHealth();
+        }
+        logger.error("没有可用的服务端，文件处理失败：{}", audio.getWavPath());
+        closeQuietly(audio);
+        finishAudio(audio, false);
+        sessionPermits.release();
+    }
+
+    /**
+     * 依次尝试健康的服务端，连接成功后开始处理该文件
+     *
+     * @param audio 预读完成的音频文件
+     * @return 已交给会话处理时返回true，所有服务端都无法连接时返回false
+     */
+    private boolean tryDispatch(PreparedAudio audio) throws InterruptedException {
+        long bytes = audio.getFileSize();
+        for (int attempt = 0; attempt < router.getEndpoints().size(); attempt++) {
+            FunasrEndpoint endpoint = router.acquire(bytes);
+            if (endpoint == null) {
+                break;
+            }
+            FunasrWsClient session = borrowSession(endpoint);
+            if (session != null) {
+                busySessions.put(session, bytes);
+                dispatchNanos.putIfAbsent(audio.getWavPath(), System.nanoTime());
+                recordState(audio.getWavPath(), JobState.SENT);
+                session.transcribe(audio);
+                return true;
+            }
+            router.release(endpoint, bytes);
+            router.markUnhealthy(endpoint, "无法建立WebSocket连接");
+        }
+        return false;
+    }
+
+    /**
+     * 第n次重试（从0开始）前的等待时间，从基础时间开始每次翻倍，不超过上限
+     *
+     * @param retry 已重试的次数
+     * @return 等待时间，单位毫秒
+     */
+    private static long backoffDelay(int retry) {
+        return Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(retry, 20));
+    }
+
+    /**
+     * 文件预读失败的回调，该文件按失败处理
+     *
+     * @param wavPath 音频文件路径
+     * @param e       失败原因
+     */
+    private void onPrepareFailed(String wavPath, IOException e) {
+        completeFile(wavPath, false);
+    }
+
+    /**
+     * 在预读之前查找缓存，命中时直接输出缓存的结果并记为完成
+     *
+     * @param wavPath 音频文件路径
+     * @return 命中缓存时返回true
+     */
+    private boolean serveFromCache(String wavPath) {
+        if (cache == null) {
+            return false;
+        }
+        String key;
+        try {
+            key = TranscriptCache.computeKey(Paths.get(wavPath), PreparedAudio.cacheParams(wavPath));
+        } catch (IOException e) {
+            logger.warn("计算缓存键失败，按未命中处理：{}", wavPath, e);
+            return false;
+        }
+        String cached = cache.get(key);
+        if (cached == null) {
+            cacheKeys.put(wavPath, key);
+            return false;
+        }
+        // 内容相同的文件可能名称不同，输出使用当前文件的名称
+        JSONObject result = JSON.parseObject(cached);
+        result.put("wav_name", FunasrWsClient.wavNameOf(wavPath));
+        try {
+            FunasrWsClient.jsonToFile(result, paths -> recordOutputs(wavPath, paths));
+        } catch (IOException e) {
+            // 输出失败时不记为完成，交给服务端重新识别，识别完成后再次尝试输出
+            logger.warn("输出缓存的结果失败，重新识别：{}", wavPath, e);
+            cacheKeys.put(wavPath, key);
+            return false;
+        }
+        logger.info("命中缓存：{}", wavPath);
+        ClientMetrics.CACHE_HITS.inc();
+        completeFile(wavPath, true);
+        return true;
+    }
+
+    /**
+     * 保存一个文件的识别结果到缓存
+     *
+     * @param wavPath 音频文件路径
+     * @param result  识别结果的JSON文本
+     */
+    void storeResult(String wavPath, String result) {
+        String key = cacheKeys.remove(wavPath);
+        if (key != null) {
+            cache.put(key, result);
+        }
+    }
+
+    /**
+     * 在任务日志中记录文件的处理状态
+     *
+     * @param wavPath 音频文件路径
+     * @param state   新状态
+     */
+    void recordState(String wavPath, JobState state) {
+        if (journal != null) {
+            journal.record(wavPath, state);
+        }
+    }
+
+    /**
+     * 在任务日志中记录文件的输出文件，在写入内容之前调用
+     *
+     * @param wavPath 音频文件路径
+     * @param outputs 输出文件路径
+     */
+    void recordOutputs(String wavPath, List<String> outputs) {
+        if (journal != null) {
+            journal.recordOutputs(wavPath, outputs);
+        }
+    }
+
+    /**
+     * 获取指定服务端的一个空闲会话，没有可复用的连接时新建一个。
+     * 新建连接前关闭一个其他服务端的空闲连接，使打开的连接总数不超过会话数量。
+     *
+     * @param endpoint 服务端
+     * @return 已连接的会话，连接失败时返回null
+     */
+    private FunasrWsClient borrowSession(FunasrEndpoint endpoint) throws InterruptedException {
+        FunasrWsClient session;
+        while ((session = idleSessions.get(endpoint).poll()) != null) {
+            if (session.isOpen()) {
+                return session;
+            }
+        }
+        closeOneIdleSession();
+        session = new FunasrWsClient(endpoint, this);
+        if (session.connectBlocking(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            logger.info("新建WebSocket会话：{}", endpoint);
+            return session;
+        }
+        session.close();
+        return null;
+    }
+
+    /**
+     * 关闭任意一个空闲会话
+     */
+    private void closeOneIdleSession() {
+        for (LinkedBlockingQueue<FunasrWsClient> queue : idleSessions.values()) {
+            FunasrWsClient session = queue.poll();
+            if (session != null) {
+                session.close();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 会话完成一个文件后的回调，归还会话并汇报进度。
+     *
+     * @param session 处理该文件的会话
+     * @param audio   处理的音频
+     * @param success 是否处理成功
+     */
+    void onFileFinished(FunasrWsClient session, PreparedAudio audio, boolean success) {
+        Long bytes = busySessions.remove(session);
+        if (bytes != null) {
+            router.release(session.getEndpoint(), bytes);
+        }
+        finishAudio(audio, success);
+        if (success && session.isReusable()) {
+            idleSessions.get(session.getEndpoint()).offer(session);
+        } else {
+            session.close();
+        }
+        sessionPermits.release();
+    }
+
+    /**
+     * 一个音频处理结束。失败且未超过重试次数时，等待退避时间后在新的会话上重新发送。
+     *
+     * @param audio   处理的音频
+     * @param success 是否处理成功
+     */
+    private void finishAudio(PreparedAudio audio, boolean success) {
+        String key = attemptKey(audio);
+        if (success) {
+            failedAttempts.remove(key);
+            settleAudio(audio, true);
+            return;
+        }
+        int failures = failedAttempts.merge(key, 1, Integer::sum);
+        if (failures <= retryMaxAttempts) {
+            scheduleRetry(audio, failures);
+            return;
+        }
+        failedAttempts.remove(key);
+        exhaustedAttempts.put(audio.getWavPath(), failures);
+        logger.error("尝试{}次后仍然失败，不再重试：{}", failures, key);
+        settleAudio(audio, false);
+    }
+
+    /**
+     * 等待退避时间后重新打开该音频，放入重试队列等待分发
+     *
+     * @param audio    失败的音频
+     * @param failures 已失败的次数
+     */
+    private void scheduleRetry(PreparedAudio audio, int failures) {
+        long delay = backoffDelay(failures - 1);
+        logger.warn("{}ms后第{}次重试：{}", delay, failures, attemptKey(audio));
+        ClientMetrics.RETRIES.inc();
+        try {
+            retryScheduler.schedule(() -> {
+                try {
+                    retryQueue.add(audio.reopen());
+                } catch (IOException e) {
+                    logger.error("重新打开音频失败，不再重试：{}", audio.getWavPath(), e);
+                    failedAttempts.remove(attemptKey(audio));
+                    exhaustedAttempts.put(audio.getWavPath(), failures);
+                    settleAudio(audio, false);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 会话池已停止，该文件在任务日志中保持未完成
+            logger.warn("会话池已停止，放弃重试：{}", audio.getWavPath());
+        }
+    }
+
+    /**
+     * 重试计数的键，长音频的每个片段分别计数
+     */
+    private static String attemptKey(PreparedAudio audio) {
+        SegmentedTranscript transcript = audio.getTranscript();
+        if (transcript == null) {
+            return audio.getWavPath();
+        }
+        return audio.getWavPath() + " 片段" + (audio.getSegmentIndex() + 1) + "/" + transcript.getSegmentCount();
+    }
+
+    /**
+     * 一个音频最终完成或失败。长音频的片段在全部片段结束后输出拼接结果并记录该文件的完成状态。
+     *
+     * @param audio   处理的音频
+     * @param success 是否处理成功
+     */
+    private void settleAudio(PreparedAudio audio, boolean success) {
+        SegmentedTranscript transcript = audio.getTranscript();
+        if (transcript == null) {
+            completeFile(audio.getWavPath(), success);
+            return;
+        }
+        if (!success) {
+            logger.error("片段{}/{}识别失败：{}", audio.getSegmentIndex() + 1, transcript.getSegmentCount(), audio.getWavPath());
+        }
+        if (!transcript.finishSegment(audio.getSegmentIndex(), success)) {
+            return;
+        }
+        transcript.deleteTempFile();
+        boolean allSucceeded = transcript.isSuccess();
+        if (allSucceeded) {
+            JSONObject merged = transcript.toResult();
+            try {
+                FunasrWsClient.jsonToFile(merged, paths -> recordOutputs(audio.getWavPath(), paths));
+                storeResult(audio.getWavPath(), merged.toJSONString());
+            } catch (IOException e) {
+                // 片段的临时文件已删除，无法只重试输出，该文件记为失败
+                logger.error("输出拼接结果失败：{}", audio.getWavPath(), e);
+                allSucceeded = false;
+            }
+        }
+        completeFile(audio.getWavPath(), allSucceeded);
+    }
+
+    /**
+     * 记录文件的完成状态并输出进度
+     *
+     * @param wavPath 音频文件路径
+     * @param success 是否处理成功
+     */
+    private void completeFile(String wavPath, boolean success) {
+        cacheKeys.remove(wavPath);
+        Long started = dispatchNanos.remove(wavPath);
+        if (started != null) {
+            ClientMetrics.FILE_SECONDS.observeSince(started);
+        }
+
+        if (success) {
+            ClientMetrics.FILES_SUCCEEDED.inc();
+            notifier.progress(wavPath);
+            // JSON文件由后台线程异步写入，写完后才记为完成
+            JsonToFileUtil.runAfterAsyncWrites(() -> recordState(wavPath, JobState.DONE));
+        } else {
+            ClientMetrics.FILES_FAILED.inc();
+            recordState(wavPath, JobState.FAILED);
+            Integer attempts = exhaustedAttempts.remove(wavPath);
+            deadLetters.add(wavPath, attempts == null ? 1 : attempts);
+            notifier.failure(wavPath, attempts == null ? 1 : attempts);
+        }
+        int finished = finishedFiles.incrementAndGet();
+        if (!success) {
+            failedFiles.incrementAndGet();
+        }
+        String progress = "[" + finished + "/" + totalFiles.get() + "] " + (success ? "识别完成: " : "识别失败: ") + wavPath;
+        logger.info(progress);
+        System.out.println(progress);
+        unfinishedFiles.decrementAndGet();
+    }
+
+    /**
+     * 所有处理中的会话上等待写出的字节数
+     *
+     * @return 字节数
+     */
+    private double queuedBytes() {
+        long total = 0;
+        for (FunasrWsClient session : busySessions.keySet()) {
+            total += session.queuedBytes();
+        }
+        return total;
+    }
+
+    /**
+     * 关闭文件并忽略异常
+     *
+     * @param audio 音频文件
+     */
+    private static void closeQuietly(PreparedAudio audio) {
+        try {
+            audio.close();
+        } catch (IOException e) {
+            logger.warn("关闭音频文件失败：{}", audio.getWavPath(), e);
+        }
+    }
+
+    /**
+     * 关闭所有空闲会话
+     */
+    private void closeIdleSessions() {
+        for (LinkedBlockingQueue<FunasrWsClient> queue : idleSessions.values()) {
+            FunasrWsClient session;
+            while ((session = queue.poll()) != null) {
+                session.close();
+            }
+        }
+    }
+}
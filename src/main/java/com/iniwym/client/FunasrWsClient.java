@@ -1,28 +1,37 @@
 package com.iniwym.client;
 
 import java.io.*;
-import java.net.URI;
+import java.nio.ByteBuffer;
 
+import com.iniwym.audio.AudioSource;
+import com.iniwym.config.SessionConfig;
+import com.iniwym.journal.JobState;
+import com.iniwym.metrics.ClientMetrics;
+import com.iniwym.output.TranscriptOutput;
 import com.iniwym.utils.ConfigReaderUtil;
 import com.iniwym.utils.JsonToFileUtil;
-import com.iniwym.utils.JsonToTxtUtil;
+import org.java_websocket.WebSocketImpl;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
-import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
 import com.alibaba.fastjson.JSON;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import static com.iniwym.utils.LarkUtils.larkBotMessage;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 /**
  * @Description: FunasrWsClient类继承自WebSocketClient，用于实现与服务器的WebSocket连接，
  * 并进行语音识别的客户端功能。该类包括连接到服务器、发送语音数据、
  * 接收识别结果等功能。
+ * 每个实例对应一个连接，由{@link FunasrSessionPool}分配文件，同一时间只处理一个文件。
  * 语音识别
  * @Author: iniwym
  * @Date: 2025-01-10
@@ -31,15 +40,45 @@ public class FunasrWsClient extends WebSocketClient {
     // 日志记录器
     private static final Logger logger = LoggerFactory.getLogger(FunasrWsClient.class);
 
-    private boolean iseof = false;
-    private String[] wavPaths; // 修改为字符串数组
-    private int currentFileIndex = 0; // 当前处理的文件索引
-    private final String mode = ConfigReaderUtil.getPropertyKey("mode");
-    private final String strChunkSize = ConfigReaderUtil.getPropertyKey("strChunkSize");
-    private final String hotwords = ConfigReaderUtil.getPropertyKey("hotwords");
-    private final String fsthotwords = ConfigReaderUtil.getPropertyKey("fsthotwords");
-    private final int chunkInterval = Integer.parseInt(ConfigReaderUtil.getPropertyKey("chunkInterval"));
-    private final int sendChunkSize = Integer.parseInt(ConfigReaderUtil.getPropertyKey("sendChunkSize"));
+    private volatile boolean iseof = false;
+    // 所属的会话池
+    private final FunasrSessionPool pool;
+    // 连接的服务端
+    private final FunasrEndpoint endpoint;
+    // 当前正在处理的文件，空闲时为null
+    private final AtomicReference<PreparedAudio> currentAudio = new AtomicReference<>();
+    // 流式模式下当前文件已收到的识别结果
+    private volatile StreamingTranscript streamingTranscript;
+    // 流式模式下等待最终结果的超时任务
+    private volatile ScheduledFuture<?> finalResultTimer;
+    // 当前文件的发送任务，连接断开时取消
+    private volatile Future<?> sendTask;
+    // 当前文件开始发送和发送结束符的时间，以及已发送的音频字节数，用于指标统计
+    private volatile long sendStartNanos;
+    private volatile long eofNanos;
+    private volatile long sentBytes;
+    // 发送队列字节数的上限：上次遍历发送队列时的字节数加上之后交给WebSocket库的数据块及帧头，
+    // 不超过高水位时不需要遍历发送队列
+    private volatile long queuedUpperBound;
+    private static final int sendChunkSize = Integer.parseInt(ConfigReaderUtil.getPropertyKey("sendChunkSize"));
+    // 离线模式下每次发送合并的数据块个数，减少发送次数
+    private static final int offlineCoalesceFrames = ConfigReaderUtil.getIntPropertyKey("offlineCoalesceFrames", 1);
+    // 是否在客户端解码并重采样为16kHz单声道PCM后再发送
+    private static final boolean clientDecode = Boolean.parseBoolean(ConfigReaderUtil.getPropertyKey("clientDecode", "false"));
+    // 流式模式的回放倍速，小于等于0表示不限速
+    private static final double replaySpeed = parseReplaySpeed(ConfigReaderUtil.getPropertyKey("replaySpeed", "1"));
+    // 流式模式发送结束符后等待最终结果的时间，单位秒
+    private static final int finalResultTimeout = ConfigReaderUtil.getIntPropertyKey("finalResultTimeout", 60);
+    // 是否保存服务端返回的原始JSON结果
+    private static final boolean saveJson = Boolean.parseBoolean(ConfigReaderUtil.getPropertyKey("saveJson", "true"));
+    // 连接上等待写出的字节数超过高水位时暂停读取和发送，降到低水位以下后继续，0表示不限制
+    private static final long sendHighWatermark = ConfigReaderUtil.getIntPropertyKey("sendHighWatermarkKb", 4096) * 1024L;
+    private static final long sendLowWatermark = Math.min(sendHighWatermark,
+            ConfigReaderUtil.getIntPropertyKey("sendLowWatermarkKb", 1024) * 1024L);
+    // 暂停发送时检查写出进度的最长间隔，单位纳秒
+    private static final long MAX_STALL_PARK_NANOS = 10_000_000L;
+    // 客户端发送的WebSocket帧头的最大字节数（2字节头、8字节长度、4字节掩码）
+    private static final int MAX_FRAME_HEADER_BYTES = 14;
 
 
     /**
@@ -53,17 +92,19 @@ public class FunasrWsClient extends WebSocketClient {
         // 采样率，固定值为16000Hz
         int RATE = 16000;
 
-        // 分割分块大小配置字符串，以逗号分隔
-        String[] chunkList = strChunkSize.split(",");
+        // 分块大小和分块间隔配置
+        SessionConfig config = SessionConfig.current();
+        int chunkSize = config.getChunkSize()[1];
+        int chunkInterval = config.getChunkInterval();
 
         // 计算分块大小，单位为毫秒
-        int int_chunk_size = 60 * Integer.parseInt(chunkList[1].trim()) / chunkInterval;
+        int int_chunk_size = 60 * chunkSize / chunkInterval;
 
         // 计算CHUNK值，用于后续的语音数据分块传输
         int CHUNK = RATE / 1000 * int_chunk_size;
 
         // 计算步长值，用于确定每次传输的字节数
-        int stride = 60 * Integer.parseInt(chunkList[1].trim()) / chunkInterval / 1000 * 16000 * 2;
+        int stride = 60 * chunkSize / chunkInterval / 1000 * 16000 * 2;
 
         // 打印分块大小、CHUNK和步长的计算结果
         logger.info("chunk_size:" + int_chunk_size);
@@ -79,94 +120,149 @@ public class FunasrWsClient extends WebSocketClient {
         return sendChunkSize;
     }
 
-    public void setWavPath(String[] wavPaths) { // 修改为接受字符串数组
-        this.wavPaths = wavPaths;
-    }
-
     /**
      * FunasrWsClient构造函数，初始化WebSocket连接的服务器URI。
      *
-     * @param serverURI 服务器URI
+     * @param endpoint 服务端地址
+     * @param pool     所属的会话池
      */
-    public FunasrWsClient(URI serverURI) {
-        super(serverURI);
+    public FunasrWsClient(FunasrEndpoint endpoint, FunasrSessionPool pool) {
+        super(endpoint.getUri());
+        this.endpoint = endpoint;
+        this.pool = pool;
+    }
+
+    public FunasrEndpoint getEndpoint() {
+        return endpoint;
     }
 
     /**
-     * 发送JSON格式的请求参数到服务器。
+     * 解析回放倍速配置，"max"表示不限速
      *
-     * @param isSpeaking 是否正在说话
+     * @param value 配置值
+     * @return 倍速，不限速时返回0
      */
-    public void sendJson(boolean isSpeaking) {
-
-        try {
-            String wavPath = wavPaths[currentFileIndex];
-
-            // 提取文件后缀名
-            String suffix = wavPath.split("\\.")[wavPath.split("\\.").length - 1];
-            // 提取文件名
-            String wavName = wavPath.substring(wavPath.lastIndexOf(File.separator) + 1).split("\\.")[0];
-
-            // 创建JSON对象并填充参数
-            JSONObject obj = new JSONObject();
-            obj.put("mode", mode);
-            JSONArray array = new JSONArray();
-            // 分割并转换分块大小配置字符串为整数数组
-            String[] chunkList = strChunkSize.split(",");
-            for (int i = 0; i < chunkList.length; i++) {
-                array.add(Integer.valueOf(chunkList[i].trim()));
-            }
-
-            obj.put("chunk_size", array);
-            obj.put("chunk_interval", new Integer(chunkInterval));
-            obj.put("wav_name", wavName);
-
-            // 处理热词配置，如果存在则添加到JSON对象中
-            if (hotwords.trim().length() > 0) {
-                String regex = "\\d+";
-                JSONObject jsonitems = new JSONObject();
-                String[] items = hotwords.trim().split(" ");
-                Pattern pattern = Pattern.compile(regex);
-                String tmpWords = "";
-                for (int i = 0; i < items.length; i++) {
-
-                    Matcher matcher = pattern.matcher(items[i]);
-
-                    if (matcher.matches()) {
+    private static double parseReplaySpeed(String value) {
+        if ("max".equalsIgnoreCase(value.trim())) {
+            return 0;
+        }
+        return Double.parseDouble(value.trim());
+    }
 
-                        jsonitems.put(tmpWords.trim(), items[i].trim());
-                        tmpWords = "";
-                        continue;
-                    }
-                    tmpWords = tmpWords + items[i] + " ";
+    /**
+     * 是否在客户端解码音频
+     *
+     * @return 客户端解码时返回true
+     */
+    public static boolean isClientDecode() {
+        return clientDecode;
+    }
 
-                }
+    /**
+     * 处理完一个文件后能否交还会话池处理下一个文件。
+     * 流式模式下服务端的会话状态不再复用，每个文件结束后都关闭连接。
+     *
+     * @return 离线模式且连接仍打开时返回true
+     */
+    boolean isReusable() {
+        return !isStreamingMode() && isOpen();
+    }
 
-                obj.put("hotwords", jsonitems.toString());
-            }
+    /**
+     * 是否为流式模式（online/2pass）
+     *
+     * @return 流式模式时返回true
+     */
+    static boolean isStreamingMode() {
+        return SessionConfig.current().isStreamingMode();
+    }
 
-            // 根据音频文件后缀名设置格式
-            if (suffix.equals("wav")) {
-                suffix = "pcm";
-            }
-            obj.put("wav_format", suffix);
+    /**
+     * 从文件路径中提取音频名称
+     *
+     * @param wavPath 音频文件路径
+     * @return 不含目录和后缀的文件名
+     */
+    static String wavNameOf(String wavPath) {
+        return wavPath.substring(wavPath.lastIndexOf(File.separator) + 1).split("\\.")[0];
+    }
 
-            // 添加是否正在说话的状态
-            if (isSpeaking) {
-                obj.put("is_speaking", new Boolean(true));
-            } else {
-                obj.put("is_speaking", new Boolean(false));
-            }
+    /**
+     * 每次发送的音频数据块大小。离线模式不需要模拟实时发送，把多个数据块合并为一帧发送。
+     *
+     * @return 数据块字节数
+     */
+    public static int getSendChunkSize() {
+        if (!isStreamingMode()) {
+            return sendChunkSize * Math.max(1, offlineCoalesceFrames);
+        }
+        return sendChunkSize;
+    }
 
-            // 记录发送的JSON对象日志
-            logger.info("sendJson: " + obj);
-            // 发送JSON字符串到服务器
-            send(obj.toString());
+    /**
+     * 在当前连接上开始处理一个已预读的音频文件，音频数据由会话池的发送线程池发送。
+     *
+     * @param audio 已预读的音频文件
+     */
+    public void transcribe(PreparedAudio audio) {
+        if (!currentAudio.compareAndSet(null, audio)) {
+            throw new IllegalStateException("Session is busy: " + getURI());
+        }
+        iseof = false;
+        streamingTranscript = isStreamingMode() ? new StreamingTranscript() : null;
+        try {
+            sendTask = pool.getSendExecutor().submit(() -> recWav(audio));
+        } catch (RejectedExecutionException e) {
+            closeQuietly(audio.getSource());
+            onSendFailed(audio.getWavPath(), e);
+        }
+    }
 
+    /**
+     * 发送JSON格式的请求参数到服务器。
+     *
+     * @param wavPath    音频文件路径
+     * @param isSpeaking 是否正在说话
+     */
+    public void sendJson(String wavPath, boolean isSpeaking) {
+        String json = buildStartJson(wavPath, isSpeaking);
+        if (json == null) {
             return;
-        } catch (Exception e) {
-            e.printStackTrace();
         }
+        // 记录发送的JSON对象日志
+        logger.info("sendJson: " + json);
+        // 发送JSON字符串到服务器
+        send(json);
+    }
+
+    /**
+     * 构造JSON格式的请求参数，不依赖连接，可以在发送前提前构造。
+     *
+     * @param wavPath    音频文件路径
+     * @param isSpeaking 是否正在说话
+     * @return JSON字符串
+     */
+    public static String buildStartJson(String wavPath, boolean isSpeaking) {
+        // 提取文件后缀名
+        String suffix = wavPath.split("\\.")[wavPath.split("\\.").length - 1];
+        // 根据音频文件后缀名设置格式，客户端解码后发送的都是pcm数据
+        if (suffix.equals("wav") || clientDecode) {
+            suffix = "pcm";
+        }
+        return buildStartJson(wavPath, suffix, isSpeaking);
+    }
+
+    /**
+     * 按指定的音频格式构造JSON格式的请求参数
+     *
+     * @param wavPath    音频文件路径
+     * @param wavFormat  发送的音频数据格式，例如pcm、mp3
+     * @param isSpeaking 是否正在说话
+     * @return JSON字符串
+     */
+    static String buildStartJson(String wavPath, String wavFormat, boolean isSpeaking) {
+        // 与文件无关的参数已在会话参数快照中预先生成
+        return SessionConfig.current().startMessage(wavPath, wavNameOf(wavPath), wavFormat, isSpeaking);
     }
 
     /**
@@ -189,6 +285,8 @@ public class FunasrWsClient extends WebSocketClient {
             send(obj.toString());
             // 设置iseof标志为true，表示EOF信号已经发送。
             iseof = true;
+            eofNanos = System.nanoTime();
+            ClientMetrics.SEND_SECONDS.observeSince(sendStartNanos);
             return;
         } catch (Exception e) {
             // 记录发送EOF信号时发生的错误。
@@ -198,95 +296,280 @@ public class FunasrWsClient extends WebSocketClient {
 
     /**
      * 读取并发送音频数据进行识别。
+     * 文件已由预读阶段打开并映射，每个数据块直接以映射区域的切片发送，不再复制到临时数组。
+     * 离线模式在当前线程中连续发送；流式模式交给{@link StreamPacer}按回放倍速发送，当前线程立即返回，
+     * 流式模式配置为不限速时与离线模式一样连续发送。
+     *
+     * @param audio 已预读的音频文件
      */
-    public void recWav() {
-
-        if (currentFileIndex >= wavPaths.length) {
-            logger.info("All files processed.");
-            return;
-        }
+    public void recWav(PreparedAudio audio) {
 
-        String wavPath = wavPaths[currentFileIndex];
+        String wavPath = audio.getWavPath();
         // 当前处理的文件是
         logger.info("当前处理的文件是: " + wavPath);
         System.out.println("当前处理的文件是: " + wavPath);
-        // 发送JSON格式的请求参数
-        sendJson(true);
+        sendStartNanos = System.nanoTime();
+        sentBytes = 0;
+        queuedUpperBound = queuedBytes();
+
+        try {
+            // 发送预先构造好的JSON格式请求参数
+            logger.info("sendJson: " + audio.getStartMessage());
+            send(audio.getStartMessage());
+        } catch (Exception e) {
+            closeQuietly(audio.getSource());
+            onSendFailed(wavPath, e);
+            return;
+        }
 
-        // 创建File对象以读取音频文件
-        File file = new File(wavPath);
+        if (!isStreamingMode() || replaySpeed <= 0) {
+            sendContinuous(audio);
+        } else {
+            sendPaced(audio);
+        }
+    }
 
+    /**
+     * 不限速发送：连续发送全部数据块后发送结束符
+     *
+     * @param audio 已预读的音频文件
+     */
+    private void sendContinuous(PreparedAudio audio) {
         // 定义每个数据块的大小
-        int chunkSize = sendChunkSize;
-        // 创建一个字节数组用于存储读取的数据块
-        byte[] bytes = new byte[chunkSize];
-
-        // 初始化已读取的字节数
-        int readSize = 0;
-        try (FileInputStream fis = new FileInputStream(file)) {
-            // 如果是wav文件，则跳过前44字节的wav头
-            if (wavPath.endsWith(".wav")) {
-                fis.read(bytes, 0, 44); //skip first 44 wav header
+        int chunkSize = audio.getChunkSize();
+
+        try (AudioSource source = audio.getSource()) {
+            // 循环读取数据块直到文件结束，最后一个数据块可能小于chunkSize
+            ByteBuffer chunk;
+            while ((chunk = source.nextChunk(chunkSize)) != null) {
+                sendChunk(chunk); // send buf to server
+                awaitDrained();
             }
-            // 读取第一个数据块
-            readSize = fis.read(bytes, 0, chunkSize);
-            // 循环读取数据块直到文件结束
-            while (readSize > 0) {
-                // 当读取的数据块大小等于预设的数据块大小时发送数据
-                if (readSize == chunkSize) {
-                    send(bytes); // send buf to server
-
-                } else {
-                    // 当读取的数据块大小不等于预设的数据块大小时（通常是文件的最后一个数据块），创建一个新的字节数组并发送数据
-                    byte[] tmpBytes = new byte[readSize];
-                    for (int i = 0; i < readSize; i++) {
-                        tmpBytes[i] = bytes[i];
-                    }
-                    send(tmpBytes);
+            // 发送结束符，流式模式还需要等待服务端的最终结果
+            sendEof();
+            if (isStreamingMode()) {
+                awaitFinalResult();
+            }
+        } catch (Exception e) {
+            onSendFailed(audio.getWavPath(), e);
+        }
+    }
+
+    /**
+     * 连接上等待写出的字节数超过高水位时暂停，直到写出线程把数据降到低水位以下。
+     * 发送不会阻塞调用方，网络跟不上时帧会堆积在连接的发送队列中，大文件可能整个被缓存在内存里。
+     * 只有发送队列字节数的上限超过高水位时才遍历发送队列，网络跟得上时每发送约一个高水位的数据才遍历一次。
+     *
+     * @throws IOException          等待期间连接已关闭时抛出
+     * @throws InterruptedException 等待时被中断
+     */
+    private void awaitDrained() throws IOException, InterruptedException {
+        if (sendHighWatermark <= 0 || queuedUpperBound <= sendHighWatermark) {
+            return;
+        }
+        queuedUpperBound = queuedBytes();
+        if (queuedUpperBound <= sendHighWatermark) {
+            return;
+        }
+        long stallStart = System.nanoTime();
+        ClientMetrics.SEND_STALLS.inc();
+        long parkNanos = 100_000L;
+        try {
+            while ((queuedUpperBound = queuedBytes()) > sendLowWatermark) {
+                if (isClosed() || isClosing()) {
+                    throw new IOException("连接已关闭，停止发送");
                 }
-                // 如果不是离线模式，通过睡眠模拟在线流式传输的延迟
-                if (!mode.equals("offline")) {
-                    Thread.sleep(Integer.valueOf(chunkSize / 32));
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
                 }
+                // 写出线程没有通知机制，逐步拉长检查间隔
+                LockSupport.parkNanos(parkNanos);
+                parkNanos = Math.min(parkNanos * 2, MAX_STALL_PARK_NANOS);
+            }
+        } finally {
+            ClientMetrics.SEND_STALL_SECONDS.add((System.nanoTime() - stallStart) / 1e9);
+        }
+    }
+
+    /**
+     * 连接上已交给WebSocket库、尚未写入socket的字节数
+     *
+     * @return 字节数
+     */
+    long queuedBytes() {
+        long total = 0;
+        for (ByteBuffer buffer : ((WebSocketImpl) getConnection()).outQueue) {
+            total += buffer.remaining();
+        }
+        return total;
+    }
+
+    /**
+     * 连接上等待写出的字节数的高水位
+     *
+     * @return 字节数，0表示不限制
+     */
+    public static long getSendHighWatermark() {
+        return sendHighWatermark;
+    }
+
+    /**
+     * 连接上等待写出的字节数的低水位
+     *
+     * @return 字节数
+     */
+    public static long getSendLowWatermark() {
+        return sendLowWatermark;
+    }
 
-                // 读取下一个数据块
-                readSize = fis.read(bytes, 0, chunkSize);
+    /**
+     * 发送一个音频数据块并统计发送的字节数
+     *
+     * @param chunk 音频数据块
+     */
+    private void sendChunk(ByteBuffer chunk) {
+        int length = chunk.remaining();
+        send(chunk);
+        // 同一文件的数据块只由一个线程发送
+        sentBytes += length;
+        queuedUpperBound += length + MAX_FRAME_HEADER_BYTES;
+        ClientMetrics.BYTES_SENT.add(length);
+    }
+
+    /**
+     * 流式模式：按音频时长除以回放倍速的间隔发送数据块，发送完成后发送结束符并等待最终结果
+     *
+     * @param audio 已预读的音频文件
+     */
+    private void sendPaced(PreparedAudio audio) {
+        // 定义每个数据块的大小
+        int chunkSize = audio.getChunkSize();
+        // 16kHz、16bit单声道音频每毫秒32字节，数据块时长除以倍速即为发送间隔
+        long chunkIntervalNs = (long) (chunkSize * 1_000_000L / 32 / replaySpeed);
+        StreamPacer pacer = pool.getPacer();
+
+        pacer.start(audio.getSource(), chunkSize, chunkIntervalNs, new StreamPacer.Listener() {
+            @Override
+            public void onChunk(ByteBuffer chunk) {
+                sendChunk(chunk); // send buf to server
             }
 
-            // 根据模式决定是否发送结束符以及是否等待一段时间后关闭连接
-            if (!mode.equals("offline")) {
-                // 如果不是离线模式，发送结束符后等待3秒关闭连接
-                Thread.sleep(2000);
-                sendEof();
-                Thread.sleep(3000);
-                close();
-            } else {
-                // 如果是离线模式，直接发送结束符
+            @Override
+            public void onComplete() {
                 sendEof();
+                awaitFinalResult();
             }
 
-        } catch (Exception e) {
-            // 打印异常信息
-            logger.error("处理音频文件：{} 失败", wavPath, e);
+            @Override
+            public void onError(Exception e) {
+                onSendFailed(audio.getWavPath(), e);
+            }
+        });
+    }
+
+    /**
+     * 流式模式发送结束符后，等待服务端返回is_final为true的最终结果，超时后该文件按失败处理
+     */
+    private void awaitFinalResult() {
+        PreparedAudio audio = currentAudio.get();
+        finalResultTimer = pool.getPacer().schedule(() -> {
+            if (audio == null || audio != currentAudio.get()) {
+                return;
+            }
+            logger.warn("等待最终结果超时（{}秒）：{}", finalResultTimeout, audio.getWavPath());
+            completeStreaming(false);
+        }, finalResultTimeout * 1000L);
+    }
+
+    /**
+     * 流式模式下结束当前文件：收到最终结果时输出汇总结果，然后关闭连接。
+     * 没有收到最终结果时已收到的结果可能不完整，不输出、不缓存，该文件按失败处理并重试，
+     * 避免不完整的结果被记为完成后不再重新识别。
+     *
+     * @param finalReceived 是否收到了is_final为true的最终结果
+     */
+    private synchronized void completeStreaming(boolean finalReceived) {
+        PreparedAudio audio = currentAudio.get();
+        StreamingTranscript transcript = streamingTranscript;
+        if (audio == null || transcript == null) {
+            return;
         }
+        ScheduledFuture<?> timer = finalResultTimer;
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        boolean success = finalReceived && transcript.hasContent();
+        if (success) {
+            if (iseof) {
+                ClientMetrics.RESULT_SECONDS.observeSince(eofNanos);
+            }
+            pool.recordState(audio.getWavPath(), JobState.RECEIVED);
+            try {
+                deliverResult(audio, transcript.toResult(wavNameOf(audio.getWavPath())));
+            } catch (IOException e) {
+                logger.error("输出识别结果失败：{}", audio.getWavPath(), e);
+                success = false;
+            }
+        } else if (!finalReceived) {
+            logger.error("未收到最终结果，已收到{}条结果，按失败处理：{}", transcript.getMessageCount(), audio.getWavPath());
+        } else {
+            logger.error("未收到任何识别结果：{}", audio.getWavPath());
+        }
+        // 先汇报结果再关闭连接，否则服务端的关闭帧可能先到达，读取线程会把已输出的文件按失败处理
+        finishCurrentFile(success);
+        // 流式模式下服务端的会话状态不再复用，处理完一个文件即关闭连接
+        close();
+    }
+
+    /**
+     * 发送音频失败时的处理
+     *
+     * @param wavPath 音频文件路径
+     * @param e       异常
+     */
+    private void onSendFailed(String wavPath, Exception e) {
+        // 打印异常信息
+        logger.error("处理音频文件：{} 失败", wavPath, e);
+        // 发送中断后服务端状态不可预期，结束该文件并放弃此连接
+        finishCurrentFile(false);
+    }
+
+    /**
+     * 关闭音频来源并忽略异常
+     *
+     * @param source 音频来源
+     */
+    private static void closeQuietly(AudioSource source) {
+        try {
+            source.close();
+        } catch (IOException e) {
+            logger.warn("关闭音频来源失败", e);
+        }
+    }
 
+    /**
+     * 结束当前文件并通知会话池，保证每个文件只汇报一次。
+     *
+     * @param success 是否处理成功
+     */
+    private void finishCurrentFile(boolean success) {
+        PreparedAudio audio = currentAudio.getAndSet(null);
+        if (audio != null) {
+            if (success) {
+                ClientMetrics.AUDIO_SECONDS.add(audio.audioMillis(sentBytes) / 1000.0);
+            }
+            pool.onFileFinished(this, audio, success);
+        }
     }
 
     /**
-     * 当WebSocket连接打开时调用。
+     * 当WebSocket连接打开时调用。音频的发送由会话池通过{@link #transcribe(PreparedAudio)}触发。
      *
      * @param serverHandshake 服务器握手数据
      */
     @Override
     public void onOpen(ServerHandshake serverHandshake) {
-        // 创建一个可运行对象，指向recWav方法
-        Runnable recWavThread = this::recWav;
-
-        // 新建一个线程来执行recWav方法
-        Thread thread = new Thread(recWavThread);
-
-        // 启动线程开始执行recWav方法
-        thread.start();
+        logger.info("Connection opened: " + getURI());
     }
 
     /**
@@ -302,54 +585,102 @@ public class FunasrWsClient extends WebSocketClient {
         // 记录接收到的消息
         logger.debug("received: " + message);
 
+        PreparedAudio audio = currentAudio.get();
+        if (audio == null) {
+            logger.warn("Received message while idle, ignored.");
+            return;
+        }
+
         try {
-            // 将接收到的消息解析为JSON对象
-            jsonObject = JSON.parseObject(message);
-            // 将解析后的JSON对象写入文件
-            jsonToFile(jsonObject);
-
-            currentFileIndex++; // 处理完一个文件后，索引加一
-            if (currentFileIndex < wavPaths.length) {
-                // 处理下一个文件
-                recWav();
+            if (isStreamingMode()) {
+                // 将接收到的消息解析为JSON对象
+                jsonObject = JSON.parseObject(message);
+                // 流式模式会陆续收到多条结果，收到最终结果后才结束该文件
+                streamingTranscript.add(jsonObject);
+                if (Boolean.TRUE.equals(jsonObject.getBoolean("is_final"))) {
+                    completeStreaming(true);
+                }
+                return;
+            }
+            ClientMetrics.RESULT_SECONDS.observeSince(eofNanos);
+            pool.recordState(audio.getWavPath(), JobState.RECEIVED);
+            if (audio.getTranscript() == null && !audio.hasTimelineGaps()) {
+                // 结果不需要再修改，直接从消息文本中逐句解析并写出，不构造完整的JSON对象
+                messageToFile(audio, message);
             } else {
-                String result = "所有音频处理完毕...";
-                logger.info(result);
-                System.out.println(result);
-                larkBotMessage("Funasr 语音识别", result);
-                close();
+                // 需要换算时间戳或拼接片段时，解析为JSON对象后处理
+                deliverResult(audio, JSON.parseObject(message));
             }
-
+            // 处理完一个文件后，交还会话池分配下一个文件
+            finishCurrentFile(true);
         } catch (Exception e) {
             // 记录JSON消息处理过程中的错误
             logger.error("Error processing JSON message: " + e.getMessage());
+            finishCurrentFile(false);
         }
-        // 当处于离线模式且接收到的消息不是最终消息时，关闭连接
-        if (iseof && mode.equals("offline") && !jsonObject.containsKey("is_final")) {
-            close();
-        }
+    }
+
 
-        // 当处于离线模式且接收到的消息是最终消息，但不是预期的最终消息时，关闭连接
-        if (iseof && mode.equals("offline") && jsonObject.containsKey("is_final") && jsonObject.get("is_final").equals("false")) {
-            close();
+    /**
+     * 输出一个文件的识别结果。长音频切分后的片段先交给汇总对象，全部片段完成后由会话池统一输出。
+     *
+     * @param audio  识别的音频
+     * @param result 识别结果
+     * @throws IOException 写出输出文件失败时抛出，此时不保存到缓存
+     */
+    private void deliverResult(PreparedAudio audio, JSONObject result) throws IOException {
+        // 裁掉静音后的时间戳换算回原始时间
+        audio.restoreTimeline(result);
+        SegmentedTranscript transcript = audio.getTranscript();
+        if (transcript != null) {
+            transcript.setResult(audio.getSegmentIndex(), result);
+        } else {
+            jsonToFile(result, paths -> pool.recordOutputs(audio.getWavPath(), paths));
+            pool.storeResult(audio.getWavPath(), result.toJSONString());
         }
     }
 
-
     /**
-     * 将JSONObject转换为JSON文件并进一步处理
-     * 此方法首先将给定的JSONObject保存到一个JSON文件中，
-     * 然后调用另一个方法来处理这个JSON对象并将其内容保存到一个txt文件中
+     * 将JSONObject写成配置的输出格式（txt/srt/vtt/jsonl），并按配置保存JSON文件
+     * 已解析的JSON对象直接交给输出处理，不再先写入JSON文件再读回解析；
+     * JSON文件由后台线程异步写入，不阻塞接收识别结果的线程
      *
      * @param jsonObject 要保存和处理的JSON对象
+     * @param onOpened   输出文件创建后、写入内容前的回调，参数为文件路径
+     * @throws IOException 写出输出文件失败时抛出，已写出一部分的输出文件已删除
      */
-    private void jsonToFile(JSONObject jsonObject) {
+    static void jsonToFile(JSONObject jsonObject, Consumer<List<String>> onOpened) throws IOException {
 
-        // 处理响应并保存JSON文件中
-        String jsonFilePath = JsonToFileUtil.saveJsonObjectToFile(jsonObject);
+        // 处理json对象并保存到各格式的输出文件中
+        TranscriptOutput.write(jsonObject, onOpened);
 
-        // 处理json对象并保存到txt文件中
-        JsonToTxtUtil.processAndSaveStampSents(jsonFilePath);
+        // 输出成功后再异步保存JSON文件，输出失败并重试时不会留下多余的JSON文件
+        if (saveJson) {
+            JsonToFileUtil.saveJsonObjectToFileAsync(jsonObject,
+                    onOpened == null ? null : path -> onOpened.accept(Collections.singletonList(path)));
+        }
+    }
+
+    /**
+     * 将服务端返回的消息文本直接写成配置的输出格式，并按配置原样保存JSON文件
+     * stamp_sents边解析边写出，解析过程中不保留整个结果的对象树
+     *
+     * @param audio   识别的音频
+     * @param message 服务端返回的JSON文本
+     * @throws IOException 消息格式错误或写入失败时抛出
+     */
+    private void messageToFile(PreparedAudio audio, String message) throws IOException {
+        String wavName = wavNameOf(audio.getWavPath());
+
+        // 逐句解析并保存到各格式的输出文件中，输出文件先记入任务日志，中途退出时下次运行可以删除不完整的输出
+        TranscriptOutput.write(wavName, message, paths -> pool.recordOutputs(audio.getWavPath(), paths));
+
+        // 消息解析并写出成功后再异步保存JSON文件，格式错误或不完整的消息不会留下JSON文件
+        if (saveJson) {
+            JsonToFileUtil.saveJsonStringToFileAsync(wavName, message,
+                    path -> pool.recordOutputs(audio.getWavPath(), Collections.singletonList(path)));
+        }
+        pool.storeResult(audio.getWavPath(), message);
     }
 
     /**
@@ -366,6 +697,12 @@ public class FunasrWsClient extends WebSocketClient {
     public void onClose(int code, String reason, boolean remote) {
         // 记录连接关闭信息，动态确定关闭方
         logger.info("Connection closed by " + (remote ? "remote peer" : "us") + " Code: " + code + " Reason: " + reason);
+        // 连接在文件处理过程中断开，该文件按失败处理，并中断仍在读取和发送的线程
+        Future<?> task = sendTask;
+        if (task != null) {
+            task.cancel(true);
+        }
+        finishCurrentFile(false);
     }
 
     /**
@@ -374,11 +711,12 @@ public class FunasrWsClient extends WebSocketClient {
      * @param ex 异常对象，提供了错误的详细信息
      *           <p>
      *           此方法主要用于处理错误情况，通过日志记录错误信息
-     *           这样做可以帮助开发者诊断问题，确保错误不被忽视
+     *           这样做可以帮助开发者诊断问题，确保错误不被忽视。
+     *           导致连接断开的错误之后会调用{@link #onClose}，由其结束当前文件，会话池再在新的会话上重试
      */
     @Override
     public void onError(Exception ex) {
-        logger.error("onError: " + ex);
+        logger.error("onError: " + ex, ex);
     }
 
 }
@@ -0,0 +1,390 @@
+package com.iniwym.client;
+
+import com.iniwym.audio.AudioSegmenter;
+import com.iniwym.audio.AudioSource;
+import com.iniwym.audio.DecodedPcmAudioSource;
+import com.iniwym.audio.MappedAudioSource;
+import com.iniwym.audio.Mp3PcmDecoder;
+import com.iniwym.audio.SilenceTrimmingAudioSource;
+import com.iniwym.audio.TimelineMap;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.iniwym.utils.ConfigReaderUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @Description: 预读完成、可以立即发送的音频文件。
+ * 文件已打开并校验，wav头已跳过，开头的数据已读入内存，请求参数JSON已准备好，
+ * 会话拿到后即可开始发送，不再需要在关键路径上等待磁盘。
+ * 开启长音频切分时，一个文件会被解码为临时PCM文件并切分为多个片段，每个片段是一个独立的PreparedAudio，
+ * 通过{@link SegmentedTranscript}汇总结果。
+ * 开启静音裁剪时，PCM数据经过{@link SilenceTrimmingAudioSource}发送，识别结果的时间戳在输出前换算回原始时间。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class PreparedAudio implements Closeable {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(PreparedAudio.class);
+
+    // wav文件头长度
+    private static final int WAV_HEADER_SIZE = 44;
+    // 长音频切分的片段时长，单位秒，0表示不切分
+    private static final int segmentSeconds = ConfigReaderUtil.getIntPropertyKey("segmentSeconds", 0);
+    // 切分点两侧的重叠时长，单位秒
+    private static final int segmentOverlapSeconds = ConfigReaderUtil.getIntPropertyKey("segmentOverlapSeconds", 2);
+    // 在目标切分点之前寻找静音的范围，单位秒
+    private static final int segmentSearchSeconds = ConfigReaderUtil.getIntPropertyKey("segmentSearchSeconds", 30);
+    // 是否在发送前压缩长时间的静音
+    private static final boolean vadEnabled = Boolean.parseBoolean(ConfigReaderUtil.getPropertyKey("vadEnabled", "false"));
+    // 静音阈值，单位dBFS
+    private static final double vadThresholdDb = Double.parseDouble(ConfigReaderUtil.getPropertyKey("vadThresholdDb", "-45"));
+    // 连续静音超过该时长才压缩，单位毫秒
+    private static final int vadMinSilenceMs = ConfigReaderUtil.getIntPropertyKey("vadMinSilenceMs", 1000);
+    // 压缩时静音开头和结尾各保留的时长，单位毫秒
+    private static final int vadKeepMs = ConfigReaderUtil.getIntPropertyKey("vadKeepMs", 200);
+    // 未解码的mp3无法裁剪静音，只提示一次
+    private static final AtomicBoolean vadSkipWarned = new AtomicBoolean();
+
+    private final String wavPath;
+    private final long fileSize;
+    private final String startMessage;
+    private final AudioSource source;
+    private final int chunkSize;
+    // 所属的切分汇总，不切分时为null
+    private final SegmentedTranscript transcript;
+    private final int segmentIndex;
+    // 静音裁剪的时间轴对应关系，不裁剪时为null
+    private final TimelineMap timeline;
+    // 未解码发送的mp3文件按帧头估算的时长，单位毫秒；发送PCM数据时为-1，按发送的字节数计算
+    private final long mp3Millis;
+
+    private PreparedAudio(String wavPath, long fileSize, String startMessage, AudioSource source, int chunkSize,
+                          long mp3Millis) {
+        this(wavPath, fileSize, startMessage, source, chunkSize, null, -1, mp3Millis);
+    }
+
+    private PreparedAudio(String wavPath, long fileSize, String startMessage, AudioSource source, int chunkSize,
+                          SegmentedTranscript transcript, int segmentIndex, long mp3Millis) {
+        this.wavPath = wavPath;
+        this.fileSize = fileSize;
+        this.startMessage = startMessage;
+        this.source = source;
+        this.chunkSize = chunkSize;
+        this.transcript = transcript;
+        this.segmentIndex = segmentIndex;
+        this.mp3Millis = mp3Millis;
+        this.timeline = source instanceof SilenceTrimmingAudioSource
+                ? ((SilenceTrimmingAudioSource) source).getTimeline() : null;
+    }
+
+    /**
+     * 准备一个音频文件。开启长音频切分时返回该文件的全部片段，否则只有一个元素。
+     *
+     * @param wavPath   音频文件路径
+     * @param chunkSize 每次发送的数据块大小
+     * @return 可以立即发送的音频
+     * @throws IOException 文件不存在、不可读、为空或解码失败时抛出
+     */
+    public static List<PreparedAudio> prepareAll(String wavPath, int chunkSize) throws IOException {
+        // 流式模式按实时速度发送，切分没有意义，只在离线模式下切分
+        if (segmentSeconds <= 0 || FunasrWsClient.isStreamingMode()) {
+            return Collections.singletonList(prepare(wavPath, chunkSize));
+        }
+        return prepareSegments(wavPath, chunkSize);
+    }
+
+    /**
+     * 打开并校验音频文件，预读第一个数据块并构造请求参数。
+     *
+     * @param wavPath   音频文件路径
+     * @param chunkSize 每次发送的数据块大小
+     * @return 预读完成的音频文件
+     * @throws IOException 文件不存在、不可读、为空或请求参数构造失败时抛出
+     */
+    public static PreparedAudio prepare(String wavPath, int chunkSize) throws IOException {
+        File file = new File(wavPath);
+        if (!file.isFile() || !file.canRead()) {
+            throw new IOException("Audio file is not readable: " + wavPath);
+        }
+        long fileSize = file.length();
+        boolean isWav = wavPath.endsWith(".wav");
+        if (fileSize <= (isWav ? WAV_HEADER_SIZE : 0)) {
+            throw new IOException("Audio file is empty: " + wavPath);
+        }
+
+        String startMessage = FunasrWsClient.buildStartJson(wavPath, true);
+        if (startMessage == null) {
+            throw new IOException("Failed to build start message: " + wavPath);
+        }
+
+        AudioSource source;
+        long mp3Millis = -1;
+        if (FunasrWsClient.isClientDecode()) {
+            // 客户端解码为16kHz单声道PCM，wav头由解码器解析
+            source = trimSilence(DecodedPcmAudioSource.open(wavPath), wavPath);
+        } else if (isWav) {
+            // 如果是wav文件，则跳过前44字节的wav头
+            source = trimSilence(new MappedAudioSource(file.toPath(), WAV_HEADER_SIZE), wavPath);
+        } else {
+            if (vadEnabled && vadSkipWarned.compareAndSet(false, true)) {
+                logger.warn("静音裁剪需要PCM数据，未开启clientDecode时mp3文件不裁剪静音");
+            }
+            source = new MappedAudioSource(file.toPath(), 0);
+            mp3Millis = Mp3PcmDecoder.estimateMillis(wavPath, fileSize);
+        }
+        try {
+            source.stage(chunkSize);
+            return new PreparedAudio(wavPath, fileSize, startMessage, source, chunkSize, mp3Millis);
+        } catch (IOException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 把文件解码为临时PCM文件，在静音处切分，每个片段对应临时文件中的一段区域
+     *
+     * @param wavPath   音频文件路径
+     * @param chunkSize 每次发送的数据块大小
+     * @return 全部片段
+     * @throws IOException 文件无法解码或读取时抛出
+     */
+    private static List<PreparedAudio> prepareSegments(String wavPath, int chunkSize) throws IOException {
+        Path pcmFile = decodeToTempFile(wavPath);
+        List<PreparedAudio> segments = new ArrayList<>();
+        try {
+            List<AudioSegmenter.Segment> plan = new AudioSegmenter(segmentSeconds, segmentOverlapSeconds, segmentSearchSeconds).split(pcmFile);
+            String startMessage = FunasrWsClient.buildStartJson(wavPath, "pcm", true);
+            if (startMessage == null) {
+                throw new IOException("Failed to build start message: " + wavPath);
+            }
+            SegmentedTranscript transcript = new SegmentedTranscript(FunasrWsClient.wavNameOf(wavPath), pcmFile, plan);
+            for (AudioSegmenter.Segment segment : plan) {
+                AudioSource source = trimSilence(new MappedAudioSource(pcmFile, segment.getStartByte(), segment.getLength()), wavPath);
+                segments.add(new PreparedAudio(wavPath, segment.getLength(), startMessage, source, chunkSize,
+                        transcript, segment.getIndex(), -1));
+            }
+            segments.get(0).getSource().stage(chunkSize);
+            if (plan.size() > 1) {
+                logger.info("长音频切分为{}个片段：{} {}", plan.size(), wavPath, plan);
+            }
+            return segments;
+        } catch (IOException e) {
+            for (PreparedAudio segment : segments) {
+                segment.close();
+            }
+            Files.deleteIfExists(pcmFile);
+            throw e;
+        }
+    }
+
+    /**
+     * 为重试重新打开同一个音频：普通文件重新预读，长音频的片段从临时PCM文件中重新打开该片段
+     *
+     * @return 可以立即发送的音频
+     * @throws IOException 文件已不可读时抛出
+     */
+    public PreparedAudio reopen() throws IOException {
+        if (transcript == null) {
+            return prepare(wavPath, chunkSize);
+        }
+        AudioSegmenter.Segment segment = transcript.getSegment(segmentIndex);
+        AudioSource reopened = trimSilence(new MappedAudioSource(transcript.getPcmFile(), segment.getStartByte(), segment.getLength()), wavPath);
+        try {
+            reopened.stage(chunkSize);
+        } catch (IOException e) {
+            reopened.close();
+            throw e;
+        }
+        return new PreparedAudio(wavPath, fileSize, startMessage, reopened, chunkSize, transcript, segmentIndex, -1);
+    }
+
+    /**
+     * 影响识别结果的参数，用于识别结果缓存的键。
+     * 包括请求参数（不含文件名）以及客户端解码、切分和静音裁剪的配置。
+     *
+     * @param wavPath 音频文件路径
+     * @return 参数描述
+     */
+    public static String cacheParams(String wavPath) {
+        JSONObject start = JSONObject.parseObject(FunasrWsClient.buildStartJson(wavPath, true));
+        start.remove("wav_name");
+        return start.toJSONString()
+                + ";clientDecode=" + FunasrWsClient.isClientDecode()
+                + ";segment=" + segmentSeconds + "," + segmentOverlapSeconds + "," + segmentSearchSeconds
+                + ";vad=" + vadEnabled + "," + vadThresholdDb + "," + vadMinSilenceMs + "," + vadKeepMs;
+    }
+
+    /**
+     * 开启静音裁剪时为PCM数据来源加上裁剪
+     *
+     * @param source  16kHz单声道PCM数据来源
+     * @param wavPath 音频文件路径，用于日志
+     * @return 发送使用的数据来源
+     */
+    private static AudioSource trimSilence(AudioSource source, String wavPath) {
+        if (!vadEnabled) {
+            return source;
+        }
+        return new SilenceTrimmingAudioSource(source, wavPath, vadThresholdDb, vadMinSilenceMs, vadKeepMs);
+    }
+
+    /**
+     * 发送时是否裁掉了静音，裁掉时识别结果的时间戳需要换算
+     *
+     * @return 裁掉过静音时返回true
+     */
+    public boolean hasTimelineGaps() {
+        return timeline != null && !timeline.isEmpty();
+    }
+
+    /**
+     * 音频的原始时长。发送PCM数据时由发送的字节数加上裁掉的静音得到，未解码的mp3按帧头估算
+     *
+     * @param sentBytes 已发送的音频字节数
+     * @return 时长，单位毫秒
+     */
+    public long audioMillis(long sentBytes) {
+        if (mp3Millis >= 0) {
+            return mp3Millis;
+        }
+        // 16kHz、16bit单声道音频每毫秒32字节
+        return sentBytes / 32 + (timeline == null ? 0 : timeline.getRemovedMs());
+    }
+
+    /**
+     * 把识别结果中的时间戳从发送时间轴换算回原始音频的时间，没有裁剪静音时不做任何处理
+     *
+     * @param result 识别结果
+     */
+    public void restoreTimeline(JSONObject result) {
+        if (!hasTimelineGaps()) {
+            return;
+        }
+        JSONArray sents = result.getJSONArray("stamp_sents");
+        if (sents == null) {
+            return;
+        }
+        for (int i = 0; i < sents.size(); i++) {
+            JSONObject sent = sents.getJSONObject(i);
+            sent.put("start", timeline.toOriginal(sent.getLongValue("start")));
+            sent.put("end", timeline.toOriginal(sent.getLongValue("end")));
+            JSONArray tsList = sent.getJSONArray("ts_list");
+            if (tsList == null) {
+                continue;
+            }
+            for (int j = 0; j < tsList.size(); j++) {
+                JSONArray pair = tsList.getJSONArray(j);
+                for (int k = 0; k < pair.size(); k++) {
+                    pair.set(k, timeline.toOriginal(pair.getLongValue(k)));
+                }
+            }
+        }
+    }
+
+    /**
+     * 把音频文件解码为16kHz单声道PCM，写入run/tmp下的临时文件
+     *
+     * @param wavPath 音频文件路径
+     * @return 临时文件路径
+     * @throws IOException 文件无法解码或写入失败时抛出
+     */
+    private static Path decodeToTempFile(String wavPath) throws IOException {
+        File file = new File(wavPath);
+        if (!file.isFile() || !file.canRead()) {
+            throw new IOException("Audio file is not readable: " + wavPath);
+        }
+        Path tmpDir = Paths.get(System.getProperty("user.dir"), "run", "tmp");
+        Files.createDirectories(tmpDir);
+        Path pcmFile = Files.createTempFile(tmpDir, FunasrWsClient.wavNameOf(wavPath) + "_", ".pcm");
+        try (AudioSource source = DecodedPcmAudioSource.open(wavPath);
+             FileChannel out = FileChannel.open(pcmFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer chunk;
+            while ((chunk = source.nextChunk(64 * 1024)) != null) {
+                while (chunk.hasRemaining()) {
+                    out.write(chunk);
+                }
+            }
+            if (out.size() == 0) {
+                throw new IOException("Audio file is empty: " + wavPath);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(pcmFile);
+            throw e;
+        }
+        return pcmFile;
+    }
+
+    public String getWavPath() {
+        return wavPath;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public String getStartMessage() {
+        return startMessage;
+    }
+
+    /**
+     * 待发送的音频数据
+     *
+     * @return 音频数据来源
+     */
+    public AudioSource getSource() {
+        return source;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * 所属的切分汇总
+     *
+     * @return 不切分时返回null
+     */
+    public SegmentedTranscript getTranscript() {
+        return transcript;
+    }
+
+    public int getSegmentIndex() {
+        return segmentIndex;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    /**
+     * 放弃发送：关闭文件，长音频的片段记为失败，所有片段都已结束时删除临时PCM文件。
+     * 用于已经准备好但不会再交给会话的音频，例如预读线程停止时。
+     */
+    public void discard() {
+        try {
+            close();
+        } catch (IOException e) {
+            logger.warn("关闭音频文件失败：{}", wavPath, e);
+        }
+        if (transcript != null && transcript.finishSegment(segmentIndex, false)) {
+            transcript.deleteTempFile();
+        }
+    }
+}
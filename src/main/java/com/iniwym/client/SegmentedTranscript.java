@@ -0,0 +1,175 @@
+package com.iniwym.client;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.iniwym.audio.AudioSegmenter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * @Description: 长音频切分后各片段识别结果的汇总。
+ * 各片段由不同会话并行识别，全部完成后把每个片段的stamp_sents换算为绝对时间并按顺序拼接，
+ * 重叠部分只保留开始时间落在该片段自身范围内的句子，避免同一句话出现两次。
+ * 汇总结果与单个文件的识别结果格式一致。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class SegmentedTranscript {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(SegmentedTranscript.class);
+
+    private final String wavName;
+    // 解码后的临时PCM文件，全部片段结束后删除
+    private final Path pcmFile;
+    private final List<AudioSegmenter.Segment> segments;
+    private final JSONObject[] results;
+    private int remaining;
+    private boolean failed;
+
+    /**
+     * 构造汇总对象
+     *
+     * @param wavName  音频名称
+     * @param pcmFile  解码后的临时PCM文件
+     * @param segments 切分方案
+     */
+    public SegmentedTranscript(String wavName, Path pcmFile, List<AudioSegmenter.Segment> segments) {
+        this.wavName = wavName;
+        this.pcmFile = pcmFile;
+        this.segments = segments;
+        this.results = new JSONObject[segments.size()];
+        this.remaining = segments.size();
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public Path getPcmFile() {
+        return pcmFile;
+    }
+
+    /**
+     * 指定序号的片段
+     *
+     * @param index 片段序号
+     * @return 片段在临时PCM文件中的位置
+     */
+    public AudioSegmenter.Segment getSegment(int index) {
+        return segments.get(index);
+    }
+
+    /**
+     * 记录一个片段的识别结果
+     *
+     * @param index  片段序号
+     * @param result 识别结果
+     */
+    public synchronized void setResult(int index, JSONObject result) {
+        results[index] = result;
+    }
+
+    /**
+     * 一个片段处理结束
+     *
+     * @param index   片段序号
+     * @param success 是否处理成功
+     * @return 全部片段都已结束时返回true，只会返回一次
+     */
+    public synchronized boolean finishSegment(int index, boolean success) {
+        if (!success || results[index] == null) {
+            failed = true;
+        }
+        return --remaining == 0;
+    }
+
+    /**
+     * 全部片段是否都处理成功
+     *
+     * @return 都成功时返回true
+     */
+    public synchronized boolean isSuccess() {
+        return remaining == 0 && !failed;
+    }
+
+    /**
+     * 拼接各片段的识别结果。
+     * 时间戳换算为整个音频中的绝对时间，text由保留下来的句子重新拼接。
+     *
+     * @return 汇总结果
+     */
+    public synchronized JSONObject toResult() {
+        if (results.length == 1) {
+            return results[0];
+        }
+        StringBuilder text = new StringBuilder();
+        JSONArray stampSents = new JSONArray();
+        for (AudioSegmenter.Segment segment : segments) {
+            JSONArray sents = results[segment.getIndex()].getJSONArray("stamp_sents");
+            if (sents == null) {
+                continue;
+            }
+            long offset = segment.getOffsetMs();
+            for (int i = 0; i < sents.size(); i++) {
+                JSONObject sent = sents.getJSONObject(i);
+                long start = sent.getLongValue("start") + offset;
+                // 重叠部分的句子由开始时间所在的片段负责
+                if (start < segment.getOwnStartMs() || start >= segment.getOwnEndMs()) {
+                    continue;
+                }
+                JSONObject shifted = new JSONObject(sent);
+                shifted.put("start", start);
+                shifted.put("end", sent.getLongValue("end") + offset);
+                JSONArray tsList = sent.getJSONArray("ts_list");
+                if (tsList != null) {
+                    shifted.put("ts_list", shiftTimestamps(tsList, offset));
+                }
+                stampSents.add(shifted);
+                text.append(sent.getString("text_seg")).append(sent.getString("punc"));
+            }
+        }
+
+        JSONObject result = new JSONObject();
+        JSONObject first = results[0];
+        if (first.containsKey("mode")) {
+            result.put("mode", first.get("mode"));
+        }
+        result.put("wav_name", first.containsKey("wav_name") ? first.getString("wav_name") : wavName);
+        result.put("text", text.toString());
+        result.put("is_final", first.get("is_final"));
+        result.put("stamp_sents", stampSents);
+        return result;
+    }
+
+    /**
+     * 把[[start, end], ...]形式的时间戳整体平移
+     */
+    private static JSONArray shiftTimestamps(JSONArray tsList, long offset) {
+        JSONArray shifted = new JSONArray(tsList.size());
+        for (int i = 0; i < tsList.size(); i++) {
+            JSONArray pair = tsList.getJSONArray(i);
+            JSONArray shiftedPair = new JSONArray(pair.size());
+            for (int j = 0; j < pair.size(); j++) {
+                shiftedPair.add(pair.getLongValue(j) + offset);
+            }
+            shifted.add(shiftedPair);
+        }
+        return shifted;
+    }
+
+    /**
+     * 删除解码后的临时PCM文件
+     */
+    public void deleteTempFile() {
+        try {
+            Files.deleteIfExists(pcmFile);
+        } catch (IOException e) {
+            logger.warn("删除临时文件失败：{}", pcmFile, e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.iniwym.client;
+
+import com.iniwym.audio.AudioSource;
+import com.iniwym.scheduler.TaskScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description: 流式模式（online/2pass）的实时发送调度器。
+ * 所有流共用少量定时线程，每个数据块按 起始时间 + 序号 × 间隔 的绝对时间点发送，
+ * 不会像逐块sleep那样累积误差，几百路并发流也只占用几个线程。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class StreamPacer {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(StreamPacer.class);
+
+    // 落后超过该数量的数据块时不再追赶，而是以当前时间重新计时，避免突发发送大量数据
+    private static final int MAX_CATCH_UP_CHUNKS = 10;
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * 流式发送过程的回调
+     */
+    public interface Listener {
+        /**
+         * 到达发送时间的数据块
+         *
+         * @param chunk 数据块
+         */
+        void onChunk(ByteBuffer chunk);
+
+        /**
+         * 数据已全部发送
+         */
+        void onComplete();
+
+        /**
+         * 读取或发送失败，之后不会再回调
+         *
+         * @param e 异常
+         */
+        void onError(Exception e);
+    }
+
+    /**
+     * 构造调度器
+     *
+     * @param threads 定时线程数量
+     */
+    public StreamPacer(int threads) {
+        this.scheduler = TaskScheduler.newScheduler("pacer", threads);
+    }
+
+    /**
+     * 开始按实时速度发送一路音频，方法立即返回，数据块在定时线程中回调给listener。
+     * 数据发送完毕或失败后音频来源会被关闭。
+     *
+     * @param source          音频数据来源
+     * @param chunkSize       每个数据块的字节数
+     * @param chunkIntervalNs 相邻数据块的发送间隔，单位纳秒
+     * @param listener        回调
+     */
+    public void start(AudioSource source, int chunkSize, long chunkIntervalNs, Listener listener) {
+        scheduler.execute(new PacedStream(source, chunkSize, chunkIntervalNs, listener));
+    }
+
+    /**
+     * 延迟执行一个任务
+     *
+     * @param task    任务
+     * @param delayMs 延迟时间，单位毫秒
+     * @return 可用于取消的句柄
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delayMs) {
+        return scheduler.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止调度器，尚未发送完的流不再继续
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 一路正在发送的流，每次执行发送一个数据块并预约下一个数据块的发送时间
+     */
+    private class PacedStream implements Runnable {
+        private final AudioSource source;
+        private final int chunkSize;
+        private final long chunkIntervalNs;
+        private final Listener listener;
+        // 计时起点，第n个数据块的发送时间为 startNanos + n * chunkIntervalNs
+        private long startNanos;
+        private long sentChunks;
+
+        PacedStream(AudioSource source, int chunkSize, long chunkIntervalNs, Listener listener) {
+            this.source = source;
+            this.chunkSize = chunkSize;
+            this.chunkIntervalNs = chunkIntervalNs;
+            this.listener = listener;
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            try {
+                ByteBuffer chunk = source.nextChunk(chunkSize);
+                if (chunk == null) {
+                    source.close();
+                    listener.onComplete();
+                    return;
+                }
+                listener.onChunk(chunk);
+                sentChunks++;
+
+                long now = System.nanoTime();
+                long delay = startNanos + sentChunks * chunkIntervalNs - now;
+                if (delay < -MAX_CATCH_UP_CHUNKS * chunkIntervalNs) {
+                    // 落后太多（例如线程长时间被占用），放弃追赶并重新计时
+                    logger.warn("Stream fell behind by {} ms, resetting pacing clock.", -delay / 1_000_000);
+                    startNanos = now - sentChunks * chunkIntervalNs;
+                    delay = 0;
+                }
+                scheduler.schedule(this, Math.max(0, delay), TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                try {
+                    source.close();
+                } catch (Exception closeError) {
+                    e.addSuppressed(closeError);
+                }
+                listener.onError(e);
+            }
+        }
+    }
+}
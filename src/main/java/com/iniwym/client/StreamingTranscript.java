@@ -0,0 +1,85 @@
+package com.iniwym.client;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+
+/**
+ * @Description: 流式模式（online/2pass）下汇总一个文件的多条识别消息。
+ * 2pass模式只采用"2pass-offline"修正后的结果，"2pass-online"的中间结果会被后续修正覆盖，不写入结果；
+ * online模式没有修正结果，直接拼接每条消息的文本。
+ * 汇总结果与离线模式的结果格式一致，可以交给同样的输出流程处理。
+ * 消息在WebSocket读取线程中加入，等待最终结果超时后在调度线程中生成汇总结果，因此各方法都加锁，
+ * 汇总结果中的句子列表是副本，之后到达的消息不会改动已交给输出流程的结果。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class StreamingTranscript {
+
+    private final StringBuilder text = new StringBuilder();
+    private final JSONArray stampSents = new JSONArray();
+    private String wavName;
+    private int messageCount;
+
+    /**
+     * 加入一条服务端消息
+     *
+     * @param message 解析后的消息
+     */
+    public synchronized void add(JSONObject message) {
+        messageCount++;
+        if (message.containsKey("wav_name")) {
+            wavName = message.getString("wav_name");
+        }
+        String messageMode = message.getString("mode");
+        if ("2pass-online".equals(messageMode)) {
+            return;
+        }
+        String messageText = message.getString("text");
+        if (messageText != null) {
+            text.append(messageText);
+        }
+        JSONArray sents = message.getJSONArray("stamp_sents");
+        if (sents != null) {
+            stampSents.addAll(sents);
+        }
+    }
+
+    /**
+     * 是否收到过有内容的识别结果
+     *
+     * @return 有内容时返回true
+     */
+    public synchronized boolean hasContent() {
+        return text.length() > 0 || !stampSents.isEmpty();
+    }
+
+    public synchronized int getMessageCount() {
+        return messageCount;
+    }
+
+    /**
+     * 生成与离线模式格式一致的汇总结果。
+     * online模式的消息不带时间戳，此时把全部文本作为一句输出。
+     *
+     * @param defaultWavName 消息中没有wav_name时使用的名称
+     * @return 汇总结果
+     */
+    public synchronized JSONObject toResult(String defaultWavName) {
+        JSONObject result = new JSONObject();
+        result.put("wav_name", wavName != null ? wavName : defaultWavName);
+        result.put("text", text.toString());
+        result.put("is_final", true);
+        JSONArray sents = new JSONArray();
+        sents.addAll(stampSents);
+        if (sents.isEmpty() && text.length() > 0) {
+            JSONObject sent = new JSONObject();
+            sent.put("text_seg", text.toString());
+            sent.put("punc", "");
+            sent.put("start", 0);
+            sent.put("end", 0);
+            sents.add(sent);
+        }
+        result.put("stamp_sents", sents);
+        return result;
+    }
+}
@@ -0,0 +1,101 @@
+package com.iniwym.config;
+
+import com.iniwym.utils.ConfigReaderUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description: 监听外部配置文件，文件修改后重新加载配置并替换会话参数快照。
+ * 监听配置文件所在的目录，编辑器先写临时文件再改名替换的保存方式同样能识别；
+ * 一次保存通常产生多个事件，最后一个事件之后等待一小段时间再加载，只加载一次。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class ConfigFileWatcher implements Runnable, Closeable {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(ConfigFileWatcher.class);
+
+    // 最后一个文件事件之后等待的时间，单位毫秒
+    private static final long DEBOUNCE_MILLIS = 500;
+
+    private final Path file;
+    private final WatchService watchService;
+
+    /**
+     * 构造配置文件监听器
+     *
+     * @param file 配置文件
+     * @throws IOException 创建WatchService或注册目录失败时抛出
+     */
+    public ConfigFileWatcher(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    @Override
+    public void run() {
+        logger.info("开始监听配置文件：{}", file);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = handleEvents(key);
+                // 合并一次保存产生的后续事件
+                while (changed && (key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    handleEvents(key);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.info("停止监听配置文件：{}", file);
+        }
+    }
+
+    /**
+     * 处理目录的文件事件
+     *
+     * @return 配置文件有变化时返回true
+     */
+    private boolean handleEvents(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * 重新加载配置并替换会话参数快照
+     */
+    private void reload() {
+        logger.info("配置文件已修改，重新加载：{}", file);
+        if (ConfigReaderUtil.reloadPropertyConfig()) {
+            SessionConfig.reload();
+        } else {
+            logger.error("重新加载配置失败，继续使用原来的参数：{}", file);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
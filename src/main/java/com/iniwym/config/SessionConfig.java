@@ -0,0 +1,230 @@
+package com.iniwym.config;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.iniwym.hotword.HotwordProfile;
+import com.iniwym.hotword.HotwordProfiles;
+import com.iniwym.utils.ConfigReaderUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @Description: 识别会话参数的不可变快照（模式、分块大小、分块间隔、热词）。
+ * 创建时完成解析和校验，并预先生成开始消息中与文件无关的部分，每个文件只需拼接热词字段、文件名和音频格式，
+ * 热词字段按文件路径从{@link HotwordProfiles}中选择已生成好的热词组。
+ * 配置文件修改后调用{@link #reload()}生成新的快照并整体替换，正在发送的文件继续使用原来的快照，
+ * 之后开始的文件使用新的参数；校验失败时保留原来的快照。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public final class SessionConfig {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(SessionConfig.class);
+
+    // 当前使用的快照
+    private static final AtomicReference<SessionConfig> CURRENT = new AtomicReference<>(fromProperties(null));
+
+    private final String mode;
+    private final int[] chunkSize;
+    private final int chunkInterval;
+    // 配置中的热词
+    private final HotwordProfile hotwords;
+    // 按文件路径选择的热词组
+    private final HotwordProfiles hotwordProfiles;
+    // 开始消息中与文件无关的部分，不含结尾的"}"
+    private final String startPrefix;
+
+    private SessionConfig(String mode, int[] chunkSize, int chunkInterval, HotwordProfile hotwords,
+                          HotwordProfiles hotwordProfiles) {
+        this.mode = mode;
+        this.chunkSize = chunkSize;
+        this.chunkInterval = chunkInterval;
+        this.hotwords = hotwords;
+        this.hotwordProfiles = hotwordProfiles;
+
+        JSONObject obj = new JSONObject(true);
+        obj.put("mode", mode);
+        obj.put("chunk_size", chunkSize);
+        obj.put("chunk_interval", chunkInterval);
+        String json = obj.toJSONString();
+        this.startPrefix = json.substring(0, json.length() - 1);
+    }
+
+    /**
+     * 当前使用的会话参数
+     *
+     * @return 会话参数快照
+     */
+    public static SessionConfig current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 按最新的配置重新生成快照并替换当前快照。
+     * 识别模式决定了发送和接收流程，运行中修改不生效，沿用原来的模式。
+     *
+     * @return 替换成功时返回true，配置校验失败时返回false并保留原来的快照
+     */
+    public static boolean reload() {
+        SessionConfig previous = CURRENT.get();
+        SessionConfig next;
+        try {
+            next = fromProperties(previous.mode);
+        } catch (IllegalArgumentException e) {
+            logger.error("会话参数校验失败，继续使用原来的参数：{}", e.getMessage());
+            return false;
+        }
+        CURRENT.set(next);
+        logger.info("会话参数已更新：{}", next);
+        return true;
+    }
+
+    /**
+     * 从配置中读取并校验会话参数
+     *
+     * @param fixedMode 沿用的识别模式，为null时读取配置
+     * @return 会话参数快照
+     * @throws IllegalArgumentException 参数格式不正确时抛出
+     */
+    private static SessionConfig fromProperties(String fixedMode) {
+        String mode = ConfigReaderUtil.getPropertyKey("mode", "offline");
+        if (!"offline".equals(mode) && !"online".equals(mode) && !"2pass".equals(mode)) {
+            throw new IllegalArgumentException("mode只能为offline、online或2pass：" + mode);
+        }
+        if (fixedMode != null && !fixedMode.equals(mode)) {
+            logger.warn("识别模式修改后需要重启才能生效，继续使用：{}", fixedMode);
+            mode = fixedMode;
+        }
+        int chunkInterval = parsePositive("chunkInterval", ConfigReaderUtil.getPropertyKey("chunkInterval", "10"));
+        HotwordProfile hotwords = new HotwordProfile("", parseHotwords(ConfigReaderUtil.getPropertyKey("hotwords", "")),
+                parseHotwords(ConfigReaderUtil.getPropertyKey("fsthotwords", "")));
+        HotwordProfiles hotwordProfiles = new HotwordProfiles(
+                Paths.get(ConfigReaderUtil.getPropertyKey("hotwordDir", System.getProperty("user.dir") + "/hotwords")),
+                ConfigReaderUtil.getPropertyKey("hotwordRules", ""),
+                ConfigReaderUtil.getPropertyKey("hotwordDefaultProfile", ""), hotwords);
+        return new SessionConfig(mode, parseChunkSize(ConfigReaderUtil.getPropertyKey("strChunkSize", "5,10,5")),
+                chunkInterval, hotwords, hotwordProfiles);
+    }
+
+    /**
+     * 解析分块大小配置，格式为逗号分隔的三个正整数，例如"5,10,5"
+     */
+    private static int[] parseChunkSize(String value) {
+        String[] items = value.split(",");
+        if (items.length != 3) {
+            throw new IllegalArgumentException("strChunkSize应为逗号分隔的三个整数：" + value);
+        }
+        int[] chunkSize = new int[items.length];
+        for (int i = 0; i < items.length; i++) {
+            chunkSize[i] = parsePositive("strChunkSize", items[i]);
+        }
+        return chunkSize;
+    }
+
+    /**
+     * 解析热词配置，格式为空格分隔的"热词 权重"序列，热词可以包含空格，例如"阿里巴巴 20 hello world 40"。
+     * 末尾没有权重的词忽略。
+     */
+    static Map<String, String> parseHotwords(String value) {
+        Map<String, String> hotwords = new LinkedHashMap<>();
+        StringBuilder words = new StringBuilder();
+        for (String item : value.trim().split(" +")) {
+            if (item.isEmpty()) {
+                continue;
+            }
+            if (HotwordProfile.isDigits(item)) {
+                if (words.length() > 0) {
+                    hotwords.put(words.toString(), item);
+                    words.setLength(0);
+                }
+                continue;
+            }
+            if (words.length() > 0) {
+                words.append(' ');
+            }
+            words.append(item);
+        }
+        if (words.length() > 0) {
+            logger.warn("热词缺少权重，已忽略：{}", words);
+        }
+        return hotwords;
+    }
+
+    private static int parsePositive(String key, String value) {
+        int result;
+        try {
+            result = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + "不是整数：" + value);
+        }
+        if (result <= 0) {
+            throw new IllegalArgumentException(key + "必须大于0：" + value);
+        }
+        return result;
+    }
+
+    /**
+     * 生成一个文件的开始消息
+     *
+     * @param wavPath    音频文件路径，用于选择热词组
+     * @param wavName    音频名称
+     * @param wavFormat  发送的音频数据格式，例如pcm、mp3
+     * @param isSpeaking 是否正在说话
+     * @return JSON字符串
+     */
+    public String startMessage(String wavPath, String wavName, String wavFormat, boolean isSpeaking) {
+        String hotwordFragment = hotwordProfiles.fragmentFor(wavPath);
+        String name = JSON.toJSONString(wavName);
+        StringBuilder message = new StringBuilder(startPrefix.length() + hotwordFragment.length() + name.length() + 64);
+        message.append(startPrefix)
+                .append(hotwordFragment)
+                .append(",\"wav_name\":").append(name)
+                .append(",\"wav_format\":").append(JSON.toJSONString(wavFormat))
+                .append(",\"is_speaking\":").append(isSpeaking)
+                .append('}');
+        return message.toString();
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public boolean isStreamingMode() {
+        return !"offline".equals(mode);
+    }
+
+    /**
+     * 分块大小配置
+     *
+     * @return 三个整数，调用方可以修改返回的数组
+     */
+    public int[] getChunkSize() {
+        return chunkSize.clone();
+    }
+
+    public int getChunkInterval() {
+        return chunkInterval;
+    }
+
+    /**
+     * 配置中的hotwords、fsthotwords
+     *
+     * @return 热词
+     */
+    public HotwordProfile getHotwords() {
+        return hotwords;
+    }
+
+    @Override
+    public String toString() {
+        return "mode=" + mode + ", chunkSize=" + Arrays.toString(chunkSize)
+                + ", chunkInterval=" + chunkInterval + ", hotwords=" + hotwords.getHotwords().size()
+                + ", fsthotwords=" + hotwords.getFstHotwords().size();
+    }
+}
@@ -0,0 +1,151 @@
+package com.iniwym.hotword;
+
+import com.alibaba.fastjson.JSON;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @Description: 一组热词，加载后预先生成开始消息中的hotwords和fsthotwords字段，发送时直接拼接。
+ * 热词文件每行为"热词 权重"，热词可以包含空格，权重为行末的整数；空行和#开头的行忽略。
+ * 名为name的热词组对应热词目录下的name.txt（hotwords）和name.fst.txt（fsthotwords），两个文件都可以省略。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public final class HotwordProfile {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(HotwordProfile.class);
+
+    // hotwords热词文件后缀
+    static final String HOTWORD_SUFFIX = ".txt";
+    // fsthotwords热词文件后缀
+    static final String FST_HOTWORD_SUFFIX = ".fst.txt";
+
+    private final String name;
+    private final Map<String, String> hotwords;
+    private final Map<String, String> fstHotwords;
+    // 开始消息中的热词字段，以","开头，没有热词时为空字符串
+    private final String fragment;
+
+    /**
+     * 构造热词组
+     *
+     * @param name        热词组名称
+     * @param hotwords    hotwords热词到权重
+     * @param fstHotwords fsthotwords热词到权重
+     */
+    public HotwordProfile(String name, Map<String, String> hotwords, Map<String, String> fstHotwords) {
+        this.name = name;
+        this.hotwords = Collections.unmodifiableMap(new LinkedHashMap<>(hotwords));
+        this.fstHotwords = Collections.unmodifiableMap(new LinkedHashMap<>(fstHotwords));
+        StringBuilder fragment = new StringBuilder();
+        if (!hotwords.isEmpty()) {
+            fragment.append(",\"hotwords\":").append(JSON.toJSONString(JSON.toJSONString(hotwords)));
+        }
+        if (!fstHotwords.isEmpty()) {
+            fragment.append(",\"fsthotwords\":").append(JSON.toJSONString(JSON.toJSONString(fstHotwords)));
+        }
+        this.fragment = fragment.toString();
+    }
+
+    /**
+     * 从热词目录加载热词组，在基础热词之上追加热词文件中的条目，同一热词以文件中的权重为准
+     *
+     * @param directory   热词目录
+     * @param name        热词组名称
+     * @param hotwords    基础hotwords热词
+     * @param fstHotwords 基础fsthotwords热词
+     * @return 热词组
+     * @throws IOException 两个热词文件都不存在或读取失败时抛出
+     */
+    public static HotwordProfile load(Path directory, String name, Map<String, String> hotwords,
+                                      Map<String, String> fstHotwords) throws IOException {
+        Path hotwordFile = directory.resolve(name + HOTWORD_SUFFIX);
+        Path fstHotwordFile = directory.resolve(name + FST_HOTWORD_SUFFIX);
+        if (!Files.isRegularFile(hotwordFile) && !Files.isRegularFile(fstHotwordFile)) {
+            throw new IOException("热词文件不存在：" + hotwordFile);
+        }
+        Map<String, String> mergedHotwords = new LinkedHashMap<>(hotwords);
+        Map<String, String> mergedFstHotwords = new LinkedHashMap<>(fstHotwords);
+        readFile(hotwordFile, mergedHotwords);
+        readFile(fstHotwordFile, mergedFstHotwords);
+        HotwordProfile profile = new HotwordProfile(name, mergedHotwords, mergedFstHotwords);
+        logger.info("加载热词组：{}，hotwords {}个，fsthotwords {}个", name, mergedHotwords.size(), mergedFstHotwords.size());
+        return profile;
+    }
+
+    /**
+     * 读取热词文件，格式不正确的行记录日志后跳过
+     */
+    private static void readFile(Path file, Map<String, String> entries) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int split = Math.max(line.lastIndexOf(' '), line.lastIndexOf('\t'));
+                String weight = split < 0 ? "" : line.substring(split + 1);
+                if (split < 0 || !isDigits(weight)) {
+                    logger.warn("热词缺少权重，已忽略：{}:{} {}", file, lineNumber, line);
+                    continue;
+                }
+                entries.put(line.substring(0, split).trim(), weight);
+            }
+        }
+    }
+
+    /**
+     * 判断是否为热词权重，即非空且只包含数字
+     *
+     * @param item 待判断的文本
+     * @return 是权重时返回true
+     */
+    public static boolean isDigits(String item) {
+        if (item.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < item.length(); i++) {
+            char c = item.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, String> getHotwords() {
+        return hotwords;
+    }
+
+    public Map<String, String> getFstHotwords() {
+        return fstHotwords;
+    }
+
+    /**
+     * 开始消息中的热词字段
+     *
+     * @return 以","开头的JSON字段，没有热词时为空字符串
+     */
+    public String getFragment() {
+        return fragment;
+    }
+}
@@ -0,0 +1,168 @@
+package com.iniwym.hotword;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @Description: 按音频文件路径选择热词组。
+ * 规则为分号分隔的"glob=热词组名称"，按顺序匹配音频文件的绝对路径，第一条匹配的规则生效，
+ * 都不匹配时使用默认热词组，没有默认热词组时只使用配置中的hotwords、fsthotwords。
+ * 每个热词组只在第一次使用时加载并生成消息字段，之后直接复用；热词文件修改后下次使用时重新加载。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class HotwordProfiles {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(HotwordProfiles.class);
+
+    private final Path directory;
+    private final List<Rule> rules;
+    private final String defaultProfile;
+    // 配置中的热词，没有热词组或热词组加载失败时使用
+    private final HotwordProfile base;
+    // 热词组名称到已加载的热词组
+    private final Map<String, Loaded> loaded = new ConcurrentHashMap<>();
+
+    /**
+     * 构造热词组选择器
+     *
+     * @param directory      热词目录
+     * @param rules          选择规则，格式为分号分隔的"glob=热词组名称"
+     * @param defaultProfile 没有规则匹配时使用的热词组名称，为空时不使用
+     * @param base           配置中的热词，所有热词组在此基础上追加
+     * @throws IllegalArgumentException 规则格式不正确时抛出
+     */
+    public HotwordProfiles(Path directory, String rules, String defaultProfile, HotwordProfile base) {
+        this.directory = directory;
+        this.rules = parseRules(rules);
+        this.defaultProfile = defaultProfile == null || defaultProfile.trim().isEmpty() ? null : defaultProfile.trim();
+        this.base = base;
+    }
+
+    private static List<Rule> parseRules(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Rule> rules = new ArrayList<>();
+        for (String item : value.split(";")) {
+            if (item.trim().isEmpty()) {
+                continue;
+            }
+            int split = item.lastIndexOf('=');
+            if (split <= 0 || split == item.length() - 1) {
+                throw new IllegalArgumentException("hotwordRules应为glob=热词组名称：" + item);
+            }
+            String glob = item.substring(0, split).trim();
+            PathMatcher matcher;
+            try {
+                matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("hotwordRules中的glob格式不正确：" + glob);
+            }
+            rules.add(new Rule(matcher, item.substring(split + 1).trim()));
+        }
+        return rules;
+    }
+
+    /**
+     * 音频文件使用的热词字段
+     *
+     * @param wavPath 音频文件路径
+     * @return 开始消息中以","开头的热词字段，没有热词时为空字符串
+     */
+    public String fragmentFor(String wavPath) {
+        String name = profileFor(wavPath);
+        if (name == null) {
+            return base.getFragment();
+        }
+        Loaded current = loaded.compute(name, (key, previous) -> {
+            long[] modified = modifiedTimes(key);
+            if (previous != null && previous.matches(modified)) {
+                return previous;
+            }
+            try {
+                return new Loaded(HotwordProfile.load(directory, key, base.getHotwords(), base.getFstHotwords()), modified);
+            } catch (IOException e) {
+                if (previous == null || previous.profile != null) {
+                    logger.error("加载热词组失败，使用配置中的热词：{}", key, e);
+                }
+                return new Loaded(null, modified);
+            }
+        });
+        return current.profile == null ? base.getFragment() : current.profile.getFragment();
+    }
+
+    /**
+     * 选择热词组名称
+     */
+    private String profileFor(String wavPath) {
+        if (rules.isEmpty()) {
+            return defaultProfile;
+        }
+        Path path = Paths.get(wavPath).toAbsolutePath().normalize();
+        for (Rule rule : rules) {
+            if (rule.matcher.matches(path)) {
+                return rule.profile;
+            }
+        }
+        return defaultProfile;
+    }
+
+    /**
+     * 热词组两个文件的修改时间，文件不存在时为-1
+     */
+    private long[] modifiedTimes(String name) {
+        return new long[]{modifiedTime(directory.resolve(name + HotwordProfile.HOTWORD_SUFFIX)),
+                modifiedTime(directory.resolve(name + HotwordProfile.FST_HOTWORD_SUFFIX))};
+    }
+
+    private static long modifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 一条选择规则
+     */
+    private static class Rule {
+        private final PathMatcher matcher;
+        private final String profile;
+
+        Rule(PathMatcher matcher, String profile) {
+            this.matcher = matcher;
+            this.profile = profile;
+        }
+    }
+
+    /**
+     * 已加载的热词组及加载时热词文件的修改时间，加载失败时热词组为null
+     */
+    private static class Loaded {
+        private final HotwordProfile profile;
+        private final long[] modified;
+
+        Loaded(HotwordProfile profile, long[] modified) {
+            this.profile = profile;
+            this.modified = modified;
+        }
+
+        boolean matches(long[] current) {
+            return modified[0] == current[0] && modified[1] == current[1];
+        }
+    }
+}
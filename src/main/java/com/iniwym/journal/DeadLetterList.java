@@ -0,0 +1,59 @@
+package com.iniwym.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * @Description: 重试多次后仍然失败的文件清单。
+ * 每个文件追加一行"时间\t尝试次数\t文件路径"，批处理结束后可以据此单独排查或重新处理这些文件。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class DeadLetterList {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterList.class);
+
+    private final Path file;
+
+    /**
+     * 构造失败文件清单，文件在第一次记录时才创建
+     *
+     * @param file 清单文件
+     */
+    public DeadLetterList(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * 记录一个最终失败的文件
+     *
+     * @param wavPath  音频文件路径
+     * @param attempts 已尝试的次数
+     */
+    public synchronized void add(String wavPath, int attempts) {
+        String time = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
+        String line = time + "\t" + attempts + "\t" + wavPath + "\n";
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(file, line.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            logger.warn("已记入失败文件清单：{}", wavPath);
+        } catch (IOException e) {
+            logger.error("写入失败文件清单失败：{}", file, e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
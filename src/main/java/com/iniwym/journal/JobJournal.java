@@ -0,0 +1,268 @@
+package com.iniwym.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description: 只追加写入的任务日志，记录每个文件的处理状态（排队、已发送、已收到结果、输出已写完）。
+ * 每次状态变化追加一行"状态\t文件大小\t修改时间\t文件路径"，进程中途退出时已写入的记录不会丢失，
+ * 未写完的最后一行在加载时忽略。重新运行时跳过已完成且内容未变的文件，其他文件重新处理。
+ * 写出识别结果前先追加"OUTPUT\t输出文件路径\t文件路径"记录输出文件，打开时删除未完成的文件留下的输出，
+ * 重新处理时不会留下中途退出时写了一半的txt/srt等文件。
+ * 打开时把每个文件只保留最新状态重写一遍，避免日志无限增长。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class JobJournal {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(JobJournal.class);
+
+    // 输出文件记录的行首
+    private static final String OUTPUT_PREFIX = "OUTPUT\t";
+
+    private final Path file;
+    // 文件路径到最新一条记录
+    private final Map<String, Entry> entries = new HashMap<>();
+    // 文件路径到本次处理已创建的输出文件，完成或重新加入队列时清除
+    private final Map<String, List<String>> outputs = new HashMap<>();
+    private final FileChannel channel;
+
+    /**
+     * 打开任务日志，加载已有记录
+     *
+     * @param file 日志文件
+     * @throws IOException 读取或创建日志文件失败时抛出
+     */
+    public JobJournal(Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        load();
+        removePartialOutputs();
+        compact();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * 判断文件是否已在之前的运行中处理完成，且此后没有被修改
+     *
+     * @param wavPath 音频文件路径
+     * @return 已完成时返回true
+     */
+    public synchronized boolean isDone(String wavPath) {
+        Entry entry = entries.get(keyOf(wavPath));
+        if (entry == null || entry.state != JobState.DONE) {
+            return false;
+        }
+        try {
+            Path path = Paths.get(wavPath);
+            return entry.size == Files.size(path) && entry.modified == Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 追加一条状态记录，与该文件当前状态相同时不重复记录。
+     * 文件大小和修改时间在加入队列时读取，之后的记录沿用。
+     *
+     * @param wavPath 音频文件路径
+     * @param state   新状态
+     */
+    public synchronized void record(String wavPath, JobState state) {
+        String key = keyOf(wavPath);
+        Entry previous = entries.get(key);
+        if (previous != null && previous.state == state) {
+            return;
+        }
+        Entry entry;
+        if (state == JobState.QUEUED || previous == null) {
+            long size = -1;
+            long modified = -1;
+            try {
+                Path path = Paths.get(wavPath);
+                size = Files.size(path);
+                modified = Files.getLastModifiedTime(path).toMillis();
+            } catch (IOException e) {
+                logger.warn("读取文件信息失败：{}", wavPath, e);
+            }
+            entry = new Entry(state, size, modified);
+        } else {
+            entry = new Entry(state, previous.size, previous.modified);
+        }
+        entries.put(key, entry);
+        if (state == JobState.QUEUED || state == JobState.DONE) {
+            outputs.remove(key);
+        }
+        append(entry.format(key), state == JobState.DONE);
+    }
+
+    /**
+     * 记录一个文件的输出文件，在写入输出内容之前调用。
+     * 该文件没有完成时进程退出，下次打开日志时删除这些输出文件
+     *
+     * @param wavPath 音频文件路径
+     * @param paths   输出文件路径
+     */
+    public synchronized void recordOutputs(String wavPath, List<String> paths) {
+        String key = keyOf(wavPath);
+        StringBuilder lines = new StringBuilder();
+        for (String path : paths) {
+            outputs.computeIfAbsent(key, k -> new ArrayList<>()).add(path);
+            lines.append(OUTPUT_PREFIX).append(path).append('\t').append(key).append('\n');
+        }
+        if (lines.length() > 0) {
+            append(lines.toString(), false);
+        }
+    }
+
+    /**
+     * 在日志末尾追加记录
+     *
+     * @param lines 以换行结尾的记录
+     * @param force 是否写入磁盘后再返回
+     */
+    private void append(String lines, boolean force) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (force) {
+                // 完成状态决定下次是否跳过该文件，写入磁盘后再返回
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            logger.error("写入任务日志失败：{}", file, e);
+        }
+    }
+
+    /**
+     * 关闭任务日志
+     */
+    public synchronized void close() {
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("关闭任务日志失败：{}", file, e);
+        }
+    }
+
+    /**
+     * 加载已有记录，同一文件以最后一条为准，格式不正确的行忽略
+     */
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        int done = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(OUTPUT_PREFIX)) {
+                    String[] parts = line.split("\t", 3);
+                    if (parts.length == 3) {
+                        outputs.computeIfAbsent(parts[2], k -> new ArrayList<>()).add(parts[1]);
+                    }
+                    continue;
+                }
+                String[] parts = line.split("\t", 4);
+                if (parts.length != 4) {
+                    continue;
+                }
+                try {
+                    JobState state = JobState.valueOf(parts[0]);
+                    entries.put(parts[3], new Entry(state, Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+                    if (state == JobState.QUEUED || state == JobState.DONE) {
+                        // 重新加入队列前和完成后的输出文件都是完整的
+                        outputs.remove(parts[3]);
+                    }
+                } catch (IllegalArgumentException e) {
+                    logger.debug("忽略任务日志中格式不正确的行：{}", line);
+                }
+            }
+        }
+        for (Entry entry : entries.values()) {
+            if (entry.state == JobState.DONE) {
+                done++;
+            }
+        }
+        logger.info("加载任务日志：{}，{}个文件，已完成{}个", file, entries.size(), done);
+    }
+
+    /**
+     * 删除上次运行中没有完成的文件已创建的输出文件，这些文件可能只写了一部分，重新处理时会重新生成
+     */
+    private void removePartialOutputs() {
+        for (Map.Entry<String, List<String>> entry : outputs.entrySet()) {
+            for (String output : entry.getValue()) {
+                try {
+                    if (Files.deleteIfExists(Paths.get(output))) {
+                        logger.info("删除未完成文件的输出：{}（{}）", output, entry.getKey());
+                    }
+                } catch (IOException e) {
+                    logger.warn("删除未完成文件的输出失败：{}", output, e);
+                }
+            }
+        }
+        outputs.clear();
+    }
+
+    /**
+     * 每个文件只保留最新状态重写日志，先写临时文件再替换，避免中断时留下不完整的日志
+     */
+    private void compact() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writer.write(entry.getValue().format(entry.getKey()));
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 同一文件使用不同的相对路径时也对应同一条记录
+     */
+    private static String keyOf(String wavPath) {
+        return Paths.get(wavPath).toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * 一个文件的最新记录
+     */
+    private static class Entry {
+        private final JobState state;
+        private final long size;
+        private final long modified;
+
+        Entry(JobState state, long size, long modified) {
+            this.state = state;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        String format(String key) {
+            return state + "\t" + size + "\t" + modified + "\t" + key + "\n";
+        }
+    }
+}
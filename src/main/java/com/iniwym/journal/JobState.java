@@ -0,0 +1,19 @@
+package com.iniwym.journal;
+
+/**
+ * @Description: 任务日志中记录的文件处理状态，按处理顺序排列
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public enum JobState {
+    // 已加入待处理队列
+    QUEUED,
+    // 音频已开始发送给服务端
+    SENT,
+    // 已收到服务端的识别结果，正在写出
+    RECEIVED,
+    // 所有输出文件都已写完
+    DONE,
+    // 处理失败
+    FAILED
+}
@@ -0,0 +1,74 @@
+package com.iniwym.metrics;
+
+/**
+ * @Description: 客户端的各项指标：发送耗时、发送结束到收到结果的耗时、每个文件的总耗时、
+ * 发送字节数、已识别的音频时长、重试和重连次数等。
+ * 活跃会话数和积压文件数由会话池注册为仪表。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class ClientMetrics {
+
+    // 耗时直方图的桶，单位秒
+    private static final double[] SECONDS_BUCKETS = {0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120, 300, 600};
+
+    // 全部客户端指标
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    public static final MetricsRegistry.Histogram SEND_SECONDS = REGISTRY.histogram("funasr_send_duration_seconds",
+            "Time to send one file or segment, from the start message to the end-of-speech message.", SECONDS_BUCKETS);
+    public static final MetricsRegistry.Histogram RESULT_SECONDS = REGISTRY.histogram("funasr_eof_to_result_seconds",
+            "Time from sending end-of-speech to receiving the final result.", SECONDS_BUCKETS);
+    public static final MetricsRegistry.Histogram FILE_SECONDS = REGISTRY.histogram("funasr_file_duration_seconds",
+            "Time from first dispatch of a file to its completion, including retries.", SECONDS_BUCKETS);
+    public static final MetricsRegistry.Counter BYTES_SENT = REGISTRY.counter("funasr_bytes_sent_total", "",
+            "Audio bytes sent to the server.");
+    public static final MetricsRegistry.Counter AUDIO_SECONDS = REGISTRY.counter("funasr_audio_seconds_total", "",
+            "Seconds of audio successfully transcribed.");
+    public static final MetricsRegistry.Counter FILES_SUCCEEDED = REGISTRY.counter("funasr_files_total", "result=\"success\"",
+            "Files finished, by result.");
+    public static final MetricsRegistry.Counter FILES_FAILED = REGISTRY.counter("funasr_files_total", "result=\"failed\"",
+            "Files finished, by result.");
+    public static final MetricsRegistry.Counter FILES_SKIPPED = REGISTRY.counter("funasr_files_total", "result=\"skipped\"",
+            "Files finished, by result.");
+    public static final MetricsRegistry.Counter CACHE_HITS = REGISTRY.counter("funasr_cache_hits_total", "",
+            "Files answered from the transcript cache.");
+    public static final MetricsRegistry.Counter RETRIES = REGISTRY.counter("funasr_retries_total", "",
+            "Files or segments re-sent after a failure.");
+    public static final MetricsRegistry.Counter RECONNECTS = REGISTRY.counter("funasr_reconnects_total", "",
+            "Reconnect attempts after no server accepted a connection.");
+    public static final MetricsRegistry.Counter SEND_STALLS = REGISTRY.counter("funasr_send_stalls_total", "",
+            "Times a send loop paused because the connection's outbound queue exceeded the high watermark.");
+    public static final MetricsRegistry.Counter SEND_STALL_SECONDS = REGISTRY.counter("funasr_send_stall_seconds_total", "",
+            "Time send loops spent paused waiting for the outbound queue to drain below the low watermark.");
+    public static final MetricsRegistry.Counter NOTIFICATIONS_DROPPED = REGISTRY.counter("funasr_notifications_dropped_total", "",
+            "Notification events dropped because the notification queue was full.");
+
+    // 开始处理的时间，用于计算实时率
+    private static volatile long startNanos = System.nanoTime();
+
+    static {
+        REGISTRY.gauge("funasr_realtime_factor", "Seconds of audio transcribed per wall-clock second since start.",
+                ClientMetrics::realtimeFactor);
+    }
+
+    private ClientMetrics() {
+    }
+
+    /**
+     * 记录开始处理的时间
+     */
+    public static void markStart() {
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * 开始处理以来每秒识别的音频时长
+     *
+     * @return 实时率，大于1表示快于实时
+     */
+    public static double realtimeFactor() {
+        double elapsed = (System.nanoTime() - startNanos) / 1e9;
+        return elapsed <= 0 ? 0 : AUDIO_SECONDS.get() / elapsed;
+    }
+}
@@ -0,0 +1,235 @@
+package com.iniwym.metrics;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * @Description: 简单的指标注册表，支持计数器、仪表和直方图，并输出为Prometheus文本格式。
+ * 记录指标只做无锁的累加，不影响发送和接收线程；只有输出时才读取各指标的当前值。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class MetricsRegistry {
+
+    // 指标名称加标签到指标，按注册顺序输出
+    private final Map<String, Metric> metrics = new LinkedHashMap<>();
+
+    /**
+     * 注册计数器
+     *
+     * @param name   指标名称
+     * @param labels 标签，例如result="success"，没有标签时为空字符串
+     * @param help   说明
+     * @return 计数器
+     */
+    public synchronized Counter counter(String name, String labels, String help) {
+        Counter counter = new Counter(name, labels, help);
+        metrics.put(name + "{" + labels + "}", counter);
+        return counter;
+    }
+
+    /**
+     * 注册直方图
+     *
+     * @param name    指标名称
+     * @param help    说明
+     * @param buckets 各桶的上限，递增
+     * @return 直方图
+     */
+    public synchronized Histogram histogram(String name, String help, double... buckets) {
+        Histogram histogram = new Histogram(name, help, buckets);
+        metrics.put(name, histogram);
+        return histogram;
+    }
+
+    /**
+     * 注册仪表，输出时调用取值函数，同名的仪表重新注册时替换原来的取值函数
+     *
+     * @param name     指标名称
+     * @param help     说明
+     * @param supplier 取值函数
+     */
+    public synchronized void gauge(String name, String help, DoubleSupplier supplier) {
+        metrics.put(name, new Gauge(name, help, supplier));
+    }
+
+    /**
+     * 输出全部指标的Prometheus文本格式
+     *
+     * @return 文本
+     */
+    public String render() {
+        List<Metric> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(metrics.values());
+        }
+        StringBuilder out = new StringBuilder(4096);
+        // 同名不同标签的指标只输出一次说明和类型
+        Set<String> described = new HashSet<>();
+        for (Metric metric : snapshot) {
+            if (described.add(metric.name)) {
+                out.append("# HELP ").append(metric.name).append(' ').append(metric.help).append('\n');
+                out.append("# TYPE ").append(metric.name).append(' ').append(metric.type()).append('\n');
+            }
+            metric.write(out);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 格式化数值，整数不输出小数部分
+     */
+    private static String format(double value) {
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * 指标的公共部分
+     */
+    private abstract static class Metric {
+        final String name;
+        final String help;
+
+        Metric(String name, String help) {
+            this.name = name;
+            this.help = help;
+        }
+
+        abstract String type();
+
+        abstract void write(StringBuilder out);
+    }
+
+    /**
+     * 只增不减的计数器
+     */
+    public static class Counter extends Metric {
+        private final String labels;
+        private final DoubleAdder value = new DoubleAdder();
+
+        Counter(String name, String labels, String help) {
+            super(name, help);
+            this.labels = labels;
+        }
+
+        public void inc() {
+            value.add(1);
+        }
+
+        public void add(double amount) {
+            value.add(amount);
+        }
+
+        public double get() {
+            return value.sum();
+        }
+
+        @Override
+        String type() {
+            return "counter";
+        }
+
+        @Override
+        void write(StringBuilder out) {
+            out.append(name);
+            if (!labels.isEmpty()) {
+                out.append('{').append(labels).append('}');
+            }
+            out.append(' ').append(format(value.sum())).append('\n');
+        }
+    }
+
+    /**
+     * 输出时取值的仪表
+     */
+    private static class Gauge extends Metric {
+        private final DoubleSupplier supplier;
+
+        Gauge(String name, String help, DoubleSupplier supplier) {
+            super(name, help);
+            this.supplier = supplier;
+        }
+
+        @Override
+        String type() {
+            return "gauge";
+        }
+
+        @Override
+        void write(StringBuilder out) {
+            out.append(name).append(' ').append(format(supplier.getAsDouble())).append('\n');
+        }
+    }
+
+    /**
+     * 按固定的桶统计分布的直方图
+     */
+    public static class Histogram extends Metric {
+        private final double[] bounds;
+        // 每个桶的计数（不累计），最后一个为超过所有上限的部分
+        private final LongAdder[] counts;
+        private final DoubleAdder sum = new DoubleAdder();
+
+        Histogram(String name, String help, double[] bounds) {
+            super(name, help);
+            this.bounds = bounds.clone();
+            this.counts = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * 记录一个观测值
+         *
+         * @param value 观测值
+         */
+        public void observe(double value) {
+            int i = 0;
+            while (i < bounds.length && value > bounds[i]) {
+                i++;
+            }
+            counts[i].increment();
+            sum.add(value);
+        }
+
+        /**
+         * 记录一段耗时
+         *
+         * @param startNanos 开始时的System.nanoTime()
+         */
+        public void observeSince(long startNanos) {
+            observe((System.nanoTime() - startNanos) / 1e9);
+        }
+
+        @Override
+        String type() {
+            return "histogram";
+        }
+
+        @Override
+        void write(StringBuilder out) {
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i].sum();
+                String le = i < bounds.length ? format(bounds[i]) : "+Inf";
+                out.append(name).append("_bucket{le=\"").append(le).append("\"} ").append(cumulative).append('\n');
+            }
+            out.append(name).append("_sum ").append(format(sum.sum())).append('\n');
+            out.append(name).append("_count ").append(cumulative).append('\n');
+        }
+    }
+}
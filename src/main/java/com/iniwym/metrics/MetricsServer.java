@@ -0,0 +1,61 @@
+package com.iniwym.metrics;
+
+import com.iniwym.scheduler.TaskScheduler;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * @Description: 在本地HTTP端口的/metrics路径上以Prometheus文本格式输出指标，使用JDK自带的HttpServer
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class MetricsServer {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(MetricsServer.class);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * 启动指标服务
+     *
+     * @param host     监听地址
+     * @param port     监听端口
+     * @param registry 输出的指标
+     * @throws IOException 端口无法监听时抛出
+     */
+    public MetricsServer(String host, int port, MetricsRegistry registry) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/metrics", exchange -> {
+            try {
+                byte[] body = registry.render().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        executor = TaskScheduler.newWorkerPool("metrics", 1, 16);
+        server.setExecutor(executor);
+        server.start();
+        logger.info("指标服务已启动：http://{}:{}/metrics", host, server.getAddress().getPort());
+    }
+
+    /**
+     * 停止指标服务
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,20 @@
+package com.iniwym.notify;
+
+import java.io.IOException;
+
+/**
+ * @Description: 通知的发送目标，由{@link Notifier}的后台线程调用，可以阻塞
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public interface NotificationTarget {
+
+    /**
+     * 发送一条通知
+     *
+     * @param title 标题
+     * @param body  正文
+     * @throws IOException 发送失败时抛出
+     */
+    void send(String title, String body) throws IOException;
+}
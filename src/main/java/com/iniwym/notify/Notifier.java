@@ -0,0 +1,272 @@
+package com.iniwym.notify;
+
+import com.iniwym.metrics.ClientMetrics;
+import com.iniwym.scheduler.TaskScheduler;
+import com.iniwym.utils.ConfigReaderUtil;
+import com.iniwym.utils.LarkUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description: 后台发送通知。识别线程只把事件放入有界队列，不等待HTTP请求；
+ * 队列满时丢弃新事件并计数，不会阻塞识别。
+ * 后台线程把一段时间内的完成、失败和汇总事件合并为一条摘要，两次发送之间至少间隔notifyIntervalSeconds，
+ * 关闭时立即发送尚未发送的事件。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class Notifier {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(Notifier.class);
+
+    // 通知标题
+    private static final String TITLE = "Funasr 语音识别";
+    // 摘要中最多列出的失败文件数量
+    private static final int MAX_LISTED_FAILURES = 10;
+    // 关闭时等待剩余通知发送完成的最长时间，单位毫秒
+    private static final long CLOSE_TIMEOUT_MILLIS = 15_000;
+    // 关闭时唤醒后台线程的空事件
+    private static final Event WAKE_UP = new Event(null, null);
+
+    /**
+     * 事件类型
+     */
+    public enum Kind {
+        // 单个文件识别完成
+        PROGRESS,
+        // 单个文件多次重试后仍然失败
+        FAILURE,
+        // 一批文件处理完毕的汇总
+        SUMMARY
+    }
+
+    private final NotificationTarget target;
+    private final Set<Kind> kinds;
+    private final long intervalMillis;
+    private final BlockingQueue<Event> queue;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    // 以下字段只在后台线程中访问：尚未发送的摘要内容
+    private int succeeded;
+    private int failed;
+    private final List<String> failures = new ArrayList<>();
+    private final List<String> summaries = new ArrayList<>();
+    private long droppedReported;
+    private long lastSentMillis;
+
+    /**
+     * 构造通知发送器，target为null时不发送任何通知
+     *
+     * @param target          发送目标
+     * @param kinds           需要发送的事件类型
+     * @param intervalSeconds 两次发送之间的最短间隔，单位秒
+     * @param queueSize       事件队列容量
+     */
+    public Notifier(NotificationTarget target, Set<Kind> kinds, int intervalSeconds, int queueSize) {
+        this.target = target;
+        this.kinds = kinds;
+        this.intervalMillis = Math.max(0, intervalSeconds) * 1000L;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        if (target == null) {
+            this.thread = null;
+            return;
+        }
+        this.thread = TaskScheduler.newDaemonThread("notify", this::run);
+        this.thread.start();
+    }
+
+    /**
+     * 按配置构造通知发送器，没有配置webhook地址时不发送通知
+     *
+     * @return 通知发送器
+     */
+    public static Notifier fromConfig() {
+        String url = LarkUtils.webhookUrl();
+        Set<Kind> kinds = EnumSet.noneOf(Kind.class);
+        for (String item : ConfigReaderUtil.getPropertyKey("notifyEvents", "failure,summary").split(",")) {
+            if (item.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                kinds.add(Kind.valueOf(item.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                logger.warn("未知的通知事件类型，已忽略：{}", item.trim());
+            }
+        }
+        return new Notifier(url == null ? null : new WebhookTarget(url), kinds,
+                ConfigReaderUtil.getIntPropertyKey("notifyIntervalSeconds", 60),
+                ConfigReaderUtil.getIntPropertyKey("notifyQueueSize", 1000));
+    }
+
+    /**
+     * 文件识别完成
+     *
+     * @param wavPath 音频文件路径
+     */
+    public void progress(String wavPath) {
+        offer(Kind.PROGRESS, wavPath);
+    }
+
+    /**
+     * 文件多次重试后仍然失败
+     *
+     * @param wavPath  音频文件路径
+     * @param attempts 尝试次数
+     */
+    public void failure(String wavPath, int attempts) {
+        offer(Kind.FAILURE, wavPath + "（尝试" + attempts + "次）");
+    }
+
+    /**
+     * 一批文件处理完毕
+     *
+     * @param text 汇总信息
+     */
+    public void summary(String text) {
+        offer(Kind.SUMMARY, text);
+    }
+
+    private void offer(Kind kind, String text) {
+        if (thread == null || closed || !kinds.contains(kind)) {
+            return;
+        }
+        if (!queue.offer(new Event(kind, text))) {
+            ClientMetrics.NOTIFICATIONS_DROPPED.inc();
+        }
+    }
+
+    /**
+     * 停止接收事件，发送剩余的事件后返回，最多等待一段时间
+     */
+    public void close() {
+        if (thread == null) {
+            return;
+        }
+        closed = true;
+        // 队列已满时后台线程正在取事件，不需要唤醒
+        queue.offer(WAKE_UP);
+        try {
+            thread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 后台线程：收集事件，到达发送间隔后合并发送
+     */
+    private void run() {
+        while (!closed) {
+            long wait = hasPending() ? lastSentMillis + intervalMillis - System.currentTimeMillis() : intervalMillis;
+            try {
+                Event event = queue.poll(Math.max(wait, 1), TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    add(event);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            drain();
+            if (hasPending() && System.currentTimeMillis() - lastSentMillis >= intervalMillis) {
+                flush();
+            }
+        }
+        drain();
+        if (hasPending()) {
+            flush();
+        }
+    }
+
+    private void drain() {
+        Event event;
+        while ((event = queue.poll()) != null) {
+            add(event);
+        }
+    }
+
+    private void add(Event event) {
+        if (event == WAKE_UP) {
+            return;
+        }
+        switch (event.kind) {
+            case PROGRESS:
+                succeeded++;
+                break;
+            case FAILURE:
+                failed++;
+                if (failures.size() < MAX_LISTED_FAILURES) {
+                    failures.add(event.text);
+                }
+                break;
+            default:
+                summaries.add(event.text);
+                break;
+        }
+    }
+
+    private boolean hasPending() {
+        return succeeded > 0 || failed > 0 || !summaries.isEmpty()
+                || ClientMetrics.NOTIFICATIONS_DROPPED.get() > droppedReported;
+    }
+
+    /**
+     * 把收集到的事件合并为一条摘要发送，发送失败时记录日志后丢弃
+     */
+    private void flush() {
+        StringBuilder body = new StringBuilder();
+        for (String summary : summaries) {
+            body.append(summary).append('\n');
+        }
+        if (succeeded > 0) {
+            body.append("识别完成 ").append(succeeded).append(" 个文件\n");
+        }
+        if (failed > 0) {
+            body.append("识别失败 ").append(failed).append(" 个文件：\n");
+            for (String failure : failures) {
+                body.append("  ").append(failure).append('\n');
+            }
+            if (failed > failures.size()) {
+                body.append("  ……等 ").append(failed).append(" 个\n");
+            }
+        }
+        long dropped = (long) ClientMetrics.NOTIFICATIONS_DROPPED.get();
+        if (dropped > droppedReported) {
+            body.append("通知队列已满，丢弃 ").append(dropped - droppedReported).append(" 条事件\n");
+        }
+        succeeded = 0;
+        failed = 0;
+        failures.clear();
+        summaries.clear();
+        droppedReported = dropped;
+        lastSentMillis = System.currentTimeMillis();
+        try {
+            target.send(TITLE, body.toString().trim());
+            logger.info("通知发送成功");
+        } catch (IOException e) {
+            logger.error("通知发送失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 一个待发送的事件
+     */
+    private static class Event {
+        private final Kind kind;
+        private final String text;
+
+        Event(Kind kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.iniwym.notify;
+
+import com.iniwym.utils.LarkUtils;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description: 以飞书机器人的消息格式POST到webhook地址。
+ * 所有实例共用一个OkHttpClient，复用连接池和线程，不为每条通知新建客户端。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class WebhookTarget implements NotificationTarget {
+
+    private static final MediaType JSON_TYPE = MediaType.get("application/json; charset=utf-8");
+    // 共用的HTTP客户端，超时较短，避免通知线程长时间卡在无响应的地址上
+    private static final OkHttpClient CLIENT = new OkHttpClient.Builder()
+            .connectTimeout(5, TimeUnit.SECONDS)
+            .readTimeout(10, TimeUnit.SECONDS)
+            .writeTimeout(10, TimeUnit.SECONDS)
+            .build();
+
+    private final String url;
+
+    /**
+     * 构造webhook发送目标
+     *
+     * @param url webhook地址
+     */
+    public WebhookTarget(String url) {
+        this.url = url;
+    }
+
+    @Override
+    public void send(String title, String body) throws IOException {
+        Request request = new Request.Builder()
+                .url(url)
+                .post(RequestBody.create(LarkUtils.buildMessage(title, body), JSON_TYPE))
+                .build();
+        try (Response response = CLIENT.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("HTTP响应码: " + response.code());
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.iniwym.output;
+
+import com.alibaba.fastjson.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * @Description: JSONL格式：每行一个句子对象，便于后续脚本逐行读取，不需要解析整个结果文件。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class JsonlSink implements TranscriptSink {
+
+    private final Writer writer;
+    private final String wavName;
+
+    /**
+     * 构造JSONL写入器
+     *
+     * @param writer  输出文件
+     * @param wavName 音频名称，写入每一行
+     */
+    public JsonlSink(Writer writer, String wavName) {
+        this.writer = writer;
+        this.wavName = wavName;
+    }
+
+    @Override
+    public void write(Sentence sentence) throws IOException {
+        JSONObject line = new JSONObject(true);
+        line.put("wav_name", wavName);
+        line.put("index", sentence.getIndex());
+        line.put("start", sentence.getStart());
+        line.put("end", sentence.getEnd());
+        line.put("text", sentence.getText());
+        line.put("punc", sentence.getPunc());
+        writer.write(line.toJSONString());
+        writer.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,73 @@
+package com.iniwym.output;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * @Description: 支持的输出格式，每种格式写入run下各自的目录
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public enum OutputFormat {
+    TXT("outTxt", ".txt"),
+    SRT("outSrt", ".srt"),
+    VTT("outVtt", ".vtt"),
+    JSONL("outJsonl", ".jsonl");
+
+    private final String folder;
+    private final String suffix;
+
+    OutputFormat(String folder, String suffix) {
+        this.folder = folder;
+        this.suffix = suffix;
+    }
+
+    public String getFolder() {
+        return folder;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * 创建该格式的写入器
+     *
+     * @param writer  已打开的输出文件
+     * @param wavName 音频名称
+     * @return 写入器
+     */
+    TranscriptSink createSink(Writer writer, String wavName) throws IOException {
+        switch (this) {
+            case SRT:
+                return new SubtitleSink(writer, false);
+            case VTT:
+                return new SubtitleSink(writer, true);
+            case JSONL:
+                return new JsonlSink(writer, wavName);
+            default:
+                return new TxtSink(writer, wavName);
+        }
+    }
+
+    /**
+     * 解析逗号分隔的格式列表，例如"txt,srt"
+     *
+     * @param value 配置值
+     * @return 格式集合，为空时只输出txt
+     */
+    public static Set<OutputFormat> parse(String value) {
+        Set<OutputFormat> formats = EnumSet.noneOf(OutputFormat.class);
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) {
+                formats.add(OutputFormat.valueOf(item.trim().toUpperCase()));
+            }
+        }
+        if (formats.isEmpty()) {
+            formats.add(TXT);
+        }
+        return formats;
+    }
+}
@@ -0,0 +1,52 @@
+package com.iniwym.output;
+
+/**
+ * @Description: stamp_sents中的一句识别结果，时间为整个音频中的毫秒数
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class Sentence {
+
+    private final int index;
+    private final String text;
+    private final String punc;
+    private final long start;
+    private final long end;
+
+    /**
+     * 构造一句识别结果
+     *
+     * @param index 句子序号，从0开始
+     * @param text  调整空格后的文本，不含标点
+     * @param punc  句末标点，可能为空字符串
+     * @param start 开始时间，单位毫秒
+     * @param end   结束时间，单位毫秒
+     */
+    public Sentence(int index, String text, String punc, long start, long end) {
+        this.index = index;
+        this.text = text;
+        this.punc = punc == null ? "" : punc;
+        this.start = start;
+        this.end = end;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getPunc() {
+        return punc;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+}
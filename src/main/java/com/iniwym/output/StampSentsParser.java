@@ -0,0 +1,89 @@
+package com.iniwym.output;
+
+import com.alibaba.fastjson2.JSONReader;
+import com.iniwym.text.TextSegNormalizer;
+
+import java.io.IOException;
+
+/**
+ * @Description: 增量解析服务端返回的识别结果。
+ * 直接在消息文本上顺序读取，stamp_sents中每解析出一句就交给写入器，其余字段跳过，
+ * 不构造完整的JSON对象树，长音频的结果再大，解析过程中也只保留当前这一句。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class StampSentsParser {
+
+    private StampSentsParser() {
+    }
+
+    /**
+     * 解析识别结果，逐句写入
+     *
+     * @param message 服务端返回的JSON文本
+     * @param sink    写入器
+     * @return 解析出的句子数量
+     * @throws IOException 写入失败或消息不是JSON对象时抛出
+     */
+    public static int parse(String message, TranscriptSink sink) throws IOException {
+        int count = 0;
+        TextSegNormalizer normalizer = new TextSegNormalizer();
+        try (JSONReader reader = JSONReader.of(message)) {
+            if (!reader.nextIfObjectStart()) {
+                throw new IOException("Result is not a JSON object");
+            }
+            while (!reader.nextIfObjectEnd()) {
+                String name = reader.readFieldName();
+                if ("stamp_sents".equals(name) && reader.nextIfMatch('[')) {
+                    while (!reader.nextIfMatch(']')) {
+                        sink.write(readSentence(reader, count++, normalizer));
+                        // 对象和数组结束后的逗号需要单独跳过
+                        reader.nextIfMatch(',');
+                    }
+                    reader.nextIfMatch(',');
+                } else {
+                    reader.skipValue();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 读取stamp_sents中的一个元素，只保留输出需要的字段
+     */
+    private static Sentence readSentence(JSONReader reader, int index, TextSegNormalizer normalizer) throws IOException {
+        if (!reader.nextIfObjectStart()) {
+            throw new IOException("stamp_sents item is not a JSON object");
+        }
+        String textSeg = "";
+        String punc = "";
+        long start = 0;
+        long end = 0;
+        while (!reader.nextIfObjectEnd()) {
+            String name = reader.readFieldName();
+            if (reader.nextIfNull()) {
+                continue;
+            }
+            switch (name) {
+                case "text_seg":
+                    textSeg = reader.readString();
+                    break;
+                case "punc":
+                    punc = reader.readString();
+                    break;
+                case "start":
+                    start = reader.readInt64Value();
+                    break;
+                case "end":
+                    end = reader.readInt64Value();
+                    break;
+                default:
+                    // ts_list等其他字段不需要输出
+                    reader.skipValue();
+                    break;
+            }
+        }
+        return new Sentence(index, normalizer.normalize(textSeg), punc, start, end);
+    }
+}
@@ -0,0 +1,68 @@
+package com.iniwym.output;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * @Description: 字幕格式（SRT/WebVTT）：每句识别结果对应一条字幕，显示时间为该句的开始和结束时间。
+ * 两种格式的区别只在于文件头、序号行和毫秒分隔符。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class SubtitleSink implements TranscriptSink {
+
+    private final Writer writer;
+    private final boolean webVtt;
+    private int cueNumber;
+
+    /**
+     * 构造字幕写入器
+     *
+     * @param writer 输出文件
+     * @param webVtt true为WebVTT格式，false为SRT格式
+     */
+    public SubtitleSink(Writer writer, boolean webVtt) throws IOException {
+        this.writer = writer;
+        this.webVtt = webVtt;
+        if (webVtt) {
+            writer.write("WEBVTT\n\n");
+        }
+    }
+
+    @Override
+    public void write(Sentence sentence) throws IOException {
+        String text = sentence.getText() + sentence.getPunc();
+        if (text.trim().isEmpty()) {
+            return;
+        }
+        cueNumber++;
+        if (!webVtt) {
+            writer.write(Integer.toString(cueNumber));
+            writer.write('\n');
+        }
+        // 结束时间缺失时至少显示到开始时间
+        long end = Math.max(sentence.getStart(), sentence.getEnd());
+        writer.write(formatTime(sentence.getStart()) + " --> " + formatTime(end) + "\n");
+        writer.write(text);
+        writer.write("\n\n");
+    }
+
+    /**
+     * 将毫秒数转换为字幕时间格式，SRT为00:00:00,000，WebVTT为00:00:00.000
+     *
+     * @param milliseconds 毫秒数
+     * @return 格式化后的时间字符串
+     */
+    private String formatTime(long milliseconds) {
+        long millis = milliseconds % 1000;
+        long secs = (milliseconds / 1000) % 60;
+        long mins = (milliseconds / 60000) % 60;
+        long hours = milliseconds / 3600000;
+        return String.format("%02d:%02d:%02d%c%03d", hours, mins, secs, webVtt ? '.' : ',', millis);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
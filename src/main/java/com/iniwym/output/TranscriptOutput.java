@@ -0,0 +1,307 @@
+package com.iniwym.output;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.iniwym.text.TextSegNormalizer;
+import com.iniwym.utils.ConfigReaderUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * @Description: 把一个文件的识别结果写成配置的各种输出格式。
+ * stamp_sents只遍历一次，每句同时交给所有格式的写入器；每个输出文件只打开一次，使用带缓冲的写入。
+ * 句子可以来自已解析的JSON对象，也可以由{@link StampSentsParser}从消息文本中边解析边写入。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class TranscriptOutput implements TranscriptSink {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(TranscriptOutput.class);
+
+    // 配置的输出格式
+    private static final Set<OutputFormat> formats = OutputFormat.parse(ConfigReaderUtil.getPropertyKey("outputFormats", "txt"));
+
+    private final String wavName;
+    private final List<TranscriptSink> sinks;
+    private final List<String> paths;
+
+    private TranscriptOutput(String wavName, List<TranscriptSink> sinks, List<String> paths) {
+        this.wavName = wavName;
+        this.sinks = sinks;
+        this.paths = paths;
+    }
+
+    /**
+     * 打开一个文件的全部输出，任一格式打开失败时删除已创建的输出文件
+     *
+     * @param wavName 音频名称
+     * @param formats 输出格式
+     * @return 同时写入所有格式的写入器
+     * @throws IOException 创建或打开输出文件失败时抛出
+     */
+    public static TranscriptOutput open(String wavName, Set<OutputFormat> formats) throws IOException {
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss_").format(new Date());
+        TranscriptOutput output = new TranscriptOutput(wavName, new ArrayList<>(formats.size()), new ArrayList<>(formats.size()));
+        for (OutputFormat format : formats) {
+            try {
+                Path path = createOutputFile(format, timestamp + wavName);
+                output.paths.add(path.toString());
+                Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.WRITE);
+                try {
+                    output.sinks.add(format.createSink(writer, wavName));
+                } catch (IOException e) {
+                    writer.close();
+                    throw e;
+                }
+            } catch (IOException e) {
+                logger.error("Error opening {} output for {}: {}", format, wavName, e.getMessage());
+                output.discard();
+                throw e;
+            }
+        }
+        return output;
+    }
+
+    /**
+     * 按配置的输出格式写出识别结果
+     *
+     * @param result 识别结果
+     * @return 写出的文件路径
+     * @throws IOException 写入失败时抛出，已写出一部分的输出文件已删除
+     */
+    public static List<String> write(JSONObject result) throws IOException {
+        return writeResult(result, formats, null);
+    }
+
+    /**
+     * 按配置的输出格式写出识别结果，输出文件创建后、写入内容前先通知调用方
+     *
+     * @param result   识别结果
+     * @param onOpened 输出文件创建后的回调，参数为文件路径，例如记录到任务日志，中途退出后据此删除不完整的输出
+     * @return 写出的文件路径
+     * @throws IOException 写入失败时抛出，已写出一部分的输出文件已删除
+     */
+    public static List<String> write(JSONObject result, Consumer<List<String>> onOpened) throws IOException {
+        return writeResult(result, formats, onOpened);
+    }
+
+    /**
+     * 按指定的输出格式写出识别结果
+     *
+     * @param result  识别结果
+     * @param formats 输出格式
+     * @return 写出的文件路径
+     * @throws IOException 写入失败时抛出，已写出一部分的输出文件已删除
+     */
+    public static List<String> write(JSONObject result, Set<OutputFormat> formats) throws IOException {
+        return writeResult(result, formats, null);
+    }
+
+    /**
+     * 按配置的输出格式，直接从服务端返回的消息文本中边解析边写出识别结果，不构造JSON对象
+     *
+     * @param wavName 音频名称
+     * @param message 服务端返回的JSON文本
+     * @return 写出的文件路径
+     * @throws IOException 消息格式错误或写入失败时抛出
+     */
+    public static List<String> write(String wavName, String message) throws IOException {
+        return writeMessage(wavName, message, formats, null);
+    }
+
+    /**
+     * 按配置的输出格式，直接从服务端返回的消息文本中边解析边写出识别结果，输出文件创建后、写入内容前先通知调用方
+     *
+     * @param wavName  音频名称
+     * @param message  服务端返回的JSON文本
+     * @param onOpened 输出文件创建后的回调，参数为文件路径
+     * @return 写出的文件路径
+     * @throws IOException 消息格式错误或写入失败时抛出
+     */
+    public static List<String> write(String wavName, String message, Consumer<List<String>> onOpened) throws IOException {
+        return writeMessage(wavName, message, formats, onOpened);
+    }
+
+    /**
+     * 按指定的输出格式，直接从服务端返回的消息文本中边解析边写出识别结果
+     *
+     * @param wavName 音频名称
+     * @param message 服务端返回的JSON文本
+     * @param formats 输出格式
+     * @return 写出的文件路径
+     * @throws IOException 消息格式错误或写入失败时抛出
+     */
+    public static List<String> write(String wavName, String message, Set<OutputFormat> formats) throws IOException {
+        return writeMessage(wavName, message, formats, null);
+    }
+
+    /**
+     * 遍历已解析的识别结果写出，写入或关闭失败时删除已写出一部分的输出文件后抛出异常
+     */
+    private static List<String> writeResult(JSONObject result, Set<OutputFormat> formats,
+                                            Consumer<List<String>> onOpened) throws IOException {
+        String wavName = result.getString("wav_name");
+        TranscriptOutput output = open(wavName, formats);
+        try {
+            if (onOpened != null) {
+                onOpened.accept(output.getPaths());
+            }
+            JSONArray stampSents = result.getJSONArray("stamp_sents");
+            int size = stampSents == null ? 0 : stampSents.size();
+            TextSegNormalizer normalizer = new TextSegNormalizer();
+            // 遍历 stamp_sents 数组中的每个元素，同时写入所有格式
+            for (int i = 0; i < size; i++) {
+                JSONObject item = stampSents.getJSONObject(i);
+                output.write(new Sentence(i, normalizer.normalize(item.getString("text_seg")),
+                        item.getString("punc"), item.getLongValue("start"), item.getLongValue("end")));
+            }
+            // 输出带缓冲，磁盘已满等写入错误通常在关闭时才出现
+            output.close();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Error writing transcript for {}: {}", wavName, e.getMessage());
+            output.discard();
+            throw e;
+        }
+        return output.getPaths();
+    }
+
+    /**
+     * 从消息文本中边解析边写出。
+     * 消息格式错误、写入或关闭失败时删除已写出一部分的输出文件，重试时不会留下不完整的结果
+     */
+    private static List<String> writeMessage(String wavName, String message, Set<OutputFormat> formats,
+                                             Consumer<List<String>> onOpened) throws IOException {
+        TranscriptOutput output = open(wavName, formats);
+        try {
+            if (onOpened != null) {
+                onOpened.accept(output.getPaths());
+            }
+            StampSentsParser.parse(message, output);
+            output.close();
+        } catch (IOException | RuntimeException e) {
+            output.discard();
+            throw e;
+        }
+        return output.getPaths();
+    }
+
+    /**
+     * 已打开的输出文件路径
+     *
+     * @return 文件路径
+     */
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    @Override
+    public void write(Sentence sentence) throws IOException {
+        for (TranscriptSink sink : sinks) {
+            sink.write(sentence);
+        }
+    }
+
+    /**
+     * 关闭所有输出文件，写入结尾内容并刷新缓冲
+     *
+     * @throws IOException 任一输出文件关闭失败时抛出，其余输出文件仍会关闭
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = closeSinks();
+        if (failure != null) {
+            throw failure;
+        }
+        logger.info("Transcript saved: {}", paths);
+    }
+
+    /**
+     * 写入失败时放弃输出：关闭并删除已打开的输出文件
+     */
+    public void discard() {
+        IOException failure = closeSinks();
+        if (failure != null) {
+            logger.warn("Error closing incomplete transcript for {}: {}", wavName, failure.getMessage());
+        }
+        for (String path : paths) {
+            try {
+                Files.deleteIfExists(Paths.get(path));
+            } catch (IOException e) {
+                logger.error("Error deleting incomplete transcript {}: {}", path, e.getMessage());
+            }
+        }
+        logger.warn("Incomplete transcript discarded: {}", paths);
+    }
+
+    /**
+     * 关闭全部尚未关闭的输出，每个输出只关闭一次
+     *
+     * @return 第一个关闭失败的异常，其余的作为被抑制的异常附加在上面；全部成功时返回null
+     */
+    private IOException closeSinks() {
+        IOException failure = null;
+        for (TranscriptSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        sinks.clear();
+        return failure;
+    }
+
+    /**
+     * 在run下该格式的目录中创建一个新的输出文件
+     *
+     * @param format   输出格式
+     * @param fileName 不含后缀的文件名
+     * @return 新创建的空文件路径
+     * @throws IOException 如果创建目录或文件时发生错误
+     */
+    private static Path createOutputFile(OutputFormat format, String fileName) throws IOException {
+        return createOutputFile(format.getFolder(), fileName, format.getSuffix());
+    }
+
+    /**
+     * 在run下的指定目录中创建一个新的输出文件。
+     * 不同目录下的同名音频可能在同一秒内完成，文件已存在时在文件名后加上_1、_2等序号，不会写入其他音频的输出文件
+     *
+     * @param folderName run下的目录名
+     * @param fileName   不含后缀的文件名
+     * @param suffix     文件后缀，包含点号
+     * @return 新创建的空文件路径
+     * @throws IOException 如果创建目录或文件时发生错误
+     */
+    public static Path createOutputFile(String folderName, String fileName, String suffix) throws IOException {
+        Path folder = Paths.get(System.getProperty("user.dir"), "run", folderName);
+        Files.createDirectories(folder);
+        for (int index = 0; ; index++) {
+            Path path = folder.resolve((index == 0 ? fileName : fileName + "_" + index) + suffix);
+            try {
+                return Files.createFile(path);
+            } catch (FileAlreadyExistsException e) {
+                // 换一个序号重试
+            }
+        }
+    }
+}
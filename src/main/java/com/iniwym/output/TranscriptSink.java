@@ -0,0 +1,21 @@
+package com.iniwym.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * @Description: 一个输出文件的写入器。
+ * 识别结果的句子按时间顺序逐句写入，整个文件只打开一次，关闭时写入结尾内容并释放文件。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public interface TranscriptSink extends Closeable {
+
+    /**
+     * 写入一句识别结果
+     *
+     * @param sentence 识别结果
+     * @throws IOException 写入失败时抛出
+     */
+    void write(Sentence sentence) throws IOException;
+}
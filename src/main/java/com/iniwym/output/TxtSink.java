@@ -0,0 +1,68 @@
+package com.iniwym.output;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * @Description: txt格式：第一行为标题，之后累积到句号或问号时输出一行"时:分:秒 文本"。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class TxtSink implements TranscriptSink {
+
+    private final Writer writer;
+    // 尚未遇到句号或问号的文本
+    private final StringBuilder accumulatedText = new StringBuilder();
+
+    /**
+     * 构造txt写入器并写入标题
+     *
+     * @param writer  输出文件
+     * @param wavName 音频名称
+     */
+    public TxtSink(Writer writer, String wavName) throws IOException {
+        this.writer = writer;
+        // 保存 wav_name 到输出文件中
+        writer.write("标题：【" + wavName + "】\n");
+    }
+
+    @Override
+    public void write(Sentence sentence) throws IOException {
+        String punc = sentence.getPunc();
+        accumulatedText.append(sentence.getText()).append(punc);
+        // 如果是句号或问号，则输出累积的文本
+        if ("。".equals(punc) || "？".equals(punc)) {
+            writer.write(formatTime(sentence.getStart() / 1000) + " " + accumulatedText + "\n");
+            // 清空累积文本
+            accumulatedText.setLength(0);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            // 如果最后没有以句号或问号结束，则输出剩余内容
+            if (accumulatedText.length() > 0) {
+                writer.write(formatTime(0) + " " + accumulatedText + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * 将秒数转换为小时、分钟和秒的格式。
+     *
+     * @param seconds 秒数
+     * @return 格式化后的时间字符串
+     */
+    public static String formatTime(long seconds) {
+        // 计算秒、分、小时
+        long secs = seconds % 60;
+        long mins = (seconds / 60) % 60;
+        long hours = (seconds / 3600);
+
+        // 返回格式化后的时间字符串
+        return String.format("%02d:%02d:%02d", hours, mins, secs);
+    }
+}
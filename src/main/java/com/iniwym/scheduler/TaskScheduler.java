@@ -0,0 +1,250 @@
+package com.iniwym.scheduler;
+
+import com.iniwym.utils.ConfigReaderUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Description: 统一创建和关闭客户端的后台线程。
+ * 所有线程池都有固定的线程数和有界的任务队列，线程按用途命名为funasr-名称-序号；
+ * 队列满时提交任务的线程等待队列腾出空间，而不是丢弃任务或无限堆积。
+ * 创建的线程池都登记在这里，使用方没有关闭的线程池在进程退出前由{@link #shutdownAll(long)}依次关闭，
+ * 等待已提交的任务完成，超时后中断仍在运行的任务。
+ * 配置virtualThreads=true且JVM支持虚拟线程（Java 21及以上）时，工作线程池改用虚拟线程，
+ * 定时线程和常驻线程仍使用平台线程；不支持时使用平台线程并记录日志。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public final class TaskScheduler {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(TaskScheduler.class);
+
+    // 线程名前缀
+    private static final String THREAD_PREFIX = "funasr-";
+    // 是否使用虚拟线程执行工作线程池的任务，JVM不支持时为false
+    private static final boolean virtualThreads = Boolean.parseBoolean(ConfigReaderUtil.getPropertyKey("virtualThreads", "false"))
+            && virtualThreadsSupported();
+    // 已创建且尚未关闭的线程池及其名称，按创建顺序
+    private static final Map<ExecutorService, String> executors = new LinkedHashMap<>();
+
+    // 队列满时让提交任务的线程等待，线程池已关闭时拒绝
+    private static final RejectedExecutionHandler BLOCK_WHEN_FULL = (task, executor) -> {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("线程池已关闭");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("等待任务队列时被中断", e);
+        }
+        // 等待期间线程池可能已关闭。正常关闭时仍有工作线程会执行完队列中的任务；
+        // 只有已经没有工作线程、或已立即关闭不再取任务时，队列中的任务才不会执行，此时取回并拒绝
+        if (executor.isShutdown() && noWorkerWillRun(executor) && executor.getQueue().remove(task)) {
+            throw new RejectedExecutionException("线程池已关闭");
+        }
+    };
+
+    private TaskScheduler() {
+    }
+
+    /**
+     * 工作线程池是否使用虚拟线程
+     *
+     * @return 使用虚拟线程时返回true
+     */
+    public static boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * 创建固定线程数、有界队列的工作线程池，用于会阻塞的任务（发送音频、写文件等）
+     *
+     * @param name          用途名称，线程名为funasr-名称-序号
+     * @param threads       线程数
+     * @param queueCapacity 排队任务的最大数量，队列满时提交任务的线程等待
+     * @return 线程池
+     */
+    public static ExecutorService newWorkerPool(String name, int threads, int queueCapacity) {
+        int size = Math.max(1, threads);
+        ThreadPoolExecutor executor = new WorkerPool(size, new LinkedBlockingQueue<>(Math.max(1, queueCapacity)),
+                virtualThreads ? virtualThreadFactory(name) : platformThreadFactory(name));
+        register(name, executor);
+        return executor;
+    }
+
+    /**
+     * 创建定时线程池，用于延迟和周期性任务，使用平台线程
+     *
+     * @param name    用途名称，线程名为funasr-名称-序号
+     * @param threads 线程数
+     * @return 线程池，取消的任务立即从队列中移除
+     */
+    public static ScheduledThreadPoolExecutor newScheduler(String name, int threads) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(Math.max(1, threads), platformThreadFactory(name));
+        executor.setRemoveOnCancelPolicy(true);
+        register(name, executor);
+        return executor;
+    }
+
+    /**
+     * 创建一个常驻的后台线程（守护线程），用于监听目录等在循环中等待事件的任务，由调用方负责启动和停止
+     *
+     * @param name 用途名称，线程名为funasr-名称
+     * @param task 任务
+     * @return 尚未启动的线程
+     */
+    public static Thread newDaemonThread(String name, Runnable task) {
+        Thread thread = new Thread(task, THREAD_PREFIX + name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * 关闭一个线程池：不再接收新任务，等待已提交的任务完成，超时后中断仍在运行的任务
+     *
+     * @param executor      线程池
+     * @param timeoutMillis 最长等待时间，单位毫秒
+     * @return 所有任务都已结束时返回true
+     */
+    public static boolean shutdown(ExecutorService executor, long timeoutMillis) {
+        executor.shutdown();
+        boolean terminated;
+        try {
+            terminated = executor.awaitTermination(Math.max(0, timeoutMillis), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            terminated = false;
+        }
+        String name = unregister(executor);
+        if (!terminated) {
+            logger.warn("线程池{}在{}ms内没有结束，中断剩余任务", name, timeoutMillis);
+            executor.shutdownNow();
+        }
+        return terminated;
+    }
+
+    /**
+     * 按创建顺序关闭所有尚未关闭的线程池，所有线程池共用一个等待时间
+     *
+     * @param timeoutMillis 最长等待时间，单位毫秒
+     * @return 所有任务都已结束时返回true
+     */
+    public static boolean shutdownAll(long timeoutMillis) {
+        List<ExecutorService> pending;
+        synchronized (executors) {
+            pending = new ArrayList<>(executors.keySet());
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        boolean allTerminated = true;
+        for (ExecutorService executor : pending) {
+            allTerminated &= shutdown(executor, deadline - System.currentTimeMillis());
+        }
+        return allTerminated;
+    }
+
+    /**
+     * 线程池关闭后，队列中的任务是否已不会再被执行：已调用shutdownNow()，或工作线程已全部退出。
+     * 正常关闭时最后一个工作线程退出前会检查队列，放入任务在前时会补充一个工作线程执行它，
+     * 因此放入任务后看到仍有工作线程时，任务一定会被执行。
+     */
+    private static boolean noWorkerWillRun(ThreadPoolExecutor executor) {
+        return (executor instanceof WorkerPool && ((WorkerPool) executor).stopped) || executor.getPoolSize() == 0;
+    }
+
+    private static void register(String name, ExecutorService executor) {
+        synchronized (executors) {
+            // 顺便移除使用方已自行关闭的线程池，避免反复创建时登记表不断增长
+            executors.keySet().removeIf(ExecutorService::isShutdown);
+            executors.put(executor, name);
+        }
+    }
+
+    private static String unregister(ExecutorService executor) {
+        synchronized (executors) {
+            String name = executors.remove(executor);
+            return name == null ? "" : name;
+        }
+    }
+
+    /**
+     * 工作线程池，记录是否调用过shutdownNow()：此后工作线程不再从队列中取任务
+     */
+    private static final class WorkerPool extends ThreadPoolExecutor {
+        // 是否已立即关闭，在清空队列之前设置
+        private volatile boolean stopped;
+
+        WorkerPool(int threads, LinkedBlockingQueue<Runnable> queue, ThreadFactory threadFactory) {
+            super(threads, threads, 0L, TimeUnit.MILLISECONDS, queue, threadFactory, BLOCK_WHEN_FULL);
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            stopped = true;
+            return super.shutdownNow();
+        }
+    }
+
+    /**
+     * 平台线程的工厂，线程为守护线程，名称带序号
+     */
+    private static ThreadFactory platformThreadFactory(String name) {
+        AtomicInteger index = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, THREAD_PREFIX + name + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 通过反射获取虚拟线程的工厂（Thread.ofVirtual().name(前缀, 1).factory()），客户端仍可在Java 8上编译运行
+     */
+    private static ThreadFactory virtualThreadFactory(String name) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method nameMethod = builderClass.getMethod("name", String.class, long.class);
+            builder = nameMethod.invoke(builder, THREAD_PREFIX + name + "-", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // 启动时已检查过，这里只在JVM行为异常时发生
+            logger.warn("创建虚拟线程失败，{}改用平台线程", name, e);
+            return platformThreadFactory(name);
+        }
+    }
+
+    /**
+     * JVM是否支持虚拟线程：Java 21及以上，或Java 19/20开启了预览特性
+     */
+    private static boolean virtualThreadsSupported() {
+        try {
+            ThreadFactory factory = (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                    .getMethod("factory")
+                    .invoke(Thread.class.getMethod("ofVirtual").invoke(null));
+            // 未开启预览特性时创建线程会抛出UnsupportedOperationException
+            factory.newThread(() -> {
+            });
+            logger.info("工作线程池使用虚拟线程");
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            logger.warn("当前JVM（{}）不支持虚拟线程，使用平台线程", System.getProperty("java.version"));
+            return false;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.iniwym.text;
+
+/**
+ * @Description: 判断码点是否属于中文相关的Unicode区块。
+ * 类加载时按区块表把基本平面和第二平面（扩展B所在的平面）预先计算为位图，
+ * 之后每次判断只是一次数组访问和位运算，不再对区块表做二分查找，也不分配对象。
+ * 区块与原先的判断保持一致：中日韩统一表意文字及扩展A、扩展B，兼容表意文字，
+ * 中日韩符号和标点，半角及全角字符，通用标点。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public final class CjkClassifier {
+
+    // 位图覆盖的码点上限（不含），即第0到第2平面
+    private static final int LIMIT = 0x30000;
+
+    // 中文相关的区块
+    private static final Character.UnicodeBlock[] BLOCKS = {
+            Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS,
+            Character.UnicodeBlock.CJK_COMPATIBILITY_IDEOGRAPHS,
+            Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A,
+            Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_B,
+            Character.UnicodeBlock.CJK_SYMBOLS_AND_PUNCTUATION,
+            Character.UnicodeBlock.HALFWIDTH_AND_FULLWIDTH_FORMS,
+            Character.UnicodeBlock.GENERAL_PUNCTUATION
+    };
+
+    // 每个码点一位，置位表示属于中文相关的区块
+    private static final long[] BITS = new long[LIMIT >>> 6];
+
+    static {
+        for (int codePoint = 0; codePoint < LIMIT; codePoint++) {
+            Character.UnicodeBlock block = Character.UnicodeBlock.of(codePoint);
+            for (Character.UnicodeBlock cjk : BLOCKS) {
+                if (block == cjk) {
+                    BITS[codePoint >>> 6] |= 1L << codePoint;
+                    break;
+                }
+            }
+        }
+    }
+
+    private CjkClassifier() {
+    }
+
+    /**
+     * 判断码点是否为中文字符（含中文标点和全角字符）
+     *
+     * @param codePoint Unicode码点
+     * @return 属于中文相关的区块时返回true
+     */
+    public static boolean isCjk(int codePoint) {
+        return codePoint >= 0 && codePoint < LIMIT && (BITS[codePoint >>> 6] & (1L << codePoint)) != 0;
+    }
+}
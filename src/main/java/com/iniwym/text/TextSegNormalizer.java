@@ -0,0 +1,77 @@
+package com.iniwym.text;
+
+/**
+ * @Description: 调整服务端返回的text_seg中的空格：中文字符之间的空格去掉，英文单词之间的空格保留，
+ * 中文之后紧接英文时补一个空格。
+ * 按码点遍历，扩展B等增补平面的汉字也能正确识别；同一份识别结果的所有句子复用一个StringBuilder。
+ * 实例不是线程安全的，每个线程或每份识别结果使用各自的实例。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class TextSegNormalizer {
+
+    // 复用的缓冲区
+    private final StringBuilder builder = new StringBuilder(256);
+
+    /**
+     * 调整一句text_seg
+     *
+     * @param textSeg 服务端返回的text_seg
+     * @return 调整后的文本
+     */
+    public String normalize(CharSequence textSeg) {
+        builder.setLength(0);
+        appendTo(textSeg, builder);
+        return builder.toString();
+    }
+
+    /**
+     * 把调整后的文本追加到指定的缓冲区
+     *
+     * @param textSeg 服务端返回的text_seg
+     * @param out     输出缓冲区
+     */
+    public static void appendTo(CharSequence textSeg, StringBuilder out) {
+        // 标记是否在中文段落中
+        boolean inChineseSegment = false;
+        // 标记是否刚刚从中文切换到英文
+        boolean justSwitchedToEnglish = false;
+
+        int length = textSeg.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = Character.codePointAt(textSeg, i);
+            i += Character.charCount(codePoint);
+
+            // 如果当前字符是空格
+            if (Character.isWhitespace(codePoint)) {
+                // 如果刚刚切换到英文部分，或当前在英文部分，保留空格
+                if (justSwitchedToEnglish) {
+                    out.appendCodePoint(codePoint);
+                    justSwitchedToEnglish = false;
+                } else if (!inChineseSegment) {
+                    out.appendCodePoint(codePoint);
+                }
+                continue;
+            }
+
+            if (CjkClassifier.isCjk(codePoint)) {
+                // 中文字符
+                inChineseSegment = true;
+                out.appendCodePoint(codePoint);
+            } else if (Character.isLetter(codePoint)) {
+                // 字母，刚刚从中文切换到英文时补一个空格
+                if (inChineseSegment) {
+                    out.append(' ');
+                    justSwitchedToEnglish = true;
+                }
+                inChineseSegment = false;
+                out.appendCodePoint(codePoint);
+            } else {
+                // 其他字符（标点符号等）
+                out.appendCodePoint(codePoint);
+                inChineseSegment = false;
+            }
+        }
+    }
+}
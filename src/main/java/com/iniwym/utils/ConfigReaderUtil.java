@@ -8,6 +8,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Properties;
 import java.util.Scanner;
 
@@ -19,7 +25,8 @@ import java.util.Scanner;
 public class ConfigReaderUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(ConfigReaderUtil.class);
-    private static final Properties propertyConfig = new Properties();
+    // 重新加载时整体替换，读取方不会看到只加载了一半的配置
+    private static volatile Properties propertyConfig;
     private static final JSONObject jsonConfig = new JSONObject();
     private static final String ENV_SOURCE = "ENV";
     private static final String FILE_SOURCE = "FILE";
@@ -28,7 +35,7 @@ public class ConfigReaderUtil {
     static {
         try {
             // 1. 读取 Property 文件
-            loadPropertyConfig();
+            propertyConfig = loadPropertyConfig();
             // 2. 从 Property 文件中读取 env 变量
             String env = getEnvFromProperties();
             // 3. 根据 env 变量加载对应的 JSON 数据
@@ -40,19 +47,69 @@ public class ConfigReaderUtil {
     }
 
     /**
-     * 从 paramMapping.properties 文件中加载固定参数
+     * 从 paramMapping.properties 文件中加载固定参数，配置了 configFile 时再用该文件中的参数覆盖
+     *
+     * @return 加载的参数
      */
-    private static void loadPropertyConfig() {
+    private static Properties loadPropertyConfig() {
+        Properties properties = new Properties();
         try (InputStream input = ConfigReaderUtil.class.getClassLoader().getResourceAsStream("paramMapping.properties")) {
             if (input == null) {
                 throw new IOException("Properties file 'paramMapping.properties' not found.");
             }
-            propertyConfig.load(input);
+            // 按UTF-8读取，热词等参数可以直接写中文
+            properties.load(new InputStreamReader(input, StandardCharsets.UTF_8));
             logger.info("Loaded properties from 'paramMapping.properties'.");
         } catch (IOException e) {
             logger.error("Failed to load properties: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to load properties: " + e.getMessage());
         }
+        Path overrideFile = overrideFileOf(properties);
+        if (overrideFile != null) {
+            try (Reader reader = Files.newBufferedReader(overrideFile, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+                logger.info("Loaded properties from '{}'.", overrideFile);
+            } catch (IOException e) {
+                logger.error("Failed to load properties: {}", e.getMessage(), e);
+                throw new RuntimeException("Failed to load properties: " + e.getMessage());
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * 覆盖默认参数的外部配置文件
+     */
+    private static Path overrideFileOf(Properties properties) {
+        String configFile = properties.getProperty("configFile");
+        if (configFile == null || configFile.trim().isEmpty()) {
+            return null;
+        }
+        return Paths.get(configFile.trim()).toAbsolutePath();
+    }
+
+    /**
+     * 外部配置文件路径，其中的参数覆盖 paramMapping.properties 中的同名参数，修改后可重新加载
+     *
+     * @return 配置文件路径，未配置时返回null
+     */
+    public static Path getOverrideFile() {
+        return overrideFileOf(propertyConfig);
+    }
+
+    /**
+     * 重新加载 Property 参数并整体替换。
+     * 已在启动时读取并保存的参数不受影响，需要运行中生效的参数应在使用时重新读取。
+     *
+     * @return 加载成功时返回true，失败时保留原来的参数并返回false
+     */
+    public static synchronized boolean reloadPropertyConfig() {
+        try {
+            propertyConfig = loadPropertyConfig();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
     }
 
     /**
@@ -118,6 +175,32 @@ public class ConfigReaderUtil {
         return propertyConfig.getProperty(key);
     }
 
+    /**
+     * 从 Properties 中获取键值，未配置或为空时返回默认值
+     *
+     * @param key          键名
+     * @param defaultValue 默认值
+     * @return 键对应的值
+     */
+    public static String getPropertyKey(String key, String defaultValue) {
+        String value = propertyConfig.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return value.trim();
+    }
+
+    /**
+     * 从 Properties 中获取整数键值，未配置或为空时返回默认值
+     *
+     * @param key          键名
+     * @param defaultValue 默认值
+     * @return 键对应的整数值
+     */
+    public static int getIntPropertyKey(String key, int defaultValue) {
+        return Integer.parseInt(getPropertyKey(key, String.valueOf(defaultValue)));
+    }
+
     /**
      * 从 JSONObject 中获取键值，支持嵌套路径
      *
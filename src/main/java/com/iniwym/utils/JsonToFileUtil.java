@@ -2,25 +2,36 @@ package com.iniwym.utils;
 
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
+import com.iniwym.output.TranscriptOutput;
+import com.iniwym.scheduler.TaskScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
- * @Description: 将jsonObject格式化并输出到文件
+ * @Description: 将jsonObject格式化并输出到文件。
+ * 识别过程中使用异步写入，由单独的后台线程按提交顺序写文件，不阻塞接收识别结果的线程。
  * @Author: iniwym
  * @Date: 2025-01-13
  */
 public class JsonToFileUtil {
     private static final Logger logger = LoggerFactory.getLogger(JsonToFileUtil.class);
 
+    // 异步写入JSON文件的后台线程，积压过多时提交写入的线程等待
+    private static final ExecutorService asyncWriter = TaskScheduler.newWorkerPool("json-writer", 1, 1024);
+
     /**
      * 主方法，用于调用处理和保存 JSON 对象的逻辑。
      */
@@ -36,45 +47,68 @@ public class JsonToFileUtil {
     }
 
     /**
-     * 生成带有时间戳的输出文件路径。
+     * 在run/outJson下创建带有时间戳的输出文件。
+     * 多个会话可能在同一秒内返回结果，因此文件名中带上音频名称；不同目录下的同名音频仍可能同名，
+     * 文件已存在时加上_1、_2等序号，不会覆盖其他音频的JSON文件。
      *
-     * @return 输出文件路径
+     * @param wav_name 音频名称，为空时只使用时间戳
+     * @return 新创建的空文件路径
      */
-    private static String generateOutputFilePath() throws IOException {
-        // 获取项目的根路径
-        String projectRootPath = System.getProperty("user.dir");
-
-        // 创建 out 文件夹路径
-        String outFolderPath = projectRootPath + "/run/outJson";
-
-        // 创建 out 文件夹（如果不存在）
-        Files.createDirectories(Paths.get(outFolderPath));
-
+    private static Path createOutputFile(String wav_name) throws IOException {
         // 生成时间戳文件名
         SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd_HHmmss");
         String timestamp = sdf.format(new Date());
 
         // 返回带有时间戳的文件路径
-        return outFolderPath + "/" + timestamp + ".json";
+        String fileName = wav_name == null || wav_name.isEmpty() ? timestamp : timestamp + "_" + wav_name;
+        return TranscriptOutput.createOutputFile("outJson", fileName, ".json");
+    }
+
+    /**
+     * 创建输出文件并以UTF-8写入JSON文本，写入失败时删除不完整的文件
+     *
+     * @param wavName   音频名称
+     * @param json      JSON 文本
+     * @param onCreated 文件创建后、写入内容前的回调，参数为文件路径，可以为null
+     * @return 输出文件路径
+     */
+    private static String writeJsonFile(String wavName, String json, Consumer<String> onCreated) throws IOException {
+        Path outputFile = createOutputFile(wavName);
+        if (onCreated != null) {
+            onCreated.accept(outputFile.toString());
+        }
+        // 使用 BufferedWriter 写入文件
+        try (Writer writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8, StandardOpenOption.WRITE)) {
+            writer.write(json);
+        } catch (IOException e) {
+            Files.deleteIfExists(outputFile);
+            throw e;
+        }
+        return outputFile.toString();
     }
 
     /**
      * 将 JSONObject 对象保存为格式化的 JSON 文件。
      *
      * @param jsonObject 需要保存的 JSONObject 对象
+     * @return 输出文件路径，写入失败时返回null
      */
     public static String saveJsonObjectToFile(JSONObject jsonObject) {
-        try {
-            // 生成带有时间戳的输出文件路径
-            String outputFilePath = generateOutputFilePath();
+        return saveJsonObjectToFile(jsonObject, null);
+    }
 
+    /**
+     * 将 JSONObject 对象保存为格式化的 JSON 文件，文件创建后、写入内容前先通知调用方。
+     *
+     * @param jsonObject 需要保存的 JSONObject 对象
+     * @param onCreated  文件创建后的回调，参数为文件路径，例如记录到任务日志，可以为null
+     * @return 输出文件路径，写入失败时返回null
+     */
+    public static String saveJsonObjectToFile(JSONObject jsonObject, Consumer<String> onCreated) {
+        try {
             // 将 JSONObject 转换为格式化的 JSON 字符串
             String formattedJson = JSON.toJSONString(jsonObject, true);
-
-            // 使用 BufferedWriter 写入文件
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFilePath))) {
-                writer.write(formattedJson);
-            }
+            String outputFilePath = writeJsonFile(jsonObject.getString("wav_name"), formattedJson, onCreated);
             logger.info("JSON object saved to file: " + outputFilePath);
             return outputFilePath;
         } catch (IOException e) {
@@ -82,4 +116,80 @@ public class JsonToFileUtil {
         }
         return null;
     }
+
+    /**
+     * 将服务端返回的 JSON 文本原样保存到文件，不再解析和格式化。
+     *
+     * @param wavName 音频名称
+     * @param json    JSON 文本
+     * @return 输出文件路径，写入失败时返回null
+     */
+    public static String saveJsonStringToFile(String wavName, String json) {
+        return saveJsonStringToFile(wavName, json, null);
+    }
+
+    /**
+     * 将服务端返回的 JSON 文本原样保存到文件，文件创建后、写入内容前先通知调用方。
+     *
+     * @param wavName   音频名称
+     * @param json      JSON 文本
+     * @param onCreated 文件创建后的回调，参数为文件路径，可以为null
+     * @return 输出文件路径，写入失败时返回null
+     */
+    public static String saveJsonStringToFile(String wavName, String json, Consumer<String> onCreated) {
+        try {
+            String outputFilePath = writeJsonFile(wavName, json, onCreated);
+            logger.info("JSON text saved to file: " + outputFilePath);
+            return outputFilePath;
+        } catch (IOException e) {
+            logger.error("Error saving JSON text to file: " + e.getMessage(), e);
+        }
+        return null;
+    }
+
+    /**
+     * 在后台线程中将 JSON 文本原样保存到文件，方法立即返回。
+     *
+     * @param wavName   音频名称
+     * @param json      JSON 文本
+     * @param onCreated 文件创建后、写入内容前的回调，在写入线程中执行，可以为null
+     * @return 写入完成后得到输出文件路径，写入失败时为null
+     */
+    public static Future<String> saveJsonStringToFileAsync(String wavName, String json, Consumer<String> onCreated) {
+        return asyncWriter.submit(() -> saveJsonStringToFile(wavName, json, onCreated));
+    }
+
+    /**
+     * 在后台线程中将 JSONObject 对象保存为格式化的 JSON 文件，方法立即返回。
+     * 提交后调用方不应再修改该对象。
+     *
+     * @param jsonObject 需要保存的 JSONObject 对象
+     * @param onCreated  文件创建后、写入内容前的回调，在写入线程中执行，可以为null
+     * @return 写入完成后得到输出文件路径，写入失败时为null
+     */
+    public static Future<String> saveJsonObjectToFileAsync(JSONObject jsonObject, Consumer<String> onCreated) {
+        return asyncWriter.submit(() -> saveJsonObjectToFile(jsonObject, onCreated));
+    }
+
+    /**
+     * 在此前提交的异步写入全部完成后，由写入线程执行指定操作，方法立即返回
+     *
+     * @param action 要执行的操作
+     */
+    public static void runAfterAsyncWrites(Runnable action) {
+        asyncWriter.submit(action);
+    }
+
+    /**
+     * 等待此前提交的异步写入全部完成
+     */
+    public static void awaitAsyncWrites() throws InterruptedException {
+        // 写入线程按提交顺序执行，空任务执行时之前的任务都已完成
+        try {
+            asyncWriter.submit(() -> {
+            }).get();
+        } catch (ExecutionException e) {
+            logger.error("Error waiting for JSON writes: " + e.getMessage(), e);
+        }
+    }
 }
@@ -1,29 +1,40 @@
 package com.iniwym.utils;
 
 import com.alibaba.fastjson.JSONObject;
-import okhttp3.*;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.io.IOException;
 
 /**
- * 飞书机器人推送工具类
+ * 飞书机器人推送工具类，负责webhook地址和消息格式，发送由{@link com.iniwym.notify.Notifier}在后台完成
  */
 public class LarkUtils {
 
-    private static final Logger logger = LoggerFactory.getLogger(LarkUtils.class);
-
-    public static void larkBotMessage(String messageTitle, String messageBody) {
+    /**
+     * 飞书机器人的webhook地址，配置了notifyWebhookUrl时使用该地址
+     *
+     * @return webhook地址，未配置飞书机器人key时返回null
+     */
+    public static String webhookUrl() {
+        String webhookUrl = ConfigReaderUtil.getPropertyKey("notifyWebhookUrl", null);
+        if (webhookUrl != null) {
+            return webhookUrl;
+        }
         String larkKey = ConfigReaderUtil.getJsonKey("larkKey");
         // 判断是否配置了飞书机器人的webhook key
         if (larkKey == null || larkKey.isEmpty()) {
-            return;
+            return null;
         }
 
         // 构建完整的webhook URL
-        String webhookUrl = ConfigReaderUtil.getPropertyKey("api.url_lark") + larkKey;
+        return ConfigReaderUtil.getPropertyKey("api.url_lark") + larkKey;
+    }
 
+    /**
+     * 构建飞书机器人的文本消息
+     *
+     * @param messageTitle 标题
+     * @param messageBody  正文
+     * @return 消息的JSON字符串
+     */
+    public static String buildMessage(String messageTitle, String messageBody) {
         // 使用 fastjson 构建 JSON 对象
         JSONObject content = new JSONObject();
         content.put("text", messageTitle + "\n" + messageBody);
@@ -31,27 +42,7 @@ public class LarkUtils {
         JSONObject json = new JSONObject();
         json.put("msg_type", "text");
         json.put("content", content);
-
-        // 创建RequestBody对象
-        RequestBody body = RequestBody.create(json.toJSONString(), MediaType.get("application/json; charset=utf-8"));
-
-        // 使用Request.Builder()构建请求
-        Request request = new Request.Builder()
-                .url(webhookUrl)
-                .post(body)
-                .build();
-
-        // 发送请求并处理响应
-        OkHttpClient client = new OkHttpClient();
-        try (Response response = client.newCall(request).execute()) {
-            if (response.isSuccessful()) {
-                logger.info("飞书机器人消息发送成功！");
-            } else {
-                logger.error("飞书机器人消息发送失败，HTTP响应码: " + response.code());
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        return json.toJSONString();
     }
 
-}
\ No newline at end of file
+}
@@ -39,6 +39,17 @@ public class Mp3FileFinderUtil {
      * @return 包含所有 .mp3 文件路径的字符串数组
      */
     public static String[] findMp3FilesInDirectory(String dirPath) {
+        return findAudioFilesInDirectory(dirPath, ".mp3");
+    }
+
+    /**
+     * 查找指定目录下所有指定后缀的音频文件，并返回其路径组成的数组。
+     *
+     * @param dirPath  要查找的目录路径
+     * @param suffixes 文件后缀，例如 ".mp3"、".wav"，不区分大小写
+     * @return 包含所有匹配文件路径的字符串数组
+     */
+    public static String[] findAudioFilesInDirectory(String dirPath, String... suffixes) {
         File directory = new File(dirPath);
 
         if (!directory.exists() || !directory.isDirectory()) {
@@ -48,28 +59,46 @@ public class Mp3FileFinderUtil {
         }
 
         List<String> mp3FilePaths = new ArrayList<>();
-        findMp3FilesRecursive(directory, mp3FilePaths);
+        findMp3FilesRecursive(directory, mp3FilePaths, suffixes);
         return mp3FilePaths.toArray(new String[0]);
     }
 
     /**
-     * 递归查找指定目录下的所有 .mp3 文件，并将其路径添加到列表中。
+     * 递归查找指定目录下的所有音频文件，并将其路径添加到列表中。
      *
      * @param dir          要查找的目录
-     * @param mp3FilePaths 存储 .mp3 文件路径的列表
+     * @param mp3FilePaths 存储音频文件路径的列表
+     * @param suffixes     文件后缀
      */
-    private static void findMp3FilesRecursive(File dir, List<String> mp3FilePaths) {
+    private static void findMp3FilesRecursive(File dir, List<String> mp3FilePaths, String[] suffixes) {
         File[] files = dir.listFiles();
         if (files != null) {
             for (File file : files) {
                 if (file.isDirectory()) {
                     // 如果是子目录，则递归查找
-                    findMp3FilesRecursive(file, mp3FilePaths);
-                } else if (file.isFile() && file.getName().toLowerCase().endsWith(".mp3")) {
-                    // 如果是 .mp3 文件，则添加其路径到列表
+                    findMp3FilesRecursive(file, mp3FilePaths, suffixes);
+                } else if (file.isFile() && hasSuffix(file.getName(), suffixes)) {
+                    // 如果是音频文件，则添加其路径到列表
                     mp3FilePaths.add(file.getAbsolutePath());
                 }
             }
         }
     }
+
+    /**
+     * 判断文件名是否以任一后缀结尾，不区分大小写
+     *
+     * @param fileName 文件名
+     * @param suffixes 文件后缀
+     * @return 匹配时返回true
+     */
+    public static boolean hasSuffix(String fileName, String[] suffixes) {
+        String lowerName = fileName.toLowerCase();
+        for (String suffix : suffixes) {
+            if (lowerName.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
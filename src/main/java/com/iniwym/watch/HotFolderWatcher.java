@@ -0,0 +1,211 @@
+package com.iniwym.watch;
+
+import com.iniwym.utils.Mp3FileFinderUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * @Description: 监听音频目录（含子目录）中新出现或被改写的音频文件。
+ * 基于WatchService接收文件事件，不定期全量扫描；文件大小在一段时间内不再变化后才认为写入完成，
+ * 交给回调处理，正在拷贝或录制中的文件不会被提前识别。
+ * 启动时目录中已有的文件同样按新文件处理一次。
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class HotFolderWatcher implements Runnable, Closeable {
+    // 日志记录器
+    private static final Logger logger = LoggerFactory.getLogger(HotFolderWatcher.class);
+
+    private final Path root;
+    private final String[] suffixes;
+    private final long settleMillis;
+    private final Consumer<String> onFileReady;
+    private final WatchService watchService;
+    // 已注册的目录
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+    // 等待写入完成的文件，值为{上次看到的大小, 大小最后一次变化的时间}
+    private final Map<Path, long[]> candidates = new HashMap<>();
+    // 已交给回调的文件及当时的修改时间，修改时间不变的事件不再重复处理；文件删除或移走后移除
+    private final Map<Path, Long> submitted = new HashMap<>();
+
+    /**
+     * 构造目录监听器
+     *
+     * @param root         监听的根目录
+     * @param settleMillis 文件大小保持不变多长时间后认为写入完成，单位毫秒
+     * @param onFileReady  文件写入完成后的回调，参数为文件路径
+     * @param suffixes     需要处理的文件后缀，例如".mp3"
+     * @throws IOException 创建WatchService失败时抛出
+     */
+    public HotFolderWatcher(Path root, long settleMillis, Consumer<String> onFileReady, String... suffixes) throws IOException {
+        this.root = root;
+        this.settleMillis = settleMillis;
+        this.onFileReady = onFileReady;
+        this.suffixes = suffixes;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    @Override
+    public void run() {
+        try {
+            registerTree(root);
+            logger.info("开始监听目录：{}，文件稳定时间：{}ms", root, settleMillis);
+            while (!Thread.currentThread().isInterrupted()) {
+                // 有待确认的文件时定期检查大小，没有时一直等待事件
+                WatchKey key = candidates.isEmpty()
+                        ? watchService.take()
+                        : watchService.poll(Math.max(100, settleMillis / 2), TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    handleEvents(key);
+                }
+                checkSettled();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.info("停止监听目录：{}", root);
+        } catch (IOException e) {
+            logger.error("监听目录失败：{}", root, e);
+        }
+    }
+
+    /**
+     * 处理一个目录的文件事件
+     */
+    private void handleEvents(WatchKey key) throws IOException {
+        Path dir = watchedDirs.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // 事件丢失时只能重新扫描一次，找出遗漏的文件，并清理期间被删除的文件
+                logger.warn("文件事件过多，重新扫描目录：{}", root);
+                submitted.keySet().removeIf(path -> !Files.exists(path));
+                registerTree(root);
+                continue;
+            }
+            if (dir == null) {
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                // 删除的可能是文件也可能是目录（此时已无法判断），移除该路径及其下的全部记录，
+                // 同一路径再出现的文件即使修改时间相同也重新处理
+                forget(path);
+            } else if (Files.isDirectory(path)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    // 新建的子目录也需要监听，其中已有的文件作为候选
+                    registerTree(path);
+                }
+            } else {
+                addCandidate(path);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirs.remove(key);
+        }
+    }
+
+    /**
+     * 移除一个已删除的文件，或已删除目录下全部文件的记录
+     */
+    private void forget(Path path) {
+        submitted.keySet().removeIf(file -> file.startsWith(path));
+        candidates.keySet().removeIf(file -> file.startsWith(path));
+    }
+
+    /**
+     * 注册目录及其全部子目录，目录中已有的音频文件作为候选
+     */
+    private void registerTree(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            Iterator<Path> iterator = paths.iterator();
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+                if (Files.isDirectory(path)) {
+                    if (!watchedDirs.containsValue(path)) {
+                        WatchKey key = path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                        watchedDirs.put(key, path);
+                    }
+                } else {
+                    addCandidate(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * 把有变化的音频文件加入候选，已处理过且没有再修改的文件忽略
+     */
+    private void addCandidate(Path path) throws IOException {
+        if (!Mp3FileFinderUtil.hasSuffix(path.getFileName().toString(), suffixes) || !Files.isRegularFile(path)) {
+            return;
+        }
+        Long submittedTime = submitted.get(path);
+        if (submittedTime != null && submittedTime == Files.getLastModifiedTime(path).toMillis()) {
+            return;
+        }
+        long size = Files.size(path);
+        long[] state = candidates.get(path);
+        if (state == null) {
+            candidates.put(path, new long[]{size, System.currentTimeMillis()});
+        } else if (state[0] != size) {
+            state[0] = size;
+            state[1] = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 检查候选文件，大小在稳定时间内没有变化的文件交给回调
+     */
+    private void checkSettled() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, long[]>> iterator = candidates.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, long[]> entry = iterator.next();
+            Path path = entry.getKey();
+            long[] state = entry.getValue();
+            try {
+                if (!Files.isRegularFile(path)) {
+                    iterator.remove();
+                    continue;
+                }
+                long size = Files.size(path);
+                if (size != state[0]) {
+                    state[0] = size;
+                    state[1] = now;
+                    continue;
+                }
+                if (size == 0 || now - state[1] < settleMillis) {
+                    continue;
+                }
+                iterator.remove();
+                submitted.put(path, Files.getLastModifiedTime(path).toMillis());
+                logger.info("发现新文件：{}", path);
+                onFileReady.accept(path.toString());
+            } catch (IOException e) {
+                // 文件可能正在被移动或删除，下次再检查
+                logger.debug("检查文件失败：{}", path, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
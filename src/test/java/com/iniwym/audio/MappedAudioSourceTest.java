@@ -0,0 +1,82 @@
+package com.iniwym.audio;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Description: 内存映射音频来源的读取范围和关闭时解除映射
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class MappedAudioSourceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsRequestedRangeInChunks() throws IOException {
+        byte[] data = pattern(100_000);
+        Path file = folder.newFile("a.pcm").toPath();
+        Files.write(file, data);
+
+        try (MappedAudioSource source = new MappedAudioSource(file, 44)) {
+            source.stage(8192);
+            assertArrayEquals(Arrays.copyOfRange(data, 44, data.length), readAll(source, 3000));
+        }
+        try (MappedAudioSource source = new MappedAudioSource(file, 1000, 5000)) {
+            assertArrayEquals(Arrays.copyOfRange(data, 1000, 6000), readAll(source, 4096));
+        }
+    }
+
+    @Test
+    public void closeReleasesMapping() throws IOException {
+        Path maps = Paths.get("/proc/self/maps");
+        Assume.assumeTrue("需要/proc/self/maps", Files.isReadable(maps));
+        Path file = folder.newFile("mapped_release.pcm").toPath();
+        Files.write(file, pattern(1 << 20));
+
+        MappedAudioSource source = new MappedAudioSource(file, 0);
+        assertTrue(source.nextChunk(4096).hasRemaining());
+        assertTrue(isMapped(maps, file));
+        source.close();
+        assertFalse(isMapped(maps, file));
+    }
+
+    private static boolean isMapped(Path maps, Path file) throws IOException {
+        return new String(Files.readAllBytes(maps), StandardCharsets.UTF_8).contains(file.toRealPath().toString());
+    }
+
+    private static byte[] readAll(AudioSource source, int chunkSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer chunk;
+        while ((chunk = source.nextChunk(chunkSize)) != null) {
+            byte[] bytes = new byte[chunk.remaining()];
+            chunk.get(bytes);
+            out.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] pattern(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i * 31 + (i >> 8));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,93 @@
+package com.iniwym.audio;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @Description: mp3解码和时长估算，使用生成的静音帧，不依赖外部音频文件
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class Mp3PcmDecoderTest {
+
+    // MPEG1 Layer3，128kbps，44.1kHz，单声道，无CRC
+    private static final byte[] FRAME_HEADER = {(byte) 0xFF, (byte) 0xFB, (byte) 0x90, (byte) 0xC0};
+    // 144 * 128000 / 44100，无填充位
+    private static final int FRAME_BYTES = 417;
+    // 每帧的采样数
+    private static final int FRAME_SAMPLES = 1152;
+    private static final int FRAME_COUNT = 40;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void decodesAllFrames() throws IOException {
+        File mp3 = writeSilentMp3();
+        try (Mp3PcmDecoder decoder = new Mp3PcmDecoder(mp3.getPath())) {
+            assertEquals(44100, decoder.getSampleRate());
+            assertEquals(1, decoder.getChannels());
+            float[] buffer = new float[1000];
+            long samples = 0;
+            float peak = 0;
+            int n;
+            while ((n = decoder.read(buffer)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    peak = Math.max(peak, Math.abs(buffer[i]));
+                }
+                samples += n;
+            }
+            assertEquals(FRAME_COUNT * FRAME_SAMPLES, samples);
+            assertEquals(0f, peak, 0f);
+        }
+    }
+
+    @Test
+    public void estimatesDurationFromHeader() throws IOException {
+        File mp3 = writeSilentMp3();
+        long expected = FRAME_COUNT * FRAME_SAMPLES * 1000L / 44100;
+        assertEquals(expected, Mp3PcmDecoder.estimateMillis(mp3.getPath(), mp3.length()), 2);
+    }
+
+    @Test
+    public void decodedSourceIsResampledTo16k() throws IOException {
+        File mp3 = writeSilentMp3();
+        long bytes = 0;
+        try (DecodedPcmAudioSource source = DecodedPcmAudioSource.open(mp3.getPath())) {
+            ByteBuffer chunk;
+            while ((chunk = source.nextChunk(3200)) != null) {
+                bytes += chunk.remaining();
+            }
+        }
+        long expected = ((long) FRAME_COUNT * FRAME_SAMPLES * 160 + 440) / 441;
+        assertEquals(expected * 2, bytes);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsFileWithoutFrames() throws IOException {
+        File file = folder.newFile("empty.mp3");
+        Files.write(file.toPath(), new byte[1024]);
+        new Mp3PcmDecoder(file.getPath()).close();
+    }
+
+    /**
+     * 生成由静音帧组成的mp3文件：帧头之后的边信息和主数据全为0
+     */
+    private File writeSilentMp3() throws IOException {
+        byte[] data = new byte[FRAME_BYTES * FRAME_COUNT];
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            System.arraycopy(FRAME_HEADER, 0, data, i * FRAME_BYTES, FRAME_HEADER.length);
+        }
+        File file = folder.newFile("silence.mp3");
+        Files.write(file.toPath(), data);
+        return file;
+    }
+}
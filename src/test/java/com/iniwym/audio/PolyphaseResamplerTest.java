@@ -0,0 +1,115 @@
+package com.iniwym.audio;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Description: 重采样器的通带平坦度、阻带抑制（防混叠）和分段处理
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class PolyphaseResamplerTest {
+
+    // 输入信号时长，单位秒
+    private static final double SECONDS = 2.0;
+    // 统计幅度时去掉两端的时长，避开滤波器的起止过程
+    private static final double EDGE_SECONDS = 0.25;
+
+    @Test
+    public void passbandIsFlatFrom44100() {
+        for (double frequency : new double[]{100, 1000, 4000, 7000}) {
+            double gainDb = gainDb(44100, 16000, frequency);
+            assertEquals("通带增益 " + frequency + "Hz", 0, gainDb, 0.05);
+        }
+    }
+
+    @Test
+    public void rejectsContentAboveOutputNyquistFrom44100() {
+        // 这些频率在16kHz输出中会混叠到通带内
+        for (double frequency : new double[]{8500, 9000, 10000, 10800, 12000, 15000, 20000}) {
+            double gainDb = gainDb(44100, 16000, frequency);
+            assertTrue("阻带抑制 " + frequency + "Hz: " + gainDb + "dB", gainDb < -70);
+        }
+    }
+
+    @Test
+    public void passbandAndStopbandFrom48000() {
+        assertEquals(0, gainDb(48000, 16000, 1000), 0.05);
+        assertEquals(0, gainDb(48000, 16000, 7000), 0.05);
+        assertTrue(gainDb(48000, 16000, 9000) < -70);
+        assertTrue(gainDb(48000, 16000, 23000) < -70);
+    }
+
+    @Test
+    public void upsamplingKeepsPassband() {
+        assertEquals(0, gainDb(8000, 16000, 1000), 0.05);
+        assertEquals(0, gainDb(8000, 16000, 3500), 0.05);
+    }
+
+    @Test
+    public void outputLengthMatchesDuration() {
+        float[] input = sine(44100, 1000, 44100 * 3 + 17);
+        float[] output = resample(44100, 16000, input, input.length);
+        assertEquals((input.length * 160L + 440) / 441, output.length);
+    }
+
+    @Test
+    public void chunkedInputMatchesSingleCall() {
+        float[] input = sine(44100, 440, 44100);
+        float[] whole = resample(44100, 16000, input, input.length);
+        float[] chunked = resample(44100, 16000, input, 1000);
+        assertArrayEquals(whole, chunked, 0f);
+    }
+
+    /**
+     * 正弦信号经过重采样后的增益，单位dB
+     */
+    private static double gainDb(int inputRate, int outputRate, double frequency) {
+        float[] input = sine(inputRate, frequency, (int) (inputRate * SECONDS));
+        float[] output = resample(inputRate, outputRate, input, 4096);
+        int edge = (int) (outputRate * EDGE_SECONDS);
+        double sum = 0;
+        for (int i = edge; i < output.length - edge; i++) {
+            sum += (double) output[i] * output[i];
+        }
+        double rms = Math.sqrt(sum / (output.length - 2 * edge));
+        // 幅度0.5的正弦波有效值为0.5/√2
+        return 20 * Math.log10(rms / (0.5 / Math.sqrt(2)));
+    }
+
+    private static float[] sine(int rate, double frequency, int length) {
+        float[] samples = new float[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = (float) (0.5 * Math.sin(2 * Math.PI * frequency * i / rate));
+        }
+        return samples;
+    }
+
+    /**
+     * 按指定的分段大小送入全部输入，返回全部输出
+     */
+    private static float[] resample(int inputRate, int outputRate, float[] input, int chunk) {
+        PolyphaseResampler resampler = new PolyphaseResampler(inputRate, outputRate);
+        float[] result = new float[resampler.maxOutput(input.length) * 2];
+        float[] piece = new float[chunk];
+        int count = 0;
+        for (int offset = 0; offset < input.length; offset += chunk) {
+            int length = Math.min(chunk, input.length - offset);
+            System.arraycopy(input, offset, piece, 0, length);
+            float[] output = new float[resampler.maxOutput(length)];
+            int n = resampler.process(piece, length, output);
+            System.arraycopy(output, 0, result, count, n);
+            count += n;
+        }
+        float[] output = new float[resampler.maxOutput(0)];
+        int n = resampler.flush(output);
+        System.arraycopy(output, 0, result, count, n);
+        count += n;
+        float[] trimmed = new float[count];
+        System.arraycopy(result, 0, trimmed, 0, count);
+        return trimmed;
+    }
+}
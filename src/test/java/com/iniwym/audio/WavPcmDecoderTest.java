@@ -0,0 +1,147 @@
+package com.iniwym.audio;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @Description: wav解码（各种采样格式、其他RIFF块）和解码后转换为16kHz单声道PCM
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class WavPcmDecoderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void decodes8BitUnsigned() throws IOException {
+        byte[] data = {(byte) 0x80, (byte) 0xC0, 0x00, (byte) 0xFF};
+        float[] samples = decodeAll(writeWav(1, 8000, 1, 8, data, false));
+        assertArrayEquals(new float[]{0f, 0.5f, -1f, 127 / 128f}, samples, 0f);
+    }
+
+    @Test
+    public void decodes16BitStereoInterleaved() throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        data.putShort((short) 16384).putShort((short) -32768).putShort((short) 0).putShort((short) -16384);
+        File wav = writeWav(1, 44100, 2, 16, data.array(), false);
+        try (WavPcmDecoder decoder = new WavPcmDecoder(wav.getPath())) {
+            assertEquals(44100, decoder.getSampleRate());
+            assertEquals(2, decoder.getChannels());
+        }
+        assertArrayEquals(new float[]{0.5f, -1f, 0f, -0.5f}, decodeAll(wav), 0f);
+    }
+
+    @Test
+    public void decodes24BitAndSkipsListChunk() throws IOException {
+        // 0x400000 = 0.5，0xC00000 = -0.5（补码）
+        byte[] data = {0x00, 0x00, 0x40, 0x00, 0x00, (byte) 0xC0};
+        float[] samples = decodeAll(writeWav(1, 16000, 1, 24, data, true));
+        assertArrayEquals(new float[]{0.5f, -0.5f}, samples, 0f);
+    }
+
+    @Test
+    public void decodes32BitIntegerAndFloat() throws IOException {
+        ByteBuffer ints = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        ints.putInt(1 << 30).putInt(Integer.MIN_VALUE);
+        assertArrayEquals(new float[]{0.5f, -1f}, decodeAll(writeWav(1, 16000, 1, 32, ints.array(), false)), 0f);
+
+        ByteBuffer floats = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        floats.putFloat(0.25f).putFloat(-0.75f);
+        assertArrayEquals(new float[]{0.25f, -0.75f}, decodeAll(writeWav(3, 16000, 1, 32, floats.array(), false)), 0f);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsUnsupportedFormat() throws IOException {
+        // 格式代码2为ADPCM
+        new WavPcmDecoder(writeWav(2, 16000, 1, 16, new byte[4], false).getPath()).close();
+    }
+
+    @Test
+    public void convertsStereo44100To16kMono() throws IOException {
+        int frames = 44100;
+        ByteBuffer data = ByteBuffer.allocate(frames * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < frames; i++) {
+            short value = (short) Math.round(16384 * Math.sin(2 * Math.PI * 1000 * i / 44100.0));
+            // 两个声道相位相反的部分混音后抵消，只留下1kHz正弦波
+            data.putShort((short) (value + 4000)).putShort((short) (value - 4000));
+        }
+        File wav = writeWav(1, 44100, 2, 16, data.array(), false);
+
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+        try (DecodedPcmAudioSource source = DecodedPcmAudioSource.open(wav.getPath())) {
+            ByteBuffer chunk;
+            while ((chunk = source.nextChunk(3201)) != null) {
+                assertEquals(0, chunk.remaining() % 2);
+                byte[] bytes = new byte[chunk.remaining()];
+                chunk.get(bytes);
+                pcm.write(bytes, 0, bytes.length);
+            }
+            assertNull(source.nextChunk(3200));
+        }
+        ByteBuffer output = ByteBuffer.wrap(pcm.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(DecodedPcmAudioSource.TARGET_SAMPLE_RATE, output.remaining() / 2);
+
+        // 避开滤波器起止过程，检查幅度
+        double sum = 0;
+        int count = 0;
+        for (int i = 2000; i < 14000; i++) {
+            double sample = output.getShort(i * 2) / 32768.0;
+            sum += sample * sample;
+            count++;
+        }
+        assertEquals(0.5 / Math.sqrt(2), Math.sqrt(sum / count), 0.005);
+    }
+
+    private static float[] decodeAll(File wav) throws IOException {
+        try (WavPcmDecoder decoder = new WavPcmDecoder(wav.getPath())) {
+            float[] all = new float[0];
+            // 缓冲区很小，覆盖分多次读取的情况
+            float[] buffer = new float[decoder.getChannels() * 3];
+            int n;
+            while ((n = decoder.read(buffer)) > 0) {
+                float[] grown = new float[all.length + n];
+                System.arraycopy(all, 0, grown, 0, all.length);
+                System.arraycopy(buffer, 0, grown, all.length, n);
+                all = grown;
+            }
+            return all;
+        }
+    }
+
+    /**
+     * 生成wav文件，可在fmt块之前插入一个奇数长度的LIST块
+     */
+    private File writeWav(int format, int sampleRate, int channels, int bits, byte[] data, boolean listChunk) throws IOException {
+        byte[] list = "INFOISFT\u0003\u0000\u0000\u0000ab\u0000".getBytes("US-ASCII");
+        int listBytes = listChunk ? 8 + list.length + (list.length & 1) : 0;
+        ByteBuffer wav = ByteBuffer.allocate(12 + listBytes + 24 + 8 + data.length).order(ByteOrder.LITTLE_ENDIAN);
+        wav.put("RIFF".getBytes("US-ASCII")).putInt(wav.capacity() - 8).put("WAVE".getBytes("US-ASCII"));
+        if (listChunk) {
+            wav.put("LIST".getBytes("US-ASCII")).putInt(list.length).put(list);
+            if ((list.length & 1) == 1) {
+                wav.put((byte) 0);
+            }
+        }
+        int blockAlign = channels * bits / 8;
+        wav.put("fmt ".getBytes("US-ASCII")).putInt(16)
+                .putShort((short) format).putShort((short) channels).putInt(sampleRate)
+                .putInt(sampleRate * blockAlign).putShort((short) blockAlign).putShort((short) bits);
+        wav.put("data".getBytes("US-ASCII")).putInt(data.length).put(data);
+        File file = File.createTempFile("test", ".wav", folder.getRoot());
+        Files.write(file.toPath(), wav.array());
+        return file;
+    }
+}
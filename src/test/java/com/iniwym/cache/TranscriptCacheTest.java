@@ -0,0 +1,130 @@
+package com.iniwym.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Description: 识别结果缓存的LRU淘汰、索引的保存与加载
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class TranscriptCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws IOException {
+        TranscriptCache cache = new TranscriptCache(folder.getRoot().toPath(), 30);
+        cache.put("a", "0123456789");
+        cache.put("b", "0123456789");
+        cache.put("c", "0123456789");
+        // 访问a后，最久未使用的是b
+        assertEquals("0123456789", cache.get("a"));
+        cache.put("d", "0123456789");
+        assertNull(cache.get("b"));
+        assertEquals("0123456789", cache.get("a"));
+        assertEquals("0123456789", cache.get("c"));
+        assertEquals("0123456789", cache.get("d"));
+        assertEquals(30, cache.totalBytes());
+        assertTrue(Files.notExists(folder.getRoot().toPath().resolve("b.json")));
+    }
+
+    @Test
+    public void skipsResultLargerThanLimit() throws IOException {
+        TranscriptCache cache = new TranscriptCache(folder.getRoot().toPath(), 5);
+        cache.put("a", "0123456789");
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void indexRoundTripKeepsEntriesAndOrder() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        TranscriptCache cache = new TranscriptCache(dir, 30);
+        cache.put("a", "0123456789");
+        cache.put("b", "0123456789");
+        cache.put("c", "0123456789");
+        cache.get("a");
+        cache.close();
+
+        TranscriptCache reopened = new TranscriptCache(dir, 30);
+        assertEquals(3, reopened.size());
+        assertEquals(30, reopened.totalBytes());
+        // 重新打开后最近使用顺序不变：加入d时淘汰b
+        reopened.put("d", "0123456789");
+        assertNull(reopened.get("b"));
+        assertEquals("0123456789", reopened.get("a"));
+    }
+
+    @Test
+    public void appendedIndexSurvivesWithoutClose() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        TranscriptCache cache = new TranscriptCache(dir, 25);
+        cache.put("a", "0123456789");
+        cache.put("b", "0123456789");
+        cache.put("c", "0123456789");
+        // 没有调用close，进程中断时追加的索引仍然完整
+        TranscriptCache reopened = new TranscriptCache(dir, 25);
+        assertEquals(2, reopened.size());
+        assertNull(reopened.get("a"));
+        assertEquals("0123456789", reopened.get("c"));
+    }
+
+    @Test
+    public void putAppendsInsteadOfRewritingIndex() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        TranscriptCache cache = new TranscriptCache(dir, 1000);
+        cache.put("a", "x");
+        cache.put("a", "xy");
+        cache.put("b", "x");
+        List<String> lines = Files.readAllLines(dir.resolve("index.txt"), StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        cache.close();
+        // 关闭时重写为每个条目一行
+        assertEquals(2, Files.readAllLines(dir.resolve("index.txt"), StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void skipsMalformedIndexLines() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        Files.write(dir.resolve("a.json"), "0123456789".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("b.json"), "01234".getBytes(StandardCharsets.UTF_8));
+        // 格式错误的行、已不存在的文件和中断时写了一半的最后一行
+        Files.write(dir.resolve("index.txt"), ("a 10\nbroken line here\nc 12\nx abc\nb 5\nb 1").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE_NEW);
+        TranscriptCache cache = new TranscriptCache(dir, 1000);
+        assertEquals(2, cache.size());
+        assertEquals(15, cache.totalBytes());
+        assertEquals("01234", cache.get("b"));
+    }
+
+    @Test
+    public void keyDependsOnContentAndParams() throws IOException {
+        Path first = folder.newFile("first.wav").toPath();
+        Path second = folder.newFile("second.wav").toPath();
+        Path other = folder.newFile("other.wav").toPath();
+        byte[] content = new byte[200 * 1024];
+        content[100 * 1024] = 7;
+        Files.write(first, content);
+        Files.write(second, content);
+        content[0] = 1;
+        Files.write(other, content);
+        assertEquals(TranscriptCache.computeKey(first, "p"), TranscriptCache.computeKey(second, "p"));
+        assertNotEquals(TranscriptCache.computeKey(first, "p"), TranscriptCache.computeKey(other, "p"));
+        assertNotEquals(TranscriptCache.computeKey(first, "p"), TranscriptCache.computeKey(first, "q"));
+    }
+}
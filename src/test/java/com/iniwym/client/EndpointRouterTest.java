@@ -0,0 +1,114 @@
+package com.iniwym.client;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Description: 服务端地址解析和健康探测
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class EndpointRouterTest {
+
+    @Test
+    public void parsesHostPortAndBracketedIpv6() {
+        List<FunasrEndpoint> endpoints = EndpointRouter.parseEndpoints(" 10.0.0.1:10095, [::1]:10096 ,host.local:1");
+        assertEquals(3, endpoints.size());
+        assertEquals("10.0.0.1", endpoints.get(0).getHost());
+        assertEquals(10095, endpoints.get(0).getPort());
+        assertEquals("::1", endpoints.get(1).getHost());
+        assertEquals(10096, endpoints.get(1).getPort());
+        assertEquals("[::1]:10096", endpoints.get(1).toString());
+        assertEquals("ws://[::1]:10096", endpoints.get(1).getUri().toString());
+        assertEquals("host.local", endpoints.get(2).getHost());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnbracketedIpv6() {
+        EndpointRouter.parseEndpoints("::1:10095");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidPort() {
+        EndpointRouter.parseEndpoints("127.0.0.1:abc");
+    }
+
+    @Test
+    public void probeRequiresWebSocketHandshake() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        WebSocketServer server = new WebSocketServer(new InetSocketAddress("127.0.0.1", 0)) {
+            @Override
+            public void onOpen(WebSocket conn, ClientHandshake handshake) {
+            }
+
+            @Override
+            public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+            }
+
+            @Override
+            public void onMessage(WebSocket conn, String message) {
+            }
+
+            @Override
+            public void onMessage(WebSocket conn, ByteBuffer message) {
+            }
+
+            @Override
+            public void onError(WebSocket conn, Exception ex) {
+            }
+
+            @Override
+            public void onStart() {
+                started.countDown();
+            }
+        };
+        server.start();
+        try {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertTrue(EndpointRouter.probe(new FunasrEndpoint("127.0.0.1", server.getPort())));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void probeFailsWhenPortIsNotWebSocket() throws Exception {
+        // 接受连接后只返回HTTP 404的普通TCP服务
+        try (ServerSocket plain = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"))) {
+            Thread thread = new Thread(() -> {
+                try (Socket socket = plain.accept()) {
+                    socket.getOutputStream().write("HTTP/1.1 404 Not Found\r\n\r\n".getBytes("US-ASCII"));
+                } catch (IOException ignored) {
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            assertFalse(EndpointRouter.probe(new FunasrEndpoint("127.0.0.1", plain.getLocalPort())));
+        }
+    }
+
+    @Test
+    public void probeFailsWhenNothingListens() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        assertFalse(EndpointRouter.probe(new FunasrEndpoint("127.0.0.1", port)));
+    }
+}
@@ -0,0 +1,92 @@
+package com.iniwym.client;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Description: 流式结果的汇总，以及读取线程追加消息与超时汇总同时发生的情况
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class StreamingTranscriptTest {
+
+    @Test
+    public void keepsOnlyCorrectedResultsIn2pass() {
+        StreamingTranscript transcript = new StreamingTranscript();
+        transcript.add(message("2pass-online", "你", 0));
+        transcript.add(message("2pass-offline", "你好。", 0));
+        transcript.add(message("2pass-online", "世", 2000));
+        transcript.add(message("2pass-offline", "世界。", 2000));
+
+        JSONObject result = transcript.toResult("a");
+        assertEquals("你好。世界。", result.getString("text"));
+        assertEquals(2, result.getJSONArray("stamp_sents").size());
+        assertEquals(4, transcript.getMessageCount());
+    }
+
+    @Test
+    public void resultIsNotChangedByLateMessages() {
+        StreamingTranscript transcript = new StreamingTranscript();
+        transcript.add(message("2pass-offline", "你好。", 0));
+        JSONObject result = transcript.toResult("a");
+        transcript.add(message("2pass-offline", "迟到。", 2000));
+        assertEquals(1, result.getJSONArray("stamp_sents").size());
+    }
+
+    @Test
+    public void concurrentAddAndToResult() throws Exception {
+        StreamingTranscript transcript = new StreamingTranscript();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            try {
+                start.await();
+                for (int i = 0; i < 20_000; i++) {
+                    transcript.add(message("2pass-offline", "句" + i, i * 100L));
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+        start.countDown();
+        int lastSize = 0;
+        while (reader.isAlive()) {
+            JSONObject result = transcript.toResult("a");
+            int size = result.getJSONArray("stamp_sents").size();
+            // 汇总结果包含生成时已加入的全部句子，且不会随之后的消息变化
+            assertTrue(size >= lastSize);
+            assertEquals(size, result.getJSONArray("stamp_sents").size());
+            lastSize = size;
+        }
+        reader.join();
+        assertNull(failure.get());
+        assertEquals(20_000, transcript.toResult("a").getJSONArray("stamp_sents").size());
+    }
+
+    private static JSONObject message(String mode, String text, long start) {
+        JSONObject sent = new JSONObject();
+        sent.put("text_seg", text);
+        sent.put("punc", "");
+        sent.put("start", start);
+        sent.put("end", start + 90);
+        JSONArray sents = new JSONArray();
+        sents.add(sent);
+        JSONObject message = new JSONObject();
+        message.put("mode", mode);
+        message.put("wav_name", "a");
+        message.put("text", text);
+        if (!"2pass-online".equals(mode)) {
+            message.put("stamp_sents", sents);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,162 @@
+package com.iniwym.journal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Description: 任务日志的压缩、跳过已完成文件、截断行恢复和未完成文件输出的清理
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class JobJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void compactsToLatestStateOnOpen() throws IOException {
+        Path log = folder.getRoot().toPath().resolve("journal.log");
+        String a = audio("a.wav").toString();
+        String b = audio("b.wav").toString();
+        JobJournal journal = new JobJournal(log);
+        for (JobState state : new JobState[]{JobState.QUEUED, JobState.SENT, JobState.RECEIVED, JobState.DONE}) {
+            journal.record(a, state);
+        }
+        journal.record(b, JobState.QUEUED);
+        journal.record(b, JobState.FAILED);
+        journal.close();
+        assertEquals(6, lines(log).size());
+
+        new JobJournal(log).close();
+        List<String> compacted = lines(log);
+        assertEquals(2, compacted.size());
+        assertTrue(compacted.stream().anyMatch(line -> line.startsWith("DONE\t") && line.endsWith(a)));
+        assertTrue(compacted.stream().anyMatch(line -> line.startsWith("FAILED\t") && line.endsWith(b)));
+    }
+
+    @Test
+    public void skipsDoneFileOnlyWhileUnmodified() throws IOException {
+        Path log = folder.getRoot().toPath().resolve("journal.log");
+        Path done = audio("done.wav");
+        Path unfinished = audio("unfinished.wav");
+        JobJournal journal = new JobJournal(log);
+        journal.record(done.toString(), JobState.QUEUED);
+        journal.record(done.toString(), JobState.DONE);
+        journal.record(unfinished.toString(), JobState.QUEUED);
+        journal.record(unfinished.toString(), JobState.SENT);
+        journal.close();
+
+        JobJournal reopened = new JobJournal(log);
+        assertTrue(reopened.isDone(done.toString()));
+        assertFalse(reopened.isDone(unfinished.toString()));
+        reopened.close();
+
+        // 修改时间或大小变化后重新处理
+        Files.setLastModifiedTime(done, FileTime.fromMillis(Files.getLastModifiedTime(done).toMillis() + 5000));
+        JobJournal modified = new JobJournal(log);
+        assertFalse(modified.isDone(done.toString()));
+        modified.close();
+    }
+
+    @Test
+    public void recoversFromTornLastLine() throws IOException {
+        Path log = folder.getRoot().toPath().resolve("journal.log");
+        Path a = audio("a.wav");
+        Path b = audio("b.wav");
+        JobJournal journal = new JobJournal(log);
+        journal.record(a.toString(), JobState.QUEUED);
+        journal.record(a.toString(), JobState.DONE);
+        journal.record(b.toString(), JobState.QUEUED);
+        journal.close();
+        // 进程在写最后一行时退出，只写了一半
+        Files.write(log, "DONE\t12".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        JobJournal reopened = new JobJournal(log);
+        assertTrue(reopened.isDone(a.toString()));
+        assertFalse(reopened.isDone(b.toString()));
+        // 打开时已重写日志，之后追加的记录不会和半行拼在一起
+        reopened.record(b.toString(), JobState.DONE);
+        reopened.close();
+        JobJournal again = new JobJournal(log);
+        assertTrue(again.isDone(b.toString()));
+        again.close();
+    }
+
+    @Test
+    public void removesOutputsOfUnfinishedFiles() throws IOException {
+        Path log = folder.getRoot().toPath().resolve("journal.log");
+        Path done = audio("done.wav");
+        Path crashed = audio("crashed.wav");
+        Path doneTxt = output("done.txt");
+        Path crashedTxt = output("crashed.txt");
+        Path crashedSrt = output("crashed.srt");
+        JobJournal journal = new JobJournal(log);
+        journal.record(done.toString(), JobState.QUEUED);
+        journal.record(done.toString(), JobState.RECEIVED);
+        journal.recordOutputs(done.toString(), Collections.singletonList(doneTxt.toString()));
+        journal.record(done.toString(), JobState.DONE);
+        journal.record(crashed.toString(), JobState.QUEUED);
+        journal.record(crashed.toString(), JobState.RECEIVED);
+        journal.recordOutputs(crashed.toString(), Arrays.asList(crashedTxt.toString(), crashedSrt.toString()));
+        // 没有close，模拟进程在写输出时退出
+
+        JobJournal reopened = new JobJournal(log);
+        assertTrue(Files.exists(doneTxt));
+        assertFalse(Files.exists(crashedTxt));
+        assertFalse(Files.exists(crashedSrt));
+        assertFalse(reopened.isDone(crashed.toString()));
+        reopened.close();
+    }
+
+    @Test
+    public void keepsOutputsOfEarlierCompletedRun() throws IOException {
+        Path log = folder.getRoot().toPath().resolve("journal.log");
+        Path wav = audio("a.wav");
+        Path first = output("first.txt");
+        Path second = output("second.txt");
+        JobJournal journal = new JobJournal(log);
+        journal.record(wav.toString(), JobState.QUEUED);
+        journal.recordOutputs(wav.toString(), Collections.singletonList(first.toString()));
+        journal.record(wav.toString(), JobState.DONE);
+        // 文件修改后重新处理，写输出时退出
+        journal.record(wav.toString(), JobState.QUEUED);
+        journal.recordOutputs(wav.toString(), Collections.singletonList(second.toString()));
+        journal.close();
+
+        new JobJournal(log).close();
+        assertTrue(Files.exists(first));
+        assertFalse(Files.exists(second));
+    }
+
+    private Path audio(String name) throws IOException {
+        Path path = folder.getRoot().toPath().resolve(name);
+        Files.write(path, new byte[64]);
+        return path;
+    }
+
+    private Path output(String name) throws IOException {
+        Path path = folder.getRoot().toPath().resolve("out").resolve(name);
+        Files.createDirectories(path.getParent());
+        Files.write(path, "partial".getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    private static List<String> lines(Path log) throws IOException {
+        return Files.readAllLines(log, StandardCharsets.UTF_8);
+    }
+}
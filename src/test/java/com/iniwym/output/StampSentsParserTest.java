@@ -0,0 +1,99 @@
+package com.iniwym.output;
+
+import com.alibaba.fastjson.JSON;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @Description: 边解析边写出的结果与先解析为JSON对象再写出的结果一致，消息格式错误时不留下不完整的输出
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class StampSentsParserTest {
+
+    // 约16分钟、中英文混合的讲座录音的离线识别结果
+    private static final String FIXTURE = "/fixtures/offline_result.json";
+    private static final Set<OutputFormat> ALL_FORMATS = EnumSet.allOf(OutputFormat.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // 输出目录位于user.dir下的run中，测试期间指向临时目录
+    private String userDir;
+
+    @Before
+    public void redirectOutput() {
+        userDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", folder.getRoot().getPath());
+    }
+
+    @After
+    public void restoreUserDir() {
+        System.setProperty("user.dir", userDir);
+    }
+
+    @Test
+    public void streamingOutputMatchesJsonTreeOutput() throws Exception {
+        String message = loadFixture();
+        List<String> fromTree = TranscriptOutput.write(JSON.parseObject(message), ALL_FORMATS);
+        List<String> streamed = TranscriptOutput.write("lecture", message, ALL_FORMATS);
+        assertEquals(ALL_FORMATS.size(), fromTree.size());
+        assertEquals(fromTree.size(), streamed.size());
+        for (int i = 0; i < fromTree.size(); i++) {
+            byte[] expected = Files.readAllBytes(Paths.get(fromTree.get(i)));
+            assertArrayEquals(streamed.get(i), expected, Files.readAllBytes(Paths.get(streamed.get(i))));
+        }
+    }
+
+    @Test
+    public void sentenceCountMatchesFixture() throws Exception {
+        String message = loadFixture();
+        int count = StampSentsParser.parse(message, new TranscriptSink() {
+            @Override
+            public void write(Sentence sentence) {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        assertEquals(JSON.parseObject(message).getJSONArray("stamp_sents").size(), count);
+    }
+
+    @Test
+    public void malformedMessageLeavesNoPartialOutput() throws Exception {
+        String message = loadFixture();
+        // 在第二句之后截断
+        int cut = message.indexOf("{", message.indexOf("},{\"end\"") + 2) + 20;
+        try {
+            TranscriptOutput.write("lecture", message.substring(0, cut), ALL_FORMATS);
+            fail("截断的消息应当解析失败");
+        } catch (IOException | RuntimeException expected) {
+            // 期望解析失败
+        }
+        for (OutputFormat format : ALL_FORMATS) {
+            String[] left = new File(folder.getRoot(), "run/" + format.getFolder()).list();
+            assertEquals(format.name(), 0, left == null ? 0 : left.length);
+        }
+    }
+
+    private String loadFixture() throws Exception {
+        return new String(Files.readAllBytes(Paths.get(getClass().getResource(FIXTURE).toURI())), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,84 @@
+package com.iniwym.output;
+
+import com.alibaba.fastjson.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @Description: 识别结果输出文件的命名和写入
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class TranscriptOutputTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // 输出目录位于user.dir下的run中，测试期间指向临时目录
+    private String userDir;
+
+    @Before
+    public void redirectOutput() {
+        userDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", folder.getRoot().getPath());
+    }
+
+    @After
+    public void restoreUserDir() {
+        System.setProperty("user.dir", userDir);
+    }
+
+    @Test
+    public void sameNameInSameSecondGetsSeparateFiles() throws IOException {
+        Set<String> paths = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            List<String> written = TranscriptOutput.write(result("meeting", "第" + i + "个"), EnumSet.of(OutputFormat.TXT, OutputFormat.SRT));
+            assertEquals(2, written.size());
+            paths.addAll(written);
+        }
+        // 三次写出可能落在同一秒，文件名仍然各不相同
+        assertEquals(6, paths.size());
+        for (String path : paths) {
+            String content = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+            assertTrue(path, path.contains("meeting"));
+            // 每个文件只包含一个音频的结果
+            assertEquals(content, 1, content.split("个", -1).length - 1);
+        }
+    }
+
+    @Test
+    public void failedOpenThrowsAndRemovesCreatedOutputs() throws IOException {
+        // SRT的输出目录被同名文件占用，无法创建
+        Files.createDirectories(folder.getRoot().toPath().resolve("run"));
+        Files.createFile(folder.getRoot().toPath().resolve("run/outSrt"));
+        try {
+            TranscriptOutput.write(result("meeting", "第一个"), EnumSet.of(OutputFormat.TXT, OutputFormat.SRT));
+            fail("打开输出失败时应当抛出异常");
+        } catch (IOException expected) {
+            // 已创建的txt文件被删除，不会被当作完整的结果
+        }
+        String[] txt = folder.getRoot().toPath().resolve("run/outTxt").toFile().list();
+        assertEquals(0, txt == null ? 0 : txt.length);
+    }
+
+    private static JSONObject result(String wavName, String text) {
+        return JSONObject.parseObject("{\"wav_name\":\"" + wavName + "\",\"stamp_sents\":[{\"text_seg\":\""
+                + text + "\",\"punc\":\"。\",\"start\":0,\"end\":1000}]}");
+    }
+}
@@ -0,0 +1,115 @@
+package com.iniwym.scheduler;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Description: 工作线程池队列满时的等待和关闭时的拒绝
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class TaskSchedulerTest {
+
+    @Test(timeout = 10000)
+    public void queuedTasksRunWhenSubmitterWaitsForSpace() throws Exception {
+        ExecutorService executor = TaskScheduler.newWorkerPool("test-wait", 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        executor.execute(() -> {
+            awaitQuietly(release);
+            done.countDown();
+        });
+        executor.execute(done::countDown);
+        Thread submitter = new Thread(() -> executor.execute(done::countDown));
+        submitter.start();
+        awaitWaiting(submitter);
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        submitter.join();
+        TaskScheduler.shutdown(executor, 1000);
+    }
+
+    @Test(timeout = 10000)
+    public void runsTaskQueuedDuringGracefulShutdown() throws Exception {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) TaskScheduler.newWorkerPool("test-graceful", 1, 1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch releaseSecond = new CountDownLatch(1);
+        CountDownLatch lastRan = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(releaseFirst));
+        executor.execute(() -> awaitQuietly(releaseSecond));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread submitter = new Thread(() -> {
+            try {
+                executor.execute(lastRan::countDown);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        submitter.start();
+        awaitWaiting(submitter);
+
+        // 正常关闭：工作线程取走第二个任务后，等待中的提交放入队列，仍由工作线程执行
+        executor.shutdown();
+        releaseFirst.countDown();
+        submitter.join();
+        releaseSecond.countDown();
+        assertNull(failure.get());
+        assertTrue(lastRan.await(5, TimeUnit.SECONDS));
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 10000)
+    public void rejectsTaskQueuedWhileShuttingDown() throws Exception {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) TaskScheduler.newWorkerPool("test-shutdown", 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> {
+        });
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread submitter = new Thread(() -> {
+            try {
+                executor.execute(() -> {
+                });
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        submitter.start();
+        awaitWaiting(submitter);
+
+        // 关闭时清空队列并中断工作线程，等待中的提交随后放入队列，但已没有线程执行它
+        executor.shutdownNow();
+        submitter.join();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(String.valueOf(failure.get()), failure.get() instanceof RejectedExecutionException);
+        assertEquals(0, executor.getQueue().size());
+    }
+
+    /**
+     * 等待提交任务的线程阻塞在已满的队列上
+     */
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
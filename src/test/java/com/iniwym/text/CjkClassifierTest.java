@@ -0,0 +1,57 @@
+package com.iniwym.text;
+
+import com.iniwym.utils.JsonToTxtUtil;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Description: 位图判断与按Unicode区块判断的结果在第0到第2平面的每个码点上一致
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class CjkClassifierTest {
+
+    @Test
+    public void matchesUnicodeBlockCheckForPlanes0To2() {
+        for (int codePoint = 0; codePoint < 0x30000; codePoint++) {
+            boolean expected = isChineseByBlock(codePoint);
+            if (CjkClassifier.isCjk(codePoint) != expected) {
+                assertEquals("U+" + Integer.toHexString(codePoint), expected, CjkClassifier.isCjk(codePoint));
+            }
+            if (codePoint <= Character.MAX_VALUE && JsonToTxtUtil.isChinese((char) codePoint) != expected) {
+                assertEquals("U+" + Integer.toHexString(codePoint), expected, JsonToTxtUtil.isChinese((char) codePoint));
+            }
+        }
+    }
+
+    @Test
+    public void recognizesTypicalCharacters() {
+        assertTrue(CjkClassifier.isCjk('中'));
+        assertTrue(CjkClassifier.isCjk('。'));
+        assertTrue(CjkClassifier.isCjk('，'));
+        // 扩展B的汉字位于第2平面
+        assertTrue(CjkClassifier.isCjk(0x20000));
+        assertFalse(CjkClassifier.isCjk('a'));
+        assertFalse(CjkClassifier.isCjk(' '));
+        assertFalse(CjkClassifier.isCjk(-1));
+        assertFalse(CjkClassifier.isCjk(0x30000));
+        assertFalse(CjkClassifier.isCjk(Character.MAX_CODE_POINT));
+    }
+
+    /**
+     * 原先JsonToTxtUtil.isChinese的判断方式：每次查询码点所属的Unicode区块
+     */
+    static boolean isChineseByBlock(int codePoint) {
+        Character.UnicodeBlock ub = Character.UnicodeBlock.of(codePoint);
+        return ub == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS ||
+                ub == Character.UnicodeBlock.CJK_COMPATIBILITY_IDEOGRAPHS ||
+                ub == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A ||
+                ub == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_B ||
+                ub == Character.UnicodeBlock.CJK_SYMBOLS_AND_PUNCTUATION ||
+                ub == Character.UnicodeBlock.HALFWIDTH_AND_FULLWIDTH_FORMS ||
+                ub == Character.UnicodeBlock.GENERAL_PUNCTUATION;
+    }
+}
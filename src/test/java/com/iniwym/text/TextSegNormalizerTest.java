@@ -0,0 +1,87 @@
+package com.iniwym.text;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.iniwym.utils.JsonToTxtUtil;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Description: text_seg空格调整与原先逐个char处理的结果一致
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class TextSegNormalizerTest {
+
+    // 约16分钟、中英文混合的讲座录音的离线识别结果
+    private static final String FIXTURE = "/fixtures/offline_result.json";
+
+    @Test
+    public void matchesCharBasedAdjustmentOnFixture() throws Exception {
+        String message = new String(Files.readAllBytes(Paths.get(getClass().getResource(FIXTURE).toURI())), StandardCharsets.UTF_8);
+        JSONArray sents = JSON.parseObject(message).getJSONArray("stamp_sents");
+        assertTrue(sents.size() > 0);
+        TextSegNormalizer normalizer = new TextSegNormalizer();
+        boolean mixed = false;
+        for (int i = 0; i < sents.size(); i++) {
+            String textSeg = sents.getJSONObject(i).getString("text_seg");
+            String expected = adjustByChar(textSeg);
+            assertEquals(textSeg, expected, normalizer.normalize(textSeg));
+            assertEquals(textSeg, expected, JsonToTxtUtil.adjustTextSeg(textSeg));
+            mixed |= expected.matches(".*[\\u4e00-\\u9fff] [A-Za-z].*");
+        }
+        // 参考输入中包含中文后接英文的句子
+        assertTrue(mixed);
+    }
+
+    @Test
+    public void normalizesMixedText() {
+        TextSegNormalizer normalizer = new TextSegNormalizer();
+        assertEquals("今天讲 deep learning 的内容", normalizer.normalize("今 天 讲 deep learning 的 内 容"));
+        assertEquals("", normalizer.normalize(""));
+        // 扩展B的汉字按一个码点处理，与基本平面的汉字相同
+        assertEquals("𠀀中", normalizer.normalize("𠀀 中"));
+    }
+
+    /**
+     * 原先JsonToTxtUtil.adjustTextSeg的处理方式：逐个char遍历，按Unicode区块判断中文
+     */
+    private static String adjustByChar(String textSeg) {
+        StringBuilder adjustedText = new StringBuilder();
+        boolean inChineseSegment = false;
+        boolean justSwitchedToEnglish = false;
+        for (int i = 0; i < textSeg.length(); i++) {
+            char currentChar = textSeg.charAt(i);
+            if (Character.isWhitespace(currentChar)) {
+                if (justSwitchedToEnglish) {
+                    adjustedText.append(currentChar);
+                    justSwitchedToEnglish = false;
+                } else if (!inChineseSegment) {
+                    adjustedText.append(currentChar);
+                }
+                continue;
+            }
+            if (CjkClassifierTest.isChineseByBlock(currentChar)) {
+                inChineseSegment = true;
+                adjustedText.append(currentChar);
+            } else if (Character.isLetter(currentChar)) {
+                if (inChineseSegment) {
+                    adjustedText.append(' ');
+                    justSwitchedToEnglish = true;
+                }
+                inChineseSegment = false;
+                adjustedText.append(currentChar);
+            } else {
+                adjustedText.append(currentChar);
+                inChineseSegment = false;
+            }
+        }
+        return adjustedText.toString();
+    }
+}
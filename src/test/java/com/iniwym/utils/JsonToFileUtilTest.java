@@ -0,0 +1,62 @@
+package com.iniwym.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Description: JSON结果文件的命名、编码和创建通知
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class JsonToFileUtilTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // 输出目录位于user.dir下的run中，测试期间指向临时目录
+    private String userDir;
+
+    @Before
+    public void redirectOutput() {
+        userDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", folder.getRoot().getPath());
+    }
+
+    @After
+    public void restoreUserDir() {
+        System.setProperty("user.dir", userDir);
+    }
+
+    @Test
+    public void sameNameInSameSecondDoesNotOverwrite() throws IOException {
+        List<String> created = new ArrayList<>();
+        Set<String> paths = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            String path = JsonToFileUtil.saveJsonStringToFile("meeting", "{\"text\":\"第" + i + "个\"}", created::add);
+            assertTrue(path, path.contains("meeting"));
+            paths.add(path);
+        }
+        // 三次保存可能落在同一秒，文件名仍然各不相同，创建时都已通知调用方
+        assertEquals(3, paths.size());
+        assertEquals(paths, new HashSet<>(created));
+        for (String path : paths) {
+            String content = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+            assertTrue(content, content.matches("\\{\"text\":\"第[0-2]个\"}"));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.iniwym.watch;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @Description: 目录监听的写入完成判断和已处理文件的记录
+ * @Author: iniwym
+ * @Date: 2026-10-18
+ */
+public class HotFolderWatcherTest {
+
+    // 文件稳定时间，单位毫秒
+    private static final long SETTLE_MILLIS = 200;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void submitsSettledFileOnce() throws Exception {
+        Path root = folder.getRoot().toPath();
+        BlockingQueue<String> ready = new LinkedBlockingQueue<>();
+        HotFolderWatcher watcher = start(root, ready);
+        try {
+            Path file = root.resolve("a.mp3");
+            Files.write(file, new byte[100]);
+            Files.write(root.resolve("ignored.txt"), new byte[100]);
+            assertEquals(file.toString(), ready.poll(5, TimeUnit.SECONDS));
+            // 修改时间不变的事件不再重复处理
+            Files.setLastModifiedTime(file, Files.getLastModifiedTime(file));
+            assertNull(ready.poll(4 * SETTLE_MILLIS, TimeUnit.MILLISECONDS));
+        } finally {
+            watcher.close();
+        }
+    }
+
+    @Test
+    public void deletedFileIsForgotten() throws Exception {
+        Path root = folder.getRoot().toPath();
+        BlockingQueue<String> ready = new LinkedBlockingQueue<>();
+        HotFolderWatcher watcher = start(root, ready);
+        try {
+            Path dir = Files.createDirectory(root.resolve("sub"));
+            // 等待子目录注册
+            Thread.sleep(SETTLE_MILLIS);
+            Path file = dir.resolve("a.mp3");
+            Files.write(file, new byte[100]);
+            assertEquals(file.toString(), ready.poll(5, TimeUnit.SECONDS));
+            FileTime modified = Files.getLastModifiedTime(file);
+
+            // 删除后把修改时间相同的文件移回原处（例如先cp -p到其他目录再mv），应当重新处理
+            Files.delete(file);
+            Thread.sleep(SETTLE_MILLIS);
+            Path copy = folder.newFolder("outside").toPath().resolve("a.mp3");
+            Files.write(copy, new byte[100]);
+            Files.setLastModifiedTime(copy, modified);
+            Files.move(copy, file, StandardCopyOption.ATOMIC_MOVE);
+            assertEquals(file.toString(), ready.poll(5, TimeUnit.SECONDS));
+        } finally {
+            watcher.close();
+        }
+    }
+
+    private static HotFolderWatcher start(Path root, BlockingQueue<String> ready) throws IOException {
+        HotFolderWatcher watcher = new HotFolderWatcher(root, SETTLE_MILLIS, ready::add, ".mp3");
+        Thread thread = new Thread(watcher, "watcher-test");
+        thread.setDaemon(true);
+        thread.start();
+        return watcher;
+    }
+}